@@ -0,0 +1,148 @@
+package game;
+
+import actions.ActionLog;
+import enums.ActionType;
+import enums.Policy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks whole games, forks of a game and the logging of single actions
+ * Run with the GC profiler (the default for the jmh task) to see gc.alloc.rate.norm, the bytes
+ *   allocated per game or per action
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+
+    private Game game;  //Game reused by the reset and logging benchmarks
+    private Game tracked;   //Game reused by the belief benchmarks, with beliefs tracked
+    private Game midGame;   //Game three rounds in, forked by the fork benchmark
+    private long index; //Index of the next game, each game gets its own seed
+
+    /**
+     * Builds the reused game
+     */
+    @Setup
+    public void setup() {
+        game = new Game(0);
+        index = 0;
+        game.president = game.players.get(0);
+        game.chancellor = game.players.get(1);
+        tracked = new Game(0);
+        tracked.beliefs.setEnabled(true);
+        tracked.reset(0);
+        midGame = new Game(0);
+        for(int i = 0; i < 3; i++) {
+            midGame.playRound();
+        }
+    }
+
+    /**
+     * Builds and plays a new game, as GameRunner did before games were reset
+     *
+     * @return true if the liberals won
+     */
+    @Benchmark
+    public boolean newGame() {
+        return new Game(Game.seed(0, index++)).round();
+    }
+
+    /**
+     * Resets and plays the reused game, as GameRunner does now
+     *
+     * @return true if the liberals won
+     */
+    @Benchmark
+    public boolean resetGame() {
+        game.reset(Game.seed(0, index++));
+        return game.round();
+    }
+
+    /**
+     * Resets and plays a game that tracks every player's beliefs
+     *
+     * @return true if the liberals won
+     */
+    @Benchmark
+    public boolean resetGameTrackingBeliefs() {
+        tracked.reset(Game.seed(0, index++));
+        return tracked.round();
+    }
+
+    /**
+     * Forks a game three rounds in, the cost paid per rollout by a search that forks
+     *
+     * @return the fork
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Game forkGame() {
+        return midGame.fork();
+    }
+
+    /**
+     * Weighs every observer's beliefs by a nomination, which every player sees
+     *
+     * @return an observer's probability of the first layout, so the update is not dead code
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double observeNomination() {
+        tracked.beliefs.observe(0, ActionType.SELECT, 1, ActionLog.NONE, 0x7F, 0x7F, tracked);
+        return tracked.beliefs.getWorldProbability(2, 0);
+    }
+
+    /**
+     * Logs a vote, which every player sees
+     *
+     * @return the size of the log
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int logPublicAction() {
+        clearLogIfLong();
+        game.logAction(game.players.get(2), ActionType.VOTE_YES, game.president.getId(),
+                game.chancellor.getId());
+        return game.actions.size();
+    }
+
+    /**
+     * Logs a discard, which only the president and the discarding player see
+     *
+     * @return the size of the log
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int logHiddenAction() {
+        clearLogIfLong();
+        game.logAction(game.chancellor, ActionType.DISCARD, Policy.FASCIST.ordinal(),
+                ActionLog.NONE);
+        return game.actions.size();
+    }
+
+    /**
+     * Keeps the logging benchmarks from growing the log without bound
+     */
+    private void clearLogIfLong() {
+        if(game.actions.size() >= 1024) {
+            game.actions.clear();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package players;
+
+import enums.Role;
+import game.Game;
+import game.Hand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks single strategy decisions and the suspicion helpers they rely on
+ * Every decision is made in a mid-game position with three fascist policies on the board, where
+ *   the liberal vote has to consult suspicions
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyBenchmark {
+
+    private Game game;          //Game the decisions are made in
+    private Liberal liberal;    //A liberal player
+    private Fascist fascist;    //A fascist player
+    private Hitler hitler;      //The Hitler player
+
+    /**
+     * Builds the mid-game position
+     */
+    @Setup
+    public void setup() {
+        game = new Game(42);
+        for(int i = 0; i < game.players.size(); i++) {
+            Player player = game.players.get(i);
+            if(player.getRole() == Role.LIBERAL && liberal == null) {
+                liberal = (Liberal) player;
+            }
+            else if(player.getRole() == Role.FASCIST && fascist == null) {
+                fascist = (Fascist) player;
+            }
+            else if(player.getRole() == Role.HITLER) {
+                hitler = (Hitler) player;
+            }
+        }
+        game.numFascistPolicies = 3;
+        game.numLiberalPolicies = 2;
+        game.chancellor = fascist;
+
+        //Spreads suspicions so that the helpers have a clear answer to find
+        for(int i = 0; i < 7; i++) {
+            game.suspicions.set(liberal.getId(), i, (i * 37) % 60);
+            game.suspicions.set(hitler.getId(), i, (i * 23) % 40);
+        }
+    }
+
+    /**
+     * A liberal votes on a fascist president and chancellor
+     *
+     * @return the vote
+     */
+    @Benchmark
+    public boolean liberalVote() {
+        return liberal.vote(fascist, hitler);
+    }
+
+    /**
+     * A fascist president draws three policies and discards one
+     * The two passed policies go to the discard so the deck never runs dry
+     *
+     * @return the passed hand
+     */
+    @Benchmark
+    public int fascistDraw() {
+        game.president = fascist;
+        int hand = fascist.draw();
+        game.deck.discard(Hand.get(hand, 0));
+        game.deck.discard(Hand.get(hand, 1));
+        return hand;
+    }
+
+    /**
+     * Hitler picks a chancellor
+     *
+     * @return index of the chosen chancellor
+     */
+    @Benchmark
+    public int hitlerChooseChancellor() {
+        game.president = hitler;
+        return hitler.chooseChancellor();
+    }
+
+    /**
+     * Finds the least suspicious player
+     *
+     * @return index of the least suspicious player
+     */
+    @Benchmark
+    public int leastSuspicious() {
+        return liberal.getLeastSuspiciousPlayer();
+    }
+
+    /**
+     * Finds the least suspicious player other than the chancellor
+     *
+     * @return index of the least suspicious player other than the chancellor
+     */
+    @Benchmark
+    public int leastSuspiciousExclChancellor() {
+        return liberal.getLeastSuspiciousPlayerExclChancellor();
+    }
+
+    /**
+     * Finds the most suspicious player
+     *
+     * @return index of the most suspicious player
+     */
+    @Benchmark
+    public int mostSuspicious() {
+        return liberal.getMostSuspiciousPlayer();
+    }
+
+    /**
+     * Finds the most suspicious player other than the chancellor
+     *
+     * @return index of the most suspicious player other than the chancellor
+     */
+    @Benchmark
+    public int mostSuspiciousExclChancellor() {
+        return hitler.getMostSuspicousPlayerExclChancellor();
+    }
+}
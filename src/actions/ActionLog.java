@@ -0,0 +1,309 @@
+package actions;
+
+import enums.ActionType;
+import enums.Policy;
+import players.Player;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.function.IntFunction;
+
+/**
+ * Append-only log of every action taken in a game, shared by all players
+ * Actions are stored as ENTRY bytes, one per column, in chunks of CHUNK entries, so logging an
+ *   action only allocates when it opens a chunk the log has never owned and strategies read
+ *   entries through index accessors
+ * A fork of the log shares its full chunks, which are never written again, and copies only the
+ *   last one, so forking costs one chunk whatever the length of the history
+ * Each entry records which players received it and which of them could see its policies, so a
+ *   player's knowledge is a view over the log rather than a copy of it
+ * Operands are player IDs for actions on players and Policy ordinals for actions on policies
+ */
+public class ActionLog {
+
+    public static final int NONE = -1;  //Operand code for a missing or hidden operand
+
+    private static final ActionType[] TYPES = ActionType.values();  //Action types by ordinal
+    private static final Policy[] POLICIES = Policy.values();       //Policies by ordinal
+    private static final int CHUNK_SHIFT = 6;           //Entries per chunk, as a power of two
+    private static final int CHUNK = 1 << CHUNK_SHIFT;  //Entries per chunk
+    private static final int ENTRY = 6;                 //Bytes per entry, one per column
+    private static final int ACTOR = 0;         //Column of the ID of the player who took the action
+    private static final int TYPE = 1;          //Column of the ordinal of the action's type
+    private static final int FIRST = 2;         //Column of the first operand
+    private static final int SECOND = 3;        //Column of the second operand, NONE if single
+    private static final int RECEIVERS = 4;     //Column of the mask of players alive to observe
+    private static final int VISIBLE = 5;       //Column of the mask of players who saw the policies
+
+    private final IntFunction<Player> players;  //Looks up players by ID
+    private byte[][] chunks;                    //Entries by chunk, null where never opened
+    private boolean[] owned;                    //If the log may write each chunk in place
+    private int size;                           //Number of actions in the log
+
+    /**
+     * Constructor
+     *
+     * @param players looks up the game's players by ID, used to build Action objects
+     */
+    public ActionLog(IntFunction<Player> players) {
+        this.players = players;
+        chunks = new byte[2][];
+        owned = new boolean[2];
+        size = 0;
+    }
+
+    /**
+     * Empties the log
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Makes an independent copy of the log in O(CHUNK), for the fork of a game
+     * Both logs stop writing the full chunks they now share, after a clear each opens fresh ones
+     *   in their place, so the copy can be handed to another thread
+     *
+     * @param players looks up the players of the fork by ID
+     * @return the copy
+     */
+    public ActionLog fork(IntFunction<Player> players) {
+        ActionLog copy = new ActionLog(players);
+        copy.chunks = new byte[chunks.length][];
+        copy.owned = new boolean[chunks.length];
+        int full = size >> CHUNK_SHIFT;
+        for(int c = 0; c < full; c++) {
+            copy.chunks[c] = chunks[c];
+            owned[c] = false;
+        }
+        if((size & (CHUNK - 1)) != 0) {
+            copy.chunks[full] = chunks[full].clone();
+            copy.owned[full] = true;
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Appends an action to the log
+     *
+     * @param actorId ID of the player who took the action
+     * @param type the type of action
+     * @param first the first operand
+     * @param second the second operand, NONE if the action has a single operand
+     * @param receivers mask of the player IDs that observed the action
+     * @param visible mask of the player IDs that saw the policies of the action
+     * @return the index of the action
+     */
+    public int add(int actorId, ActionType type, int first, int second, int receivers,
+                   int visible) {
+        int c = size >> CHUNK_SHIFT;
+        if(c == chunks.length) {
+            chunks = Arrays.copyOf(chunks, c * 2);
+            owned = Arrays.copyOf(owned, c * 2);
+        }
+        if(!owned[c]) {
+            //The chunk was never opened or is shared with a fork
+            chunks[c] = new byte[CHUNK * ENTRY];
+            owned[c] = true;
+        }
+        byte[] chunk = chunks[c];
+        int offset = (size & (CHUNK - 1)) * ENTRY;
+        chunk[offset + ACTOR] = (byte) actorId;
+        chunk[offset + TYPE] = (byte) type.ordinal();
+        chunk[offset + FIRST] = (byte) first;
+        chunk[offset + SECOND] = (byte) second;
+        chunk[offset + RECEIVERS] = (byte) receivers;
+        chunk[offset + VISIBLE] = (byte) visible;
+        return size++;
+    }
+
+    /**
+     * Gets the number of actions in the log
+     *
+     * @return the number of actions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the ID of the player who took an action
+     *
+     * @param index index of the action
+     * @return the actor's ID
+     */
+    public int getActorId(int index) {
+        return get(index, ACTOR);
+    }
+
+    /**
+     * Gets the type of an action
+     *
+     * @param index index of the action
+     * @return the type of action
+     */
+    public ActionType getType(int index) {
+        return TYPES[get(index, TYPE)];
+    }
+
+    /**
+     * Gets the ID of the player an action was performed on
+     *
+     * @precondition the action is performed on players
+     * @param index index of the action
+     * @return the ID of the first player the action was performed on
+     */
+    public int getVictimId(int index) {
+        assert(!getType(index).isPolicyAction);
+        return get(index, FIRST);
+    }
+
+    /**
+     * Gets the ID of the second player an action was performed on
+     *
+     * @precondition the action is VOTE_YES or VOTE_NO
+     * @param index index of the action
+     * @return the ID of the second player the action was performed on
+     */
+    public int getSecondVictimId(int index) {
+        assert(!getType(index).isPolicyAction);
+        return get(index, SECOND);
+    }
+
+    /**
+     * Gets the policy an action was performed on
+     *
+     * @precondition the action is performed on policies
+     * @param index index of the action
+     * @return the first policy of the action
+     */
+    public Policy getPolicy(int index) {
+        assert(getType(index).isPolicyAction);
+        return POLICIES[get(index, FIRST)];
+    }
+
+    /**
+     * Gets the second policy an action was performed on
+     *
+     * @precondition the action is PASS, DECLARE_PASSED or VETO
+     * @param index index of the action
+     * @return the second policy of the action
+     */
+    public Policy getSecondPolicy(int index) {
+        assert(getType(index).isPolicyAction && get(index, SECOND) != NONE);
+        return POLICIES[get(index, SECOND)];
+    }
+
+    /**
+     * Determines if a player observed an action
+     *
+     * @param index index of the action
+     * @param id player ID
+     * @return true if the player was alive when the action was taken
+     */
+    public boolean isReceivedBy(int index, int id) {
+        return (get(index, RECEIVERS) & (1 << id)) != 0;
+    }
+
+    /**
+     * Determines if a player saw the policies of an action
+     *
+     * @param index index of the action
+     * @param id player ID
+     * @return true if the player saw the policies, always true for actions on players
+     */
+    public boolean isVisibleTo(int index, int id) {
+        return (get(index, VISIBLE) & (1 << id)) != 0;
+    }
+
+    /**
+     * Writes an entry of the log as six bytes, one per column: actor, type, first operand,
+     *   second operand, receivers and visible
+     *
+     * @param index index of the action
+     * @param out buffer the entry is written to at its position
+     */
+    public void put(int index, ByteBuffer out) {
+        out.put(chunks[index >> CHUNK_SHIFT], (index & (CHUNK - 1)) * ENTRY, ENTRY);
+    }
+
+    /**
+     * Builds an Action object for an entry of the log
+     * Allocates, so it is meant for debugging and assertions rather than simulation
+     *
+     * @param index index of the action
+     * @return a PolicyAction or PlayerAction matching the entry
+     */
+    public Action get(int index) {
+        Player actor = players.apply(get(index, ACTOR));
+        ActionType type = getType(index);
+        int first = get(index, FIRST);
+        int second = get(index, SECOND);
+        if(type.isPolicyAction) {
+            LinkedList<Policy> policies = new LinkedList<Policy>();
+            policies.add(POLICIES[first]);
+            if(second != NONE) {
+                policies.add(POLICIES[second]);
+            }
+            return new PolicyAction(actor, type, policies);
+        }
+        LinkedList<Player> victims = new LinkedList<Player>();
+        victims.add(players.apply(first));
+        if(second != NONE) {
+            victims.add(players.apply(second));
+        }
+        return new PlayerAction(actor, type, victims);
+    }
+
+    /**
+     * Builds an Action object for the most recent action
+     *
+     * @precondition size() > 0
+     * @return the most recent action
+     */
+    public Action getLast() {
+        return get(size - 1);
+    }
+
+    /**
+     * Builds one player's view of the actions taken by another player
+     * Actions the viewer could not see into are returned with their policies hidden
+     *
+     * @param viewerId ID of the player whose knowledge is viewed
+     * @param actorId ID of the player who took the actions
+     * @return the actions the viewer observed, in order
+     */
+    public LinkedList<Action> view(int viewerId, int actorId) {
+        LinkedList<Action> view = new LinkedList<Action>();
+        for(int i = 0; i < size; i++) {
+            if(get(i, ACTOR) == actorId && isReceivedBy(i, viewerId)) {
+                view.add(isVisibleTo(i, viewerId) ? get(i) :
+                        new PolicyAction(players.apply(actorId), getType(i), null));
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Reads a column of an entry of the log
+     *
+     * @param index index of the action
+     * @param column the column, ACTOR to VISIBLE
+     * @return the byte of the column
+     */
+    private byte get(int index, int column) {
+        return chunks[index >> CHUNK_SHIFT][(index & (CHUNK - 1)) * ENTRY + column];
+    }
+
+    /**
+     * Produces a String representation of an entry of the log
+     *
+     * @param index index of the action
+     * @return a String representation of the action
+     */
+    public String toString(int index) {
+        return get(index).toString();
+    }
+}
@@ -0,0 +1,89 @@
+package actions;
+
+import enums.ActionType;
+import enums.Policy;
+import game.SeatTable;
+
+/**
+ * Running counts of the actions each player has taken in a game, the cheap alternative to the
+ *   full ActionLog
+ * Every action is counted by its actor and type, and the actions on policies are also counted by
+ *   their first policy if every player who received the action could see it, such as plays, so
+ *   the counts by policy never give away a hidden policy
+ */
+public class ActionSummary {
+
+    private static final int NUM_TYPES = ActionType.values().length;
+    private static final int HIDDEN = Policy.values().length;  //Policy index of hidden policies
+    private static final int NUM_POLICIES = HIDDEN + 1;
+
+    private final int[] counts;     //Actions by actor, type and policy, HIDDEN if none is public
+
+    /**
+     * Constructor
+     */
+    public ActionSummary() {
+        counts = new int[SeatTable.NUM_SEATS * NUM_TYPES * NUM_POLICIES];
+    }
+
+    /**
+     * Forgets every count
+     */
+    public void clear() {
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+    }
+
+    /**
+     * Copies every count of another summary
+     *
+     * @param other the summary to copy
+     */
+    public void copyFrom(ActionSummary other) {
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+    }
+
+    /**
+     * Counts an action
+     *
+     * @param actorId ID of the player who took the action
+     * @param type the type of action
+     * @param first the first operand of the action, a Policy ordinal for actions on policies
+     * @param receivers bit i is set if player i was alive to observe the action
+     * @param visible bit i is set if player i saw the policies of the action
+     */
+    public void add(int actorId, ActionType type, int first, int receivers, int visible) {
+        int policy = type.isPolicyAction && (receivers & ~visible) == 0 ? first : HIDDEN;
+        counts[(actorId * NUM_TYPES + type.ordinal()) * NUM_POLICIES + policy]++;
+    }
+
+    /**
+     * Gets the number of actions of a type a player has taken
+     *
+     * @param actorId ID of the player
+     * @param type the type of action
+     * @return the number of such actions
+     */
+    public int getCount(int actorId, ActionType type) {
+        int base = (actorId * NUM_TYPES + type.ordinal()) * NUM_POLICIES;
+        int count = 0;
+        for(int policy = 0; policy < NUM_POLICIES; policy++) {
+            count += counts[base + policy];
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of actions of a type on a publicly seen policy a player has taken
+     *
+     * @param actorId ID of the player
+     * @param type the type of action on policies
+     * @param policy the first policy of the action
+     * @return the number of such actions every observer saw the policy of
+     */
+    public int getCount(int actorId, ActionType type, Policy policy) {
+        assert(type.isPolicyAction);
+        return counts[(actorId * NUM_TYPES + type.ordinal()) * NUM_POLICIES + policy.ordinal()];
+    }
+}
@@ -6,18 +6,29 @@ package enums;
 public enum ActionType {
 
     //Policy Types
-    PLAY,               //Play a policy
-    DISCARD,            //Discard a policy
-    PASS,               //Pass policies to the chancellor
-    DECLARE_DISCARDED,  //Declare what policy was discarded
-    DECLARE_PASSED,     //Declare what policies were passed to the chancellor
-    VETO,               //Veto a pair of policies
+    PLAY(true),                 //Play a policy
+    DISCARD(true),              //Discard a policy
+    PASS(true),                 //Pass policies to the chancellor
+    DECLARE_DISCARDED(true),    //Declare what policy was discarded
+    DECLARE_PASSED(true),       //Declare what policies were passed to the chancellor
+    VETO(true),                 //Veto a pair of policies
 
     //Player Types
-    SELECT,             //Select a president or chancellor
-    ACCUSE,             //Accuse a player
-    INVESTIGATE,        //Investigate a player
-    SHOOT,              //Shoot a player
-    VOTE_YES,           //Voted for a president/chancellor combo
-    VOTE_NO             //Voted against a president/chancellor combo
+    SELECT(false),              //Select a president or chancellor
+    ACCUSE(false),              //Accuse a player
+    INVESTIGATE(false),         //Investigate a player
+    SHOOT(false),               //Shoot a player
+    VOTE_YES(false),            //Voted for a president/chancellor combo
+    VOTE_NO(false);             //Voted against a president/chancellor combo
+
+    public final boolean isPolicyAction;    //If the action is performed on policies
+
+    /**
+     * Constructor
+     *
+     * @param isPolicyAction true if the action is performed on policies, false if on players
+     */
+    private ActionType(boolean isPolicyAction) {
+        this.isPolicyAction = isPolicyAction;
+    }
 }
@@ -0,0 +1,24 @@
+package enums;
+
+/**
+ * Decision a player can hand to a search, see game.Mcts
+ */
+public enum Decision {
+    CHANCELLOR(true),   //The president nominates a chancellor
+    DISCARD(false),     //The president discards one of three policies
+    PLAY(false),        //The chancellor plays one of two policies
+    VOTE(false),        //A player votes on the government
+    VETO(false),        //The chancellor proposes or the president agrees to a veto
+    SHOOT(true);        //The president shoots a player
+
+    public final boolean picksPlayer;   //If the moves are players rather than policies or answers
+
+    /**
+     * Constructor
+     *
+     * @param picksPlayer if the moves are players rather than policies or answers
+     */
+    private Decision(boolean picksPlayer) {
+        this.picksPlayer = picksPlayer;
+    }
+}
@@ -0,0 +1,10 @@
+package enums;
+
+/**
+ * Layout of the points a parameter sweep evaluates
+ */
+public enum Design {
+    GRID,               //Every combination of evenly spaced levels of each parameter
+    LATIN_HYPERCUBE,    //Random points which cover every stratum of each parameter once
+    SOBOL;              //Low-discrepancy points which fill the space evenly in any number
+}
@@ -0,0 +1,22 @@
+package enums;
+
+/**
+ * Reason a game ended
+ */
+public enum EndCause {
+    LIBERAL_POLICIES(true),     //Five liberal policies were played
+    HITLER_SHOT(true),          //Hitler was shot
+    FASCIST_POLICIES(false),    //Six fascist policies were played
+    HITLER_ELECTED(false);      //Hitler was elected chancellor after three fascist policies
+
+    public final boolean liberalsWin;   //If the liberals win when the game ends this way
+
+    /**
+     * Constructor
+     *
+     * @param liberalsWin true if the liberals win when the game ends this way
+     */
+    private EndCause(boolean liberalsWin) {
+        this.liberalsWin = liberalsWin;
+    }
+}
@@ -0,0 +1,25 @@
+package enums;
+
+/**
+ * How much of a game's history is recorded for the players to look back on
+ * No built-in strategy reads the history, so runs that only want outcomes can skip it
+ */
+public enum KnowledgeLevel {
+    NONE(false, false),     //Nothing is recorded
+    SUMMARY(true, false),   //Only running counts of each player's actions, see ActionSummary
+    FULL(true, true);       //The counts and every action in the log, see ActionLog
+
+    public final boolean keepsSummary;  //If the running counts are kept
+    public final boolean keepsLog;      //If every action is logged
+
+    /**
+     * Constructor
+     *
+     * @param keepsSummary if the running counts are kept
+     * @param keepsLog if every action is logged
+     */
+    private KnowledgeLevel(boolean keepsSummary, boolean keepsLog) {
+        this.keepsSummary = keepsSummary;
+        this.keepsLog = keepsLog;
+    }
+}
@@ -0,0 +1,45 @@
+package enums;
+
+/**
+ * Tuning constant of the strategies, with its default and the range a sweep explores
+ */
+public enum Parameter {
+    PLAY_FASCIST(10, 0, 50, true),      //Suspicion of a player who plays a fascist policy
+    PLAY_LIBERAL(10, 0, 50, true),      //Suspicion of a player who plays a liberal policy
+    DISCARD_FASCIST(5, 0, 50, true),    //Suspicion of a player who discards a fascist policy
+    DISCARD_LIBERAL(25, 0, 50, true),   //Suspicion of a player who discards a liberal policy
+    SELECT_FACTOR(.5, 0, 1, false),     //Share of the selected player's suspicion passed on
+    VOTE_THRESHOLD(50, 0, 200, true),   //Suspicion at which a liberal votes against a government
+    FAILED_VOTES(1, 0, 2, true);        //Failed elections past which a liberal always votes yes
+
+    public final double defaultValue;   //Value the strategies were written with
+    public final double low;            //Lowest value a sweep explores
+    public final double high;           //Highest value a sweep explores
+    public final boolean isInteger;     //If the parameter only takes whole values
+
+    /**
+     * Constructor
+     *
+     * @param defaultValue value the strategies were written with
+     * @param low lowest value a sweep explores
+     * @param high highest value a sweep explores
+     * @param isInteger true if the parameter only takes whole values
+     */
+    private Parameter(double defaultValue, double low, double high, boolean isInteger) {
+        this.defaultValue = defaultValue;
+        this.low = low;
+        this.high = high;
+        this.isInteger = isInteger;
+    }
+
+    /**
+     * Maps a point of the unit interval onto the parameter's range
+     *
+     * @param unit value between 0 and 1
+     * @return the corresponding value, rounded if the parameter is an integer
+     */
+    public double scale(double unit) {
+        double value = low + unit * (high - low);
+        return isInteger ? Math.round(value) : value;
+    }
+}
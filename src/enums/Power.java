@@ -0,0 +1,25 @@
+package enums;
+
+/**
+ * Presidential power granted by a fascist policy played by a government
+ */
+public enum Power {
+    INVESTIGATE(2, ActionType.INVESTIGATE),     //The president investigates a player's party
+    SPECIAL_ELECTION(3, ActionType.SELECT),     //The president picks the next president
+    FIRST_SHOT(4, ActionType.SHOOT),            //The president shoots a player
+    SECOND_SHOT(5, ActionType.SHOOT);           //The president shoots a player, veto is enabled
+
+    public final int numFascistPolicies;    //Fascist policies on the board that grant the power
+    public final ActionType type;           //Type of the action the power is used with
+
+    /**
+     * Constructor
+     *
+     * @param numFascistPolicies fascist policies on the board that grant the power
+     * @param type type of the action the power is used with
+     */
+    private Power(int numFascistPolicies, ActionType type) {
+        this.numFascistPolicies = numFascistPolicies;
+        this.type = type;
+    }
+}
@@ -0,0 +1,23 @@
+package enums;
+
+/**
+ * Outcome whose probability an importance-sampled run estimates
+ */
+public enum RareEvent {
+    LIBERAL_POLICIES(EndCause.LIBERAL_POLICIES),    //The game ends by five liberal policies
+    HITLER_SHOT(EndCause.HITLER_SHOT),              //The game ends by Hitler being shot
+    FASCIST_POLICIES(EndCause.FASCIST_POLICIES),    //The game ends by six fascist policies
+    HITLER_ELECTED(EndCause.HITLER_ELECTED),        //The game ends by Hitler being elected
+    VETO(null);                                     //Policies are vetoed after veto power is set
+
+    public final EndCause cause;    //End cause the event is, null if the event is not an ending
+
+    /**
+     * Constructor
+     *
+     * @param cause end cause the event is, null if the event is not an ending
+     */
+    private RareEvent(EndCause cause) {
+        this.cause = cause;
+    }
+}
@@ -0,0 +1,10 @@
+package enums;
+
+/**
+ * How a run picks the deal, the role layout and initial deck order, of each game
+ */
+public enum Sampling {
+    PLAIN,          //Every game's deal is drawn independently
+    STRATIFIED,     //The deals are cut into one stratum per game and each game draws from its own
+    ANTITHETIC;     //Games come in pairs, the second playing the first's deck in reverse
+}
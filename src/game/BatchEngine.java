@@ -0,0 +1,802 @@
+package game;
+
+import enums.EndCause;
+import enums.KnowledgeLevel;
+import enums.Parameter;
+import players.StrategyParams;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays many games side by side with the state of every game held in primitive arrays
+ * Each lane of the engine holds one game: policy counts, the deck as a bit mask, the alive set,
+ *   who knows each player's party as a bit mask and the 7x7 suspicion matrix, all laid out by
+ *   lane
+ * Every round, the running games go through the nomination, vote, legislative and executive
+ *   phases one phase at a time, and a lane whose game ends takes the next game of the range
+ * The strategies of Liberal, Fascist and Hitler are inlined rather than called through Player, and
+ *   no action log is kept: every action only updates the lane's suspicions, as
+ *   SuspicionMatrix.observe does, and actions no strategy reads, such as vetoes or veto power,
+ *   are not recorded
+ * Fascist picks its chancellor, president and victim by role and always votes yes, so it never
+ *   reads its suspicions and the suspicions of the two fascists are not kept at all; nor are the
+ *   suspicions players have of themselves, which are fixed after their first action
+ * The inlined copies must follow any change to the strategies or the suspicion weights, which
+ *   the build checks by running main, see verify
+ * Game i of a run is seeded from (masterSeed, i) and each lane draws from its game's own stream in
+ *   the same order as Game, so a game plays out exactly as the reference Game plays it, which
+ *   verify checks game by game
+ */
+public class BatchEngine {
+
+    public static final int LANES = 64;            //Games played side by side by default
+    private static final long BATCH_SIZE = 16384;   //Most games a single fork-join task plays
+    private static final int N = SeatTable.NUM_SEATS;
+    private static final int ALL = (1 << N) - 1;    //Alive set of a full table
+    private static final int FULL_DECK = PolicyDeck.NUM_LIBERAL + PolicyDeck.NUM_FASCIST;
+    private static final EndCause[] CAUSES = EndCause.values();
+    private static final int[] MASKS = new int[PolicyDeck.NUM_ORDERS];    //Full deck by rank
+    private static final int[] LAYOUT_FASCISTS = new int[Game.NUM_LAYOUTS]; //Fascists by layout
+    private static final int[] LAYOUT_HITLER = new int[Game.NUM_LAYOUTS];   //Hitler by layout
+    private static final int K = PolicyDeck.NUM_LIBERAL + 1;
+    private static final int[] CHOOSE = new int[(FULL_DECK + 1) * K];  //n choose k at n * K + k
+    static {
+        for(int rank = 0; rank < MASKS.length; rank++) {
+            MASKS[rank] = PolicyDeck.mask(rank);
+        }
+        int[] ids = new int[N];
+        for(int rank = 0; rank < Game.NUM_LAYOUTS; rank++) {
+            Game.layout(rank, ids);
+            LAYOUT_FASCISTS[rank] = (1 << ids[4]) | (1 << ids[5]);
+            LAYOUT_HITLER[rank] = ids[6];
+        }
+        for(int n = 0; n <= FULL_DECK; n++) {
+            for(int k = 0; k < K; k++) {
+                CHOOSE[n * K + k] = PolicyDeck.binomial(n, k);
+            }
+        }
+    }
+
+    private final int lanes;                    //Number of games played side by side
+    private final StrategyParams params;        //Tuning constants of the strategies
+    private final long[] gameIndex;             //Index of the game in each lane
+    private final SplittableRandom[] random;    //Source of each game's random decisions
+    private final int[] liberal;                //Number of liberal policies on the board
+    private final int[] fascist;                //Number of fascist policies on the board
+    private final int[] failed;                 //Number of rounds without a played policy
+    private final int[] rounds;                 //Number of rounds passed
+    private final int[] deck;                   //Bit i is set if card i is liberal, top card last
+    private final int[] deckSize;               //Number of cards in the deck
+    private final int[] discardLiberal;         //Number of liberal policies in the discard
+    private final int[] discardSize;            //Number of cards in the discard
+    private final int[] alive;                  //Bit i is set if the player with ID i is alive
+    private final int[] president;              //ID of the current president
+    private final int[] chancellor;             //ID of the current chancellor, -1 if none
+    private final boolean[] presidentPicks;     //If the president selects the next president
+    private final int[] fascists;               //Bit i is set if ID i has the FASCIST role
+    private final int[] party;                  //Bit i is set if ID i is in the fascist party
+    private final int[] hitler;                 //ID of the player with the HITLER role
+    private final int[] control;                //Liberal policies in the initial top of the deck
+    private final boolean[] elected;            //If this round's government was voted in
+    private final int[] played;                 //Policy played this round, 1 liberal, 0 fascist,
+                                                //  -1 if none
+    private final int[] cause;                  //Ordinal of why the game ended, -1 while running
+    private final int[] knownBy;                //Others who know each player's party
+    private final int[] investigated;           //Bit i is set if ID i's party was investigated
+    private final int[] suspicion;              //Suspicions by lane, observer and suspect
+
+    /**
+     * Constructor
+     *
+     * @param lanes number of games played side by side
+     * @param params tuning constants of the strategies
+     */
+    public BatchEngine(int lanes, StrategyParams params) {
+        assert(lanes > 0);
+        this.lanes = lanes;
+        this.params = params;
+        gameIndex = new long[lanes];
+        random = new SplittableRandom[lanes];
+        liberal = new int[lanes];
+        fascist = new int[lanes];
+        failed = new int[lanes];
+        rounds = new int[lanes];
+        deck = new int[lanes];
+        deckSize = new int[lanes];
+        discardLiberal = new int[lanes];
+        discardSize = new int[lanes];
+        alive = new int[lanes];
+        president = new int[lanes];
+        chancellor = new int[lanes];
+        presidentPicks = new boolean[lanes];
+        fascists = new int[lanes];
+        party = new int[lanes];
+        hitler = new int[lanes];
+        control = new int[lanes];
+        elected = new boolean[lanes];
+        played = new int[lanes];
+        cause = new int[lanes];
+        knownBy = new int[lanes * N];
+        investigated = new int[lanes];
+        suspicion = new int[lanes * N * N];
+    }
+
+    /**
+     * Checks the engine against the reference Game, the build's differential test
+     * Compares 2^args[0] games, 2^16 if not provided, under the default parameters and under
+     *   --params N more points drawn at random from the range a sweep explores, 4 if not provided,
+     *   so a change to the strategies or the suspicion weights that the engine's inlined copies
+     *   miss is caught even where the defaults hide it
+     * Exits with status 1 if any game's end cause or number of rounds differs
+     *
+     * @param args optional integer argument which will result in 2^args[0] games per point,
+     *             optionally followed or preceded by --seed S or --params N
+     */
+    public static void main(String[] args) {
+        int numGames = 1 << 16;
+        long masterSeed = new SplittableRandom().nextLong();
+        int numPoints = 4;
+        for(int i = 0; i < args.length; i++) {
+            if(args[i].equals("--seed") && i + 1 < args.length) {
+                masterSeed = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--params") && i + 1 < args.length) {
+                numPoints = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].matches("\\d+")) {
+                numGames = 1 << Math.min(30, Integer.parseInt(args[i]));
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(masterSeed);
+        Parameter[] parameters = Parameter.values();
+        long mismatches = 0;
+        for(int point = 0; point <= numPoints; point++) {
+            StrategyParams params = StrategyParams.DEFAULT;
+            if(point > 0) {
+                double[] values = new double[parameters.length];
+                for(int i = 0; i < parameters.length; i++) {
+                    values[i] = parameters[i].scale(random.nextDouble());
+                }
+                params = new StrategyParams(values);
+            }
+            long found = verify(numGames, Game.seed(masterSeed, point), params);
+            System.out.printf("%d games, %d with different outcomes: %s\n", numGames, found,
+                    params);
+            mismatches += found;
+        }
+        System.out.println("Master seed: " + masterSeed);
+        if(mismatches > 0) {
+            System.err.println(mismatches + " games played out differently on the two engines");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a number of games, splitting them across worker threads
+     * Game i is seeded from (masterSeed, i), so the results are those of GameRunner.run with the
+     *   same seed and plain sampling
+     *
+     * @param numGames number of games to play
+     * @param threads number of worker threads, 1 plays every game on the calling thread
+     * @param masterSeed seed from which every game's seed is derived
+     * @param params tuning constants of the strategies
+     * @return the merged results of every game
+     */
+    public static Results run(long numGames, int threads, long masterSeed,
+                              StrategyParams params) {
+        if(threads <= 1) {
+            return new BatchEngine(LANES, params).play(masterSeed, 0, numGames, null);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new BatchTask(masterSeed, 0, numGames, params));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays the same games on this engine and on the reference Game and compares them one by one
+     *
+     * @param numGames number of games to compare
+     * @param masterSeed seed from which every game's seed is derived
+     * @param params tuning constants of the strategies
+     * @return the number of games whose end cause or number of rounds differ
+     */
+    public static long verify(int numGames, long masterSeed, StrategyParams params) {
+        int[] outcomes = new int[numGames];
+        new BatchEngine(LANES, params).play(masterSeed, 0, numGames, outcomes);
+
+        Game game = new Game(0);
+        game.setKnowledge(KnowledgeLevel.NONE);
+        game.params = params;
+        long mismatches = 0;
+        for(int i = 0; i < numGames; i++) {
+            game.reset(Game.seed(masterSeed, i));
+            game.round();
+            if(outcomes[i] != outcome(game.getEndCause().ordinal(), game.numRounds)) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Plays a contiguous range of games on the calling thread
+     *
+     * @param masterSeed seed from which every game's seed is derived
+     * @param from index of the first game
+     * @param to index after the last game
+     * @param outcomes receives the end cause and rounds of game i at i - from, null if not needed
+     * @return the results of the games in the range
+     */
+    Results play(long masterSeed, long from, long to, int[] outcomes) {
+        Results results = new Results();
+        int[] active = new int[lanes];
+        int numActive = 0;
+        long next = from;
+        while(numActive < lanes && next < to) {
+            deal(numActive, masterSeed, next++);
+            active[numActive] = numActive;
+            numActive++;
+        }
+
+        while(numActive > 0) {
+            for(int i = 0; i < numActive; i++) {
+                nominate(active[i]);
+            }
+            for(int i = 0; i < numActive; i++) {
+                vote(active[i]);
+            }
+            for(int i = 0; i < numActive; i++) {
+                legislate(active[i]);
+            }
+            for(int i = 0; i < numActive; i++) {
+                execute(active[i]);
+            }
+
+            //Finished games make way for the next games of the range
+            int kept = 0;
+            for(int i = 0; i < numActive; i++) {
+                int lane = active[i];
+                if(!close(lane)) {
+                    active[kept++] = lane;
+                    continue;
+                }
+                EndCause ended = CAUSES[cause[lane]];
+                results.add(ended, rounds[lane], fascists[lane], hitler[lane]);
+                results.getEstimator().add(ended.liberalsWin, control[lane]);
+                if(outcomes != null) {
+                    outcomes[(int) (gameIndex[lane] - from)] = outcome(cause[lane], rounds[lane]);
+                }
+                if(next < to) {
+                    deal(lane, masterSeed, next++);
+                    active[kept++] = lane;
+                }
+            }
+            numActive = kept;
+        }
+        return results;
+    }
+
+    /**
+     * Deals a new game into a lane, drawing the layout and the deck as Game.reset does
+     *
+     * @param lane the lane
+     * @param masterSeed seed from which every game's seed is derived
+     * @param index index of the game
+     */
+    private void deal(int lane, long masterSeed, long index) {
+        SplittableRandom stream = new SplittableRandom(Game.seed(masterSeed, index));
+        gameIndex[lane] = index;
+        random[lane] = stream;
+
+        int layout = stream.nextInt(Game.NUM_LAYOUTS);
+        fascists[lane] = LAYOUT_FASCISTS[layout];
+        hitler[lane] = LAYOUT_HITLER[layout];
+        party[lane] = fascists[lane] | (1 << hitler[lane]);
+
+        deck[lane] = MASKS[stream.nextInt(PolicyDeck.NUM_ORDERS)];
+        deckSize[lane] = FULL_DECK;
+        discardLiberal[lane] = 0;
+        discardSize[lane] = 0;
+        control[lane] = Integer.bitCount(deck[lane] >>> (FULL_DECK - Estimator.CONTROL_DEPTH));
+
+        liberal[lane] = 0;
+        fascist[lane] = 0;
+        failed[lane] = 0;
+        rounds[lane] = 0;
+        alive[lane] = ALL;
+        president[lane] = N - 1;
+        chancellor[lane] = -1;
+        presidentPicks[lane] = false;
+        cause[lane] = -1;
+
+        //Fascists see every party too, but keep no suspicions
+        for(int id = 0; id < N; id++) {
+            knownBy[lane * N + id] = 0;
+        }
+        investigated[lane] = 0;
+        for(int cell = lane * N * N; cell < (lane + 1) * N * N; cell++) {
+            suspicion[cell] = 0;
+        }
+    }
+
+    /**
+     * Moves the presidency on and has the president select a chancellor
+     *
+     * @param lane the lane
+     */
+    private void nominate(int lane) {
+        rounds[lane]++;
+        int players = alive[lane];
+        if(!presidentPicks[lane]) {
+            int index = SeatTable.indexOf(players, president[lane]) + 1;
+            president[lane] = SeatTable.idAt(players, index % Integer.bitCount(players));
+        }
+        else {
+            presidentPicks[lane] = false;
+        }
+
+        int p = president[lane];
+        int c;
+        if(p == hitler[lane]) {
+            c = mostSuspicious(lane, p, chancellor[lane]);
+        }
+        else if((fascists[lane] & (1 << p)) != 0) {
+            int other = Integer.numberOfTrailingZeros(fascists[lane] & ~(1 << p));
+            c = fascist[lane] < 3 && (players & (1 << other)) != 0 ? other : hitler[lane];
+        }
+        else {
+            c = leastSuspicious(lane, p, chancellor[lane]);
+        }
+        chancellor[lane] = c;
+        observeSelect(lane, p, c);
+    }
+
+    /**
+     * Has every alive player vote on the government in turn, liberals reading their suspicions
+     *   as they stand after the votes before theirs
+     *
+     * @param lane the lane
+     */
+    private void vote(int lane) {
+        int p = president[lane];
+        int c = chancellor[lane];
+        int players = alive[lane];
+        int numYes = Integer.bitCount(players);
+        //A vote only moves the suspicions of those who know the voter's party, and those of
+        //  everyone else only matter if some liberal may vote no
+        if(fascist[lane] < 3 || failed[lane] > params.failedVotes) {
+            for(int voters = players & investigated[lane]; voters != 0; voters &= voters - 1) {
+                observe(lane, Integer.numberOfTrailingZeros(voters), 0, 0);
+            }
+        }
+        else {
+            //Players vote in seat order, which is the order of their IDs
+            int liberals = ~party[lane] & ~(1 << c);
+            int threshold = params.voteThreshold;
+            for(int voters = players; voters != 0; voters &= voters - 1) {
+                int voter = Integer.numberOfTrailingZeros(voters);
+                int row = (lane * N + voter) * N;
+                boolean against = suspicion[row + p] >= threshold |
+                        suspicion[row + c] >= threshold;
+                numYes -= (liberals >>> voter) & (against ? 1 : 0);
+                if((investigated[lane] & (1 << voter)) != 0) {
+                    observe(lane, voter, 0, 0);
+                }
+            }
+        }
+
+        elected[lane] = numYes * 2 > Integer.bitCount(alive[lane]);
+        if(!elected[lane]) {
+            failed[lane]++;
+        }
+        else if(fascist[lane] > 3 && c == hitler[lane]) {
+            cause[lane] = EndCause.HITLER_ELECTED.ordinal();
+        }
+    }
+
+    /**
+     * Has an elected government draw, pass and either veto or play a policy
+     *
+     * @param lane the lane
+     */
+    private void legislate(int lane) {
+        played[lane] = -1;
+        if(!elected[lane] || cause[lane] >= 0) {
+            return;
+        }
+        int p = president[lane];
+        int c = chancellor[lane];
+
+        if(deckSize[lane] < 3) {
+            shuffleInDiscard(lane);
+        }
+        //Bit 0 of a hand is the top card, as in Hand
+        int size = deckSize[lane];
+        int top = deck[lane] >>> (size - 3);
+        int hand = ((top >>> 2) & 1) | (top & 2) | ((top << 2) & 4);
+        deckSize[lane] = size - 3;
+        deck[lane] &= (1 << (size - 3)) - 1;
+
+        //Liberals discard the first fascist policy, fascists the first liberal one, else the first
+        int wanted = (party[lane] & (1 << p)) != 0 ? hand : ~hand & 7;
+        int discard = wanted == 0 ? 0 : Integer.numberOfTrailingZeros(wanted);
+        int card = (hand >>> discard) & 1;
+        discard(lane, card);
+        int pass = ((hand >>> (discard + 1)) << discard) | (hand & ((1 << discard) - 1));
+        observe(lane, p, 1 << p, card == 1 ? params.discardLiberal : params.discardFascist);
+        observe(lane, p, 0, 0);
+
+        int numLiberal = Integer.bitCount(pass);
+        if(vetoes(lane, c, numLiberal) && vetoes(lane, p, numLiberal)) {
+            observe(lane, p, 0, 0);
+            discard(lane, pass & 1);
+            discard(lane, pass >>> 1);
+            failed[lane]++;
+            return;
+        }
+
+        //Liberals play the first policy if it is liberal, fascists always play the second
+        int kept = (party[lane] & (1 << c)) == 0 && (pass & 1) == 1 ? 0 : 1;
+        int policy = (pass >>> kept) & 1;
+        int dropped = (pass >>> (1 - kept)) & 1;
+        discard(lane, dropped);
+        observe(lane, c, (1 << c) | (1 << p),
+                dropped == 1 ? params.discardLiberal : params.discardFascist);
+        observe(lane, c, ALL, policy == 1 ? params.playLiberal : params.playFascist);
+        failed[lane] = 0;
+        played[lane] = policy;
+        if(policy == 1) {
+            liberal[lane]++;
+        }
+        else {
+            fascist[lane]++;
+        }
+    }
+
+    /**
+     * Uses the presidential power of a fascist policy played this round
+     *
+     * @param lane the lane
+     */
+    private void execute(int lane) {
+        if(played[lane] != 0) {
+            return;
+        }
+        int p = president[lane];
+        int players = alive[lane];
+        switch(fascist[lane]) {
+            case 2: {
+                int index = random[lane].nextInt(Integer.bitCount(players) - 1);
+                if(index >= SeatTable.indexOf(players, p)) {
+                    index++;
+                }
+                int target = SeatTable.idAt(players, index);
+                knownBy[lane * N + target] |= 1 << p;
+                investigated[lane] |= 1 << target;
+                observe(lane, p, 0, 0);
+                break;
+            }
+            case 3: {
+                int next;
+                if(p == hitler[lane]) {
+                    next = mostSuspicious(lane, p, -1);
+                }
+                else if((fascists[lane] & (1 << p)) != 0) {
+                    int other = Integer.numberOfTrailingZeros(fascists[lane] & ~(1 << p));
+                    next = (players & (1 << other)) != 0 ? other : hitler[lane];
+                }
+                else {
+                    next = leastSuspicious(lane, p, -1);
+                }
+                president[lane] = next;
+                presidentPicks[lane] = true;
+                observeSelect(lane, p, next);
+                break;
+            }
+            case 4:
+            case 5: {
+                int victim;
+                if(p != hitler[lane] && (fascists[lane] & (1 << p)) != 0) {
+                    //Walks to a random alive liberal in seat order
+                    int liberals = players & ~party[lane];
+                    int chosen = random[lane].nextInt(Integer.bitCount(liberals));
+                    for(int i = 0; i < chosen; i++) {
+                        liberals &= liberals - 1;
+                    }
+                    victim = Integer.numberOfTrailingZeros(liberals);
+                }
+                else {
+                    victim = mostSuspicious(lane, p, -1);
+                }
+                alive[lane] = players & ~(1 << victim);
+                observe(lane, p, 0, 0);
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Flips a policy after three failed governments and checks the win conditions
+     *
+     * @param lane the lane
+     * @return true if the game is over
+     */
+    private boolean close(int lane) {
+        if(cause[lane] >= 0) {
+            return true;
+        }
+        if(failed[lane] == 3) {
+            if(deckSize[lane] < 1) {
+                shuffleInDiscard(lane);
+            }
+            int size = --deckSize[lane];
+            if(((deck[lane] >>> size) & 1) == 1) {
+                liberal[lane]++;
+            }
+            else {
+                fascist[lane]++;
+            }
+            deck[lane] &= (1 << size) - 1;
+            failed[lane] = 0;
+            chancellor[lane] = -1;
+        }
+
+        if(fascist[lane] == 6) {
+            cause[lane] = EndCause.FASCIST_POLICIES.ordinal();
+        }
+        else if(liberal[lane] == 5) {
+            cause[lane] = EndCause.LIBERAL_POLICIES.ordinal();
+        }
+        else if((alive[lane] & (1 << hitler[lane])) == 0) {
+            cause[lane] = EndCause.HITLER_SHOT.ordinal();
+        }
+        else if(rounds[lane] >= Game.MAX_ROUNDS) {
+            throw new IllegalStateException("Game did not finish within " + Game.MAX_ROUNDS +
+                    " rounds");
+        }
+        return cause[lane] >= 0;
+    }
+
+    /**
+     * Adds an action to the suspicions of every alive observer, as SuspicionMatrix.observe does
+     * Known liberals and fascists are pushed to the extremes, saturating as the matrix does, and
+     *   only the few observers who know the actor's party or saw a policy are visited, fascists
+     *   never
+     * A player's suspicion of themselves is not kept, see selfSuspicion
+     *
+     * @param lane the lane
+     * @param actor ID of the player who performed the action
+     * @param visible mask of the IDs who saw the policies of the action
+     * @param amount suspicion the action carries for an observer who saw it
+     */
+    private void observe(int lane, int actor, int visible, int amount) {
+        int others = alive[lane] & ~fascists[lane] & ~(1 << actor);
+        int watchers = others & knownBy[lane * N + actor];
+        int column = lane * N * N + actor;
+        if(watchers != 0) {
+            int extreme = (party[lane] & (1 << actor)) != 0 ? Integer.MAX_VALUE :
+                    Integer.MIN_VALUE;
+            for(int observers = watchers; observers != 0; observers &= observers - 1) {
+                int cell = column + Integer.numberOfTrailingZeros(observers) * N;
+                suspicion[cell] = saturatedAdd(suspicion[cell], extreme);
+            }
+        }
+        if(amount != 0) {
+            for(int observers = others & visible & ~watchers; observers != 0;
+                    observers &= observers - 1) {
+                int cell = column + Integer.numberOfTrailingZeros(observers) * N;
+                suspicion[cell] = saturatedAdd(suspicion[cell], amount);
+            }
+        }
+    }
+
+    /**
+     * Adds a selection to the suspicions of every alive observer, passing on a share of each
+     *   observer's own suspicion of the selected player
+     *
+     * @param lane the lane
+     * @param actor ID of the player who selected
+     * @param victim ID of the selected player
+     */
+    private void observeSelect(int lane, int actor, int victim) {
+        int extreme = (party[lane] & (1 << actor)) != 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        int watchers = knownBy[lane * N + actor];
+        for(int observers = alive[lane] & ~fascists[lane] & ~(1 << actor); observers != 0;
+                observers &= observers - 1) {
+            int observer = Integer.numberOfTrailingZeros(observers);
+            int row = (lane * N + observer) * N;
+            int weight;
+            if((watchers & (1 << observer)) != 0) {
+                weight = extreme;
+            }
+            else {
+                int seen = observer == victim ? selfSuspicion(lane, observer) :
+                        suspicion[row + victim];
+                weight = (int) (seen * params.selectFactor);
+            }
+            suspicion[row + actor] = saturatedAdd(suspicion[row + actor], weight);
+        }
+    }
+
+    /**
+     * Gets the suspicion a non-fascist player has of themselves, which the engine does not keep
+     * Players know their own party, so in SuspicionMatrix it starts at 0 and goes to the extreme
+     *   of their party at their first action; every alive player votes in the first round, so it
+     *   is 0 only when the first nomination reads it
+     *
+     * @param lane the lane
+     * @param id ID of the player
+     * @return the player's suspicion of themselves
+     */
+    private int selfSuspicion(int lane, int id) {
+        if(rounds[lane] == 1) {
+            return 0;
+        }
+        return (party[lane] & (1 << id)) != 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Finds the alive player an observer suspects least, as Player.getLeastSuspiciousPlayer does
+     *
+     * @param lane the lane
+     * @param self ID of the observer, who is never picked
+     * @param excluded ID of another player who is never picked, -1 if none
+     * @return the ID of the least suspicious player, 0 if every candidate is at the maximum
+     */
+    private int leastSuspicious(int lane, int self, int excluded) {
+        int row = (lane * N + self) * N;
+        int candidates = alive[lane] & ~(1 << self) & (excluded < 0 ? ALL : ~(1 << excluded));
+        //The lowest suspicion in the high bits, the lowest ID among equals in the low bits
+        long least = Long.MAX_VALUE;
+        for(; candidates != 0; candidates &= candidates - 1) {
+            int id = Integer.numberOfTrailingZeros(candidates);
+            least = Math.min(least, ((long) suspicion[row + id] << 3) | id);
+        }
+        return least >> 3 == Integer.MAX_VALUE ? 0 : (int) least & 7;
+    }
+
+    /**
+     * Finds the alive player an observer suspects most, as Player.getMostSuspiciousPlayer does
+     *
+     * @param lane the lane
+     * @param self ID of the observer, who is never picked
+     * @param excluded ID of another player who is never picked, -1 if none
+     * @return the ID of the most suspicious player, 0 if every candidate is at the minimum
+     */
+    private int mostSuspicious(int lane, int self, int excluded) {
+        int row = (lane * N + self) * N;
+        int candidates = alive[lane] & ~(1 << self) & (excluded < 0 ? ALL : ~(1 << excluded));
+        //The highest suspicion in the high bits, the lowest ID among equals in the low bits
+        long most = Long.MIN_VALUE;
+        for(; candidates != 0; candidates &= candidates - 1) {
+            int id = Integer.numberOfTrailingZeros(candidates);
+            most = Math.max(most, ((long) suspicion[row + id] << 3) | (7 - id));
+        }
+        return most >> 3 <= Integer.MIN_VALUE ? 0 : 7 - ((int) most & 7);
+    }
+
+    /**
+     * Determines if a member of the government agrees to veto, as the strategies' veto does
+     *
+     * @param lane the lane
+     * @param id ID of the government member
+     * @param numLiberal number of liberal policies passed
+     * @return true if the member vetoes
+     */
+    private boolean vetoes(int lane, int id, int numLiberal) {
+        return (party[lane] & (1 << id)) != 0 ? numLiberal == 2 : numLiberal == 0;
+    }
+
+    /**
+     * Adds two ints, clamping the sum to the int range, as SuspicionMatrix.saturatedAdd does but
+     *   without a branch
+     *
+     * @param a the first addend
+     * @param b the second addend
+     * @return a + b, clamped to [Integer.MIN_VALUE, Integer.MAX_VALUE]
+     */
+    private static int saturatedAdd(int a, int b) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, (long) a + b));
+    }
+
+    /**
+     * Adds a policy to the discard
+     *
+     * @param lane the lane
+     * @param card 1 for a liberal policy, 0 for a fascist one
+     */
+    private void discard(int lane, int card) {
+        discardLiberal[lane] += card;
+        discardSize[lane]++;
+    }
+
+    /**
+     * Adds the discard to the deck and shuffles it with one draw, as PolicyDeck does
+     *
+     * @param lane the lane
+     */
+    private void shuffleInDiscard(int lane) {
+        int size = deckSize[lane] + discardSize[lane];
+        int numLiberal = Integer.bitCount(deck[lane]) + discardLiberal[lane];
+        int rank = random[lane].nextInt(CHOOSE[size * K + numLiberal]);
+
+        //Unranks the order as PolicyDeck.order does, the cards below the last liberal are fascist
+        int mask = 0;
+        for(int i = size - 1; numLiberal > 0; i--) {
+            int below = CHOOSE[i * K + numLiberal];
+            if(rank >= below) {
+                rank -= below;
+                mask |= 1 << i;
+                numLiberal--;
+            }
+        }
+        deck[lane] = mask;
+        deckSize[lane] = size;
+        discardLiberal[lane] = 0;
+        discardSize[lane] = 0;
+    }
+
+    /**
+     * Packs the outcome of a game for comparison
+     *
+     * @param cause ordinal of why the game ended
+     * @param rounds number of rounds the game went on for
+     * @return the packed outcome
+     */
+    private static int outcome(int cause, int rounds) {
+        return rounds * CAUSES.length + cause;
+    }
+
+    /**
+     * Fork-join task which halves its range of games until it is small enough to play directly
+     */
+    private static class BatchTask extends RecursiveTask<Results> {
+
+        private static final long serialVersionUID = 1L;  //Tasks are never serialized
+        private final long masterSeed;          //Seed from which every game's seed is derived
+        private final long from;                //Index of the first game
+        private final long to;                  //Index after the last game
+        private final StrategyParams params;    //Tuning constants of the strategies
+
+        /**
+         * Constructor
+         *
+         * @param masterSeed seed from which every game's seed is derived
+         * @param from index of the first game
+         * @param to index after the last game
+         * @param params tuning constants of the strategies
+         */
+        BatchTask(long masterSeed, long from, long to, StrategyParams params) {
+            this.masterSeed = masterSeed;
+            this.from = from;
+            this.to = to;
+            this.params = params;
+        }
+
+        /**
+         * Plays the range of games, forking off half of it if it is too large
+         *
+         * @return the merged results of the range
+         */
+        @Override
+        protected Results compute() {
+            if(to - from <= BATCH_SIZE) {
+                return new BatchEngine(LANES, params).play(masterSeed, from, to, null);
+            }
+            long mid = from + (to - from) / 2;
+            BatchTask left = new BatchTask(masterSeed, from, mid, params);
+            left.fork();
+            Results right = new BatchTask(masterSeed, mid, to, params).compute();
+            return left.join().merge(right);
+        }
+    }
+}
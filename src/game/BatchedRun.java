@@ -0,0 +1,169 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Run of games played in batches by worker threads and merged in order, until a stopping rule
+ *   is met or every game of the run has been played
+ * Workers claim batches from a shared counter; a finished batch waits until every earlier batch
+ *   is merged, and the rule is checked after each merge, so the merged games are always a
+ *   contiguous range from the first and a run whose rule looks only at them stops after the same
+ *   games whatever the number of threads
+ * Running out of games to claim only stops the claiming, every claimed batch is still merged;
+ *   batches finished after the rule is met are dropped, as are those left when expired() turns
+ *   true
+ * An exception thrown while playing or merging a batch stops the run and is thrown again by run
+ *   once every worker has finished, so a failed run is never taken for a finished one
+ *
+ * @param <T> type of the outcome of a batch
+ */
+abstract class BatchedRun<T> {
+
+    private final long first;               //Index of the first game of the run
+    private final long last;                //Index after the last game of the run
+    private final long batchSize;           //Games per batch
+    private final AtomicLong nextBatch;     //Index of the next batch to be claimed
+    private final HashMap<Long, T> done;    //Finished batches waiting for earlier ones
+    private long merged;                    //Number of batches merged
+    private volatile boolean stopped;       //If the stopping rule has been met or a worker failed
+    private Throwable failure;              //First exception thrown by a worker, null if none
+
+    /**
+     * Constructor
+     *
+     * @param first index of the first game of the run
+     * @param last index after the last game of the run
+     * @param batchSize games per batch
+     */
+    BatchedRun(long first, long last, long batchSize) {
+        this.first = first;
+        this.last = last;
+        this.batchSize = batchSize;
+        nextBatch = new AtomicLong();
+        done = new HashMap<Long, T>();
+        merged = 0;
+        stopped = false;
+        failure = null;
+    }
+
+    /**
+     * Plays a batch of games
+     *
+     * @param from index of the first game of the batch
+     * @param to index after the last game of the batch
+     * @return the outcome of the batch
+     */
+    abstract T play(long from, long to);
+
+    /**
+     * Merges the next batch in order and checks the stopping rule, called under the run's lock
+     *
+     * @param batch the outcome of the batch
+     * @return true if the stopping rule is met
+     */
+    abstract boolean merge(T batch);
+
+    /**
+     * Determines if the run has run out of time, batches not yet merged are then dropped
+     *
+     * @return true to stop the run, false by default
+     */
+    boolean expired() {
+        return false;
+    }
+
+    /**
+     * Plays the run on worker threads until it stops or every game has been played
+     *
+     * @param threads number of worker threads, 1 plays every batch on the calling thread
+     * @throws RuntimeException the first exception thrown while playing or merging a batch
+     * @throws Error the first error thrown while playing or merging a batch
+     */
+    void run(int threads) {
+        if(threads <= 1) {
+            work();
+            return;
+        }
+        List<Callable<Object>> workers = new ArrayList<Callable<Object>>();
+        for(int i = 0; i < threads; i++) {
+            workers.add(Executors.callable(this::work));
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invokeAll(workers);
+        }
+        finally {
+            pool.shutdown();
+        }
+        //Workers only catch unchecked exceptions, so the failure is one or the other
+        synchronized(this) {
+            if(failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if(failure != null) {
+                throw (RuntimeException) failure;
+            }
+        }
+    }
+
+    /**
+     * Claims and plays batches until the run stops or every batch has been claimed
+     */
+    private void work() {
+        try {
+            while(!stopped) {
+                if(expired()) {
+                    stopped = true;
+                    return;
+                }
+                long from = first + nextBatch.getAndIncrement() * batchSize;
+                if(from >= last) {
+                    return;
+                }
+                finish((from - first) / batchSize, play(from, Math.min(last, from + batchSize)));
+            }
+        }
+        catch(RuntimeException | Error e) {
+            fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the run after a worker failed, keeping the first failure to be thrown by run
+     *
+     * @param e the exception the worker threw
+     */
+    private synchronized void fail(Throwable e) {
+        if(failure == null) {
+            failure = e;
+        }
+        stopped = true;
+    }
+
+    /**
+     * Records a finished batch and merges every batch that is now in order
+     *
+     * @param batch index of the finished batch
+     * @param outcome outcome of the batch
+     */
+    private synchronized void finish(long batch, T outcome) {
+        if(stopped) {
+            return;
+        }
+        done.put(batch, outcome);
+        T next;
+        while(!stopped && (next = done.remove(merged)) != null) {
+            merged++;
+            if(merge(next)) {
+                stopped = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package game;
+
+import enums.ActionType;
+import enums.Party;
+import enums.Policy;
+import enums.Role;
+
+/**
+ * Every player's probability distribution over the NUM_WORLDS role layouts, see Game.layout
+ * A player starts from the uniform distribution over the layouts that give them their own role,
+ *   or from the true layout for a fascist, who is shown every role
+ * Facts a player learns, its investigations and the public facts that a shot or elected player
+ *   is not Hitler, zero the layouts that contradict them
+ * An action a player sees is weighed by its likelihood in each layout under the repo's strategies,
+ *   which depends on the roles of the actor and of the player acted on; actions the strategies
+ *   rule out are given FLOOR instead of 0, so that a strategy other than the built-in ones bends
+ *   the beliefs rather than breaking them
+ * Actions whose policies an observer did not see, votes and investigations are left out, as the
+ *   suspicions leave them out
+ * An update is a pass over the layouts that looks up the likelihood through a table of role pairs
+ *   by layout, then a pass that normalizes; fascists are never updated since they know the layout
+ * Tracking is off unless enabled, so games that do not read beliefs do not pay for them
+ */
+public class BeliefTracker {
+
+    public static final int NUM_WORLDS = Game.NUM_LAYOUTS;
+    static final double FLOOR = .05;    //Likelihood of an action the strategies rule out
+    private static final int N = SeatTable.NUM_SEATS;
+    private static final int NUM_ROLES = Role.values().length;
+    private static final double LIBERAL_CARD = 6.0 / 17;   //Chance a drawn policy is liberal
+    private static final byte[] ROLES;      //Role ordinal of ID i in world w at w * N + i
+    private static final byte[] PAIRS;      //Role ordinals of IDs a and t as a pair index, by world
+    private static final int[] LIBERALS;    //Mask of the liberal IDs of each world
+    static {
+        Role[] rosterRoles = {Role.LIBERAL, Role.LIBERAL, Role.LIBERAL, Role.LIBERAL,
+                Role.FASCIST, Role.FASCIST, Role.HITLER};
+        int[] ids = new int[N];
+        ROLES = new byte[NUM_WORLDS * N];
+        LIBERALS = new int[NUM_WORLDS];
+        for(int w = 0; w < NUM_WORLDS; w++) {
+            Game.layout(w, ids);
+            for(int i = 0; i < N; i++) {
+                ROLES[w * N + ids[i]] = (byte) rosterRoles[i].ordinal();
+                if(rosterRoles[i] == Role.LIBERAL) {
+                    LIBERALS[w] |= 1 << ids[i];
+                }
+            }
+        }
+        //Laid out by pair of IDs and then world, so an update reads one contiguous run
+        PAIRS = new byte[N * N * NUM_WORLDS];
+        for(int a = 0; a < N; a++) {
+            for(int t = 0; t < N; t++) {
+                for(int w = 0; w < NUM_WORLDS; w++) {
+                    PAIRS[(a * N + t) * NUM_WORLDS + w] =
+                            (byte) (ROLES[w * N + a] * NUM_ROLES + ROLES[w * N + t]);
+                }
+            }
+        }
+    }
+
+    private final double[] beliefs;     //Probability of world w by observer o at o * NUM_WORLDS + w
+    private final double[] likelihood;  //Likelihood by actor role ordinal * NUM_ROLES + target's
+    private boolean enabled;            //If the beliefs are updated at all
+    private int trueWorld;              //Rank of the layout of the game being played
+    private int tracked;                //Bit o is set if observer o's beliefs are updated
+    private int passedFirst;            //First policy ordinal of the last hand passed
+    private int passedSecond;           //Second policy ordinal of the last hand passed
+
+    /**
+     * Constructor, tracking starts disabled
+     */
+    public BeliefTracker() {
+        beliefs = new double[N * NUM_WORLDS];
+        likelihood = new double[NUM_ROLES * NUM_ROLES];
+        enabled = false;
+    }
+
+    /**
+     * Turns tracking on or off, best set between games so that the beliefs cover whole games
+     *
+     * @param enabled true to update the beliefs
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Determines if tracking is on
+     *
+     * @return true if the beliefs are updated
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Copies the beliefs and the tracking state of another tracker
+     *
+     * @param other the tracker to copy
+     */
+    public void copyFrom(BeliefTracker other) {
+        System.arraycopy(other.beliefs, 0, beliefs, 0, beliefs.length);
+        enabled = other.enabled;
+        trueWorld = other.trueWorld;
+        tracked = other.tracked;
+        passedFirst = other.passedFirst;
+        passedSecond = other.passedSecond;
+    }
+
+    /**
+     * Sets every player's beliefs to what they know at the start of a game
+     *
+     * @param world rank of the game's layout
+     */
+    void reset(int world) {
+        if(!enabled) {
+            return;
+        }
+        trueWorld = world;
+        tracked = 0;
+        for(int o = 0; o < N; o++) {
+            int role = ROLES[world * N + o];
+            int row = o * NUM_WORLDS;
+            if(role == Role.FASCIST.ordinal()) {
+                for(int w = 0; w < NUM_WORLDS; w++) {
+                    beliefs[row + w] = w == world ? 1 : 0;
+                }
+                continue;
+            }
+            tracked |= 1 << o;
+            int consistent = 0;
+            for(int w = 0; w < NUM_WORLDS; w++) {
+                beliefs[row + w] = ROLES[w * N + o] == role ? 1 : 0;
+                consistent += ROLES[w * N + o] == role ? 1 : 0;
+            }
+            for(int w = 0; w < NUM_WORLDS; w++) {
+                beliefs[row + w] /= consistent;
+            }
+        }
+    }
+
+    /**
+     * Records that an observer learned a player's party
+     *
+     * @param observer ID of the observer
+     * @param id ID of the player whose party was learned
+     * @param party the player's party
+     */
+    public void reveal(int observer, int id, Party party) {
+        if(!enabled || (tracked & (1 << observer)) == 0) {
+            return;
+        }
+        for(int role = 0; role < NUM_ROLES; role++) {
+            boolean liberal = role == Role.LIBERAL.ordinal();
+            fill(role, liberal == party.isLiberal ? 1 : 0);
+        }
+        update(observer, id, id);
+    }
+
+    /**
+     * Records that every player learned if a player is Hitler, as they do when the player is shot
+     *   or elected chancellor late enough for Hitler to win
+     *
+     * @param id ID of the player
+     */
+    void revealHitler(int id) {
+        if(!enabled) {
+            return;
+        }
+        boolean hitler = ROLES[trueWorld * N + id] == Role.HITLER.ordinal();
+        for(int role = 0; role < NUM_ROLES; role++) {
+            fill(role, (role == Role.HITLER.ordinal()) == hitler ? 1 : 0);
+        }
+        for(int o = 0; o < N; o++) {
+            if((tracked & (1 << o)) != 0) {
+                update(o, id, id);
+            }
+        }
+    }
+
+    /**
+     * Weighs every world by the likelihood of an action, for each observer who saw into it
+     *
+     * @param actor ID of the player who took the action
+     * @param type the type of action
+     * @param first the first operand of the action, a policy ordinal or a player ID
+     * @param second the second operand of the action, ActionLog.NONE if there is only one
+     * @param alive mask of the IDs alive after the action
+     * @param visible mask of the IDs who saw the policies of the action
+     * @param game the game, read for the chancellor, the number of fascist policies and if a
+     *             special election is being held
+     */
+    void observe(int actor, ActionType type, int first, int second, int alive, int visible,
+                 Game game) {
+        if(!enabled) {
+            return;
+        }
+        int observers = tracked & ~(1 << actor);
+        int target = actor;
+        switch(type) {
+            case SELECT:
+                target = first;
+                select(game.isSpecialElection(), game.numFascistPolicies,
+                        Integer.bitCount(alive));
+                break;
+            case SHOOT:
+                target = first;
+                shoot(Integer.bitCount(alive));
+                weighShot(observers, actor, first, alive | (1 << first));
+                observers = 0;
+                break;
+            case PASS:
+                passedFirst = first;
+                passedSecond = second;
+                observers &= visible;
+                pass(first, second);
+                break;
+            case DISCARD:
+                //The chancellor's discard, seen by the president who passed the hand
+                if(game.chancellor == null || actor != game.chancellor.getId()) {
+                    observers = 0;
+                    break;
+                }
+                observers &= visible;
+                discard(first);
+                break;
+            case VETO:
+                //The chancellor agreed to the veto before the president did
+                target = game.chancellor.getId();
+                observers &= ~(1 << target);
+                veto(first, second);
+                break;
+            default:
+                observers = 0;
+        }
+        for(; observers != 0; observers &= observers - 1) {
+            update(Integer.numberOfTrailingZeros(observers), actor, target);
+        }
+    }
+
+    /**
+     * Gets the probability an observer gives to a player having a role
+     *
+     * @param observer ID of the observer
+     * @param id ID of the player
+     * @param role the role
+     * @return the observer's probability that the player has the role
+     */
+    public double getProbability(int observer, int id, Role role) {
+        double p = 0;
+        int row = observer * NUM_WORLDS;
+        for(int w = 0; w < NUM_WORLDS; w++) {
+            if(ROLES[w * N + id] == role.ordinal()) {
+                p += beliefs[row + w];
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Gets the probability an observer gives to a player being in the fascist party
+     *
+     * @param observer ID of the observer
+     * @param id ID of the player
+     * @return the observer's probability that the player is a fascist or Hitler
+     */
+    public double getFascistProbability(int observer, int id) {
+        return 1 - getProbability(observer, id, Role.LIBERAL);
+    }
+
+    /**
+     * Gets the probability an observer gives to a player being Hitler
+     *
+     * @param observer ID of the observer
+     * @param id ID of the player
+     * @return the observer's probability that the player is Hitler
+     */
+    public double getHitlerProbability(int observer, int id) {
+        return getProbability(observer, id, Role.HITLER);
+    }
+
+    /**
+     * Gets how uncertain an observer is of the layout
+     *
+     * @param observer ID of the observer
+     * @return the entropy of the observer's beliefs in bits, 0 if the layout is known
+     */
+    public double getEntropy(int observer) {
+        double entropy = 0;
+        int row = observer * NUM_WORLDS;
+        for(int w = 0; w < NUM_WORLDS; w++) {
+            double p = beliefs[row + w];
+            if(p > 0) {
+                entropy -= p * Math.log(p);
+            }
+        }
+        return entropy / Math.log(2);
+    }
+
+    /**
+     * Gets the probability an observer gives to a world
+     *
+     * @param observer ID of the observer
+     * @param world rank of the world's layout
+     * @return the observer's probability of the world
+     */
+    public double getWorldProbability(int observer, int world) {
+        return beliefs[observer * NUM_WORLDS + world];
+    }
+
+    /**
+     * Multiplies an observer's beliefs by the likelihood table, looked up by the roles of an
+     *   actor and a target in each world, and normalizes them
+     * Package-private so that the benchmarks can measure it directly
+     *
+     * @param observer ID of the observer
+     * @param actor ID of the actor
+     * @param target ID of the player acted on, the actor if none
+     */
+    void update(int observer, int actor, int target) {
+        int row = observer * NUM_WORLDS;
+        int pairs = (actor * N + target) * NUM_WORLDS;
+        double sum = 0;
+        for(int w = 0; w < NUM_WORLDS; w++) {
+            double p = beliefs[row + w] * likelihood[PAIRS[pairs + w]];
+            beliefs[row + w] = p;
+            sum += p;
+        }
+        assert(sum > 0);
+        double scale = 1 / sum;
+        for(int w = 0; w < NUM_WORLDS; w++) {
+            beliefs[row + w] *= scale;
+        }
+    }
+
+    /**
+     * Fills the likelihood table from the actor's role alone
+     *
+     * @param role ordinal of the actor's role
+     * @param value likelihood of the action whatever the target's role
+     */
+    private void fill(int role, double value) {
+        for(int t = 0; t < NUM_ROLES; t++) {
+            likelihood[role * NUM_ROLES + t] = value;
+        }
+    }
+
+    /**
+     * Fills the likelihood table of a selection: liberals and Hitler pick by suspicion, taken as
+     *   uniform over the candidates, and fascists pick the other fascist before three fascist
+     *   policies or in a special election, Hitler otherwise
+     *
+     * @param special true for a special election, false for a nomination
+     * @param numFascistPolicies number of fascist policies on the board
+     * @param numAlive number of players alive
+     */
+    private void select(boolean special, int numFascistPolicies, int numAlive) {
+        //Candidates exclude the president and, for a nomination, usually the last chancellor
+        double uniform = 1.0 / Math.max(1, numAlive - (special ? 1 : 2));
+        int pick = special || numFascistPolicies < 3 ? Role.FASCIST.ordinal() :
+                Role.HITLER.ordinal();
+        fill(Role.LIBERAL.ordinal(), uniform);
+        fill(Role.HITLER.ordinal(), uniform);
+        fill(Role.FASCIST.ordinal(), FLOOR * uniform);
+        likelihood[Role.FASCIST.ordinal() * NUM_ROLES + pick] = 1;
+    }
+
+    /**
+     * Fills the likelihood table of a shot by the players' roles, apart from the fascist row,
+     *   which depends on the number of liberals alive and is handled by weighShot
+     *
+     * @param numAlive number of players alive after the shot
+     */
+    private void shoot(int numAlive) {
+        double uniform = 1.0 / numAlive;
+        fill(Role.LIBERAL.ordinal(), uniform);
+        fill(Role.HITLER.ordinal(), uniform);
+    }
+
+    /**
+     * Weighs every world by the likelihood of a shot, for each observer, then reveals to every
+     *   player if the victim was Hitler
+     * Fascists shoot a random liberal, so the likelihood of a fascist's shot is one over the
+     *   number of liberals alive before it, which varies from world to world
+     *
+     * @param observers mask of the observers
+     * @param actor ID of the shooter
+     * @param victim ID of the player shot
+     * @param before mask of the IDs alive before the shot
+     */
+    private void weighShot(int observers, int actor, int victim, int before) {
+        int pairs = (actor * N + victim) * NUM_WORLDS;
+        for(; observers != 0; observers &= observers - 1) {
+            int row = Integer.numberOfTrailingZeros(observers) * NUM_WORLDS;
+            double sum = 0;
+            for(int w = 0; w < NUM_WORLDS; w++) {
+                int pair = PAIRS[pairs + w];
+                double l = likelihood[pair];
+                if(pair / NUM_ROLES == Role.FASCIST.ordinal()) {
+                    l = pair % NUM_ROLES == Role.LIBERAL.ordinal() ?
+                            1.0 / Integer.bitCount(before & LIBERALS[w]) : FLOOR / N;
+                }
+                double p = beliefs[row + w] * l;
+                beliefs[row + w] = p;
+                sum += p;
+            }
+            assert(sum > 0);
+            double scale = 1 / sum;
+            for(int w = 0; w < NUM_WORLDS; w++) {
+                beliefs[row + w] *= scale;
+            }
+        }
+        revealHitler(victim);
+    }
+
+    /**
+     * Fills the likelihood table of a president passing two policies, as seen by the chancellor
+     * Liberals discard a fascist policy if they drew one and fascists a liberal policy, so each
+     *   hand passed is the likelihood of the draws that lead to it, drawing each policy liberal
+     *   with the chance of a fresh deck
+     *
+     * @param first ordinal of the first policy passed
+     * @param second ordinal of the second policy passed
+     */
+    private void pass(int first, int second) {
+        double q = LIBERAL_CARD;
+        double[] draws = {(1 - q) * (1 - q) * (1 - q), 3 * q * (1 - q) * (1 - q),
+                3 * q * q * (1 - q), q * q * q};    //Chance of drawing 0 to 3 liberal policies
+        int liberals = (first == Policy.LIBERAL.ordinal() ? 1 : 0) +
+                (second == Policy.LIBERAL.ordinal() ? 1 : 0);
+        double liberal = liberals == 0 ? draws[0] : liberals == 1 ? draws[1] :
+                draws[2] + draws[3];
+        double fascist = liberals == 0 ? draws[0] + draws[1] : liberals == 1 ? draws[2] :
+                draws[3];
+        fill(Role.LIBERAL.ordinal(), Math.max(liberal, FLOOR * fascist));
+        fill(Role.FASCIST.ordinal(), Math.max(fascist, FLOOR * liberal));
+        fill(Role.HITLER.ordinal(), Math.max(fascist, FLOOR * liberal));
+    }
+
+    /**
+     * Fills the likelihood table of a chancellor discarding a policy of the last hand passed, as
+     *   seen by the president
+     * Liberals play a liberal policy if they were passed one, fascists discard the first policy
+     *
+     * @param discarded ordinal of the policy discarded
+     */
+    private void discard(int discarded) {
+        boolean mixed = passedFirst != passedSecond;
+        boolean liberal = !mixed || discarded == Policy.FASCIST.ordinal();
+        boolean fascist = discarded == passedFirst;
+        fill(Role.LIBERAL.ordinal(), liberal ? 1 : FLOOR);
+        fill(Role.FASCIST.ordinal(), fascist ? 1 : FLOOR);
+        fill(Role.HITLER.ordinal(), fascist ? 1 : FLOOR);
+    }
+
+    /**
+     * Fills the likelihood table of a veto by the president and chancellor, seen by everyone
+     * Liberals veto two fascist policies and fascists two liberal policies, so both players'
+     *   roles count
+     *
+     * @param first ordinal of the first policy vetoed
+     * @param second ordinal of the second policy vetoed
+     */
+    private void veto(int first, int second) {
+        boolean liberalVeto = first == Policy.FASCIST.ordinal() &&
+                second == Policy.FASCIST.ordinal();
+        boolean fascistVeto = first == Policy.LIBERAL.ordinal() &&
+                second == Policy.LIBERAL.ordinal();
+        for(int a = 0; a < NUM_ROLES; a++) {
+            for(int t = 0; t < NUM_ROLES; t++) {
+                boolean agrees = a == Role.LIBERAL.ordinal() ? liberalVeto : fascistVeto;
+                boolean chancellorAgrees = t == Role.LIBERAL.ordinal() ? liberalVeto :
+                        fascistVeto;
+                likelihood[a * NUM_ROLES + t] = (agrees ? 1 : FLOOR) * (chancellorAgrees ? 1 :
+                        FLOOR);
+            }
+        }
+    }
+}
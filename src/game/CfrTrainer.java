@@ -0,0 +1,240 @@
+package game;
+
+import enums.KnowledgeLevel;
+import enums.Role;
+import players.CfrPlayer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Trains the strategies played by CfrPlayer with outcome-sampling Monte Carlo counterfactual
+ *   regret minimization over a RegretTable
+ * Every iteration plays one game with a CfrPlayer in every seat; the player whose ID is the
+ *   iteration's index modulo seven traverses it, sampling its moves with exploration and updating
+ *   the regrets of the information sets it passed once the game ends, while the others sample
+ *   theirs from their current strategies
+ * Iteration i plays the game seeded from (masterSeed, i) and a run continues from the iterations
+ *   the table has already seen, so a table trained over several runs sees no game twice
+ * Secret Hitler is a game of two teams rather than of two players, where CFR carries no
+ *   guarantee of converging to an equilibrium, and the information sets are abstracted, see
+ *   CfrPlayer, so the average strategy is an approximation to judge by evaluate
+ */
+public class CfrTrainer {
+
+    private static final long BATCH_SIZE = 4096;    //Most iterations a single fork-join task plays
+    private static final Role[] ROSTER_ROLES = {Role.LIBERAL, Role.LIBERAL, Role.LIBERAL,
+            Role.LIBERAL, Role.FASCIST, Role.FASCIST, Role.HITLER}; //Roles in Game.layout order
+    private static final long DEFAULT_CAPACITY = 1 << 22;  //Slots of a new table
+
+    /**
+     * Class cannot be instantiated, trains through static methods
+     */
+    private CfrTrainer() {
+    }
+
+    /**
+     * Runs training iterations on a table, splitting them across worker threads that update the
+     *   table at once
+     *
+     * @param table the table to train
+     * @param iterations number of iterations, each one game
+     * @param threads number of worker threads, 1 plays every game on the calling thread
+     * @param masterSeed seed from which every game's seed is derived
+     */
+    public static void train(RegretTable table, long iterations, int threads, long masterSeed) {
+        long first = table.getIterations();
+        if(threads <= 1) {
+            train(table, masterSeed, first, first + iterations);
+        }
+        else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new TrainTask(table, masterSeed, first, first + iterations));
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+        table.addIterations(iterations);
+    }
+
+    /**
+     * Runs a contiguous range of training iterations on the calling thread
+     *
+     * @param table the table to train
+     * @param masterSeed seed from which every game's seed is derived
+     * @param from index of the first iteration
+     * @param to index after the last iteration
+     */
+    private static void train(RegretTable table, long masterSeed, long from, long to) {
+        Game game = new Game(0);
+        game.setKnowledge(KnowledgeLevel.NONE);
+        CfrPlayer[] players = seat(game, table, true, true);
+        for(long i = from; i < to; i++) {
+            game.reset(Game.seed(masterSeed, i));
+            int traverser = (int) (i % SeatTable.NUM_SEATS);
+            CfrPlayer traversing = null;
+            for(CfrPlayer player : players) {
+                player.setTraining(true, player.getId() == traverser);
+                if(player.getId() == traverser) {
+                    traversing = player;
+                }
+            }
+            boolean liberalsWin = game.round();
+            traversing.finish(traversing.getParty().isLiberal == liberalsWin ? 1 : -1);
+        }
+    }
+
+    /**
+     * Measures the trained strategies against the strategies of the roles, on the same deals
+     *
+     * @param table the trained table
+     * @param numGames number of games per pairing
+     * @param masterSeed seed from which every game's seed is derived
+     * @return the liberal win rate with the strategies of the roles in every seat, with
+     *         CfrPlayer liberals, with CfrPlayer fascists and Hitler, and with CfrPlayer in every
+     *         seat
+     */
+    public static double[] evaluate(RegretTable table, long numGames, long masterSeed) {
+        double[] rates = new double[4];
+        for(int pairing = 0; pairing < rates.length; pairing++) {
+            Game game = new Game(0);
+            game.setKnowledge(KnowledgeLevel.NONE);
+            seat(game, table, (pairing & 1) != 0, (pairing & 2) != 0);
+            long liberalWins = 0;
+            for(long i = 0; i < numGames; i++) {
+                game.reset(Game.seed(masterSeed, i));
+                liberalWins += game.round() ? 1 : 0;
+            }
+            rates[pairing] = (double) liberalWins / numGames;
+        }
+        return rates;
+    }
+
+    /**
+     * Seats CfrPlayers in a game's roster, they play the table's average strategy until they
+     *   are set to train
+     *
+     * @param game the game
+     * @param table the table the players read
+     * @param liberals true to seat them in the liberal slots
+     * @param fascists true to seat them in the fascist and Hitler slots
+     * @return the seated players
+     */
+    private static CfrPlayer[] seat(Game game, RegretTable table, boolean liberals,
+                                    boolean fascists) {
+        CfrPlayer[] players = new CfrPlayer[(liberals ? 4 : 0) + (fascists ? 3 : 0)];
+        int numPlayers = 0;
+        for(int slot = 0; slot < ROSTER_ROLES.length; slot++) {
+            if(ROSTER_ROLES[slot] == Role.LIBERAL ? liberals : fascists) {
+                players[numPlayers] = new CfrPlayer(slot, game, ROSTER_ROLES[slot], table);
+                game.setRosterPlayer(slot, players[numPlayers++]);
+            }
+        }
+        return players;
+    }
+
+    /**
+     * Trains a regret table file, creating it if it does not exist
+     * Accepts --threads N to train on N threads, 1 if not provided
+     * Accepts --capacity C to size a new table to C slots, 2^22 if not provided
+     * Accepts --seed S to fix the master seed, random if not provided
+     * Accepts --evaluate N to play N games per pairing of the trained strategies against the
+     *   strategies of the roles once training is done
+     *
+     * @param args the table file and the number of iterations, optionally followed by
+     *             --threads N, --capacity C, --seed S or --evaluate N
+     * @throws IOException if the table cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.out.println("Usage: CfrTrainer FILE ITERATIONS [--threads N] [--capacity C] " +
+                    "[--seed S] [--evaluate N]");
+            return;
+        }
+        long iterations = Long.parseLong(args[1]);
+        int threads = 1;
+        long capacity = DEFAULT_CAPACITY;
+        long masterSeed = new SplittableRandom().nextLong();
+        long evaluate = 0;
+        for(int i = 2; i < args.length; i++) {
+            if(args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+            }
+            else if(args[i].equals("--capacity") && i + 1 < args.length) {
+                capacity = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--seed") && i + 1 < args.length) {
+                masterSeed = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--evaluate") && i + 1 < args.length) {
+                evaluate = Long.parseLong(args[++i]);
+            }
+        }
+
+        try(RegretTable table = new RegretTable(Paths.get(args[0]), capacity)) {
+            long start = System.nanoTime();
+            train(table, iterations, threads, masterSeed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d iterations in %.3f seconds on %d %s (%.0f iterations/sec)\n",
+                    iterations, seconds, threads, threads == 1 ? "thread" : "threads",
+                    iterations / seconds);
+            System.out.printf("%s holds %d information sets of %d slots after %d iterations\n",
+                    args[0], table.size(), table.getCapacity(), table.getIterations());
+            if(evaluate > 0) {
+                double[] rates = evaluate(table, evaluate, masterSeed);
+                System.out.printf("Liberals won %.2f%% with the role strategies, %.2f%% as CFR " +
+                        "liberals, %.2f%% against CFR fascists, %.2f%% with CFR in every seat\n",
+                        100 * rates[0], 100 * rates[1], 100 * rates[2], 100 * rates[3]);
+            }
+        }
+    }
+
+    /**
+     * Fork-join task which halves its range of iterations until it is small enough to run
+     *   directly
+     */
+    private static class TrainTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;  //Tasks are never serialized
+        private final RegretTable table;    //The table to train
+        private final long masterSeed;      //Seed from which every game's seed is derived
+        private final long from;            //Index of the first iteration
+        private final long to;              //Index after the last iteration
+
+        /**
+         * Constructor
+         *
+         * @param table the table to train
+         * @param masterSeed seed from which every game's seed is derived
+         * @param from index of the first iteration
+         * @param to index after the last iteration
+         */
+        TrainTask(RegretTable table, long masterSeed, long from, long to) {
+            this.table = table;
+            this.masterSeed = masterSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Runs the range of iterations, forking off half of it if it is too large
+         */
+        @Override
+        protected void compute() {
+            if(to - from <= BATCH_SIZE) {
+                train(table, masterSeed, from, to);
+                return;
+            }
+            long mid = from + (to - from) / 2;
+            TrainTask left = new TrainTask(table, masterSeed, from, mid);
+            left.fork();
+            new TrainTask(table, masterSeed, mid, to).compute();
+            left.join();
+        }
+    }
+}
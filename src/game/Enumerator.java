@@ -0,0 +1,119 @@
+package game;
+
+import enums.KnowledgeLevel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes win probabilities by walking every deal instead of sampling them
+ * A deal is a role layout and an initial deck order, NUM_LAYOUTS * PolicyDeck.NUM_ORDERS of them,
+ *   each played once per branch of the random decisions the players make
+ * Reshuffles of the deck, and decisions past the enumerated depth if one is given, are sampled, so
+ *   the results are exact over the deal and the players' decisions and an unbiased estimate over
+ *   the reshuffles
+ * Enumerating reshuffles as well would make the results fully exact, but multiplies the work by
+ *   the hundreds of orders of every reshuffle and is out of reach
+ */
+public class Enumerator {
+
+    public static final long NUM_DEALS = (long) Game.NUM_LAYOUTS * PolicyDeck.NUM_ORDERS;
+    private static final long BATCH_SIZE = 1024;    //Most deals a single fork-join task plays
+
+    /**
+     * Plays every deal, splitting them across worker threads
+     *
+     * @param depth most random decisions after the deal to enumerate, 0 for none
+     * @param threads number of worker threads, 1 plays every deal on the calling thread
+     * @param masterSeed seed from which the sampled decisions of every branch are derived
+     * @return the probability-weighted results of every branch
+     */
+    public static ExactResults enumerate(int depth, int threads, long masterSeed) {
+        if(threads <= 1) {
+            return play(depth, masterSeed, 0, NUM_DEALS);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new DealTask(depth, masterSeed, 0, NUM_DEALS));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays every branch of a contiguous range of deals on the calling thread
+     *
+     * @param depth most random decisions after the deal to enumerate
+     * @param masterSeed seed from which the sampled decisions of every branch are derived
+     * @param from index of the first deal, its layout times NUM_ORDERS plus its deck order
+     * @param to index after the last deal
+     * @return the results of the range
+     */
+    private static ExactResults play(int depth, long masterSeed, long from, long to) {
+        ExactResults results = new ExactResults();
+        ScriptedRandom script = new ScriptedRandom(ScriptedRandom.DECISIONS,
+                (int) Math.min(Integer.MAX_VALUE, depth + 2L));
+        int[] deal = new int[2];
+        int[] bounds = {Game.NUM_LAYOUTS, PolicyDeck.NUM_ORDERS};
+        Game game = new Game(0);
+        game.setKnowledge(KnowledgeLevel.NONE);
+        for(long i = from; i < to; i++) {
+            deal[0] = (int) (i / PolicyDeck.NUM_ORDERS);
+            deal[1] = (int) (i % PolicyDeck.NUM_ORDERS);
+            script.start(deal, bounds);
+            long dealSeed = Game.seed(masterSeed, i);
+            do {
+                script.replay(dealSeed);
+                game.reset(script);
+                game.round();
+                results.add(game, script.getWeight() / NUM_DEALS);
+            } while(script.advance());
+        }
+        return results;
+    }
+
+    /**
+     * Fork-join task which halves its range of deals until it is small enough to play directly
+     */
+    private static class DealTask extends RecursiveTask<ExactResults> {
+
+        private static final long serialVersionUID = 1L;  //Tasks are never serialized
+        private final int depth;        //Number of random decisions after the deal to enumerate
+        private final long masterSeed;  //Seed from which the sampled decisions are derived
+        private final long from;        //Index of the first deal
+        private final long to;          //Index after the last deal
+
+        /**
+         * Constructor
+         *
+         * @param depth number of random decisions after the deal to enumerate
+         * @param masterSeed seed from which the sampled decisions are derived
+         * @param from index of the first deal
+         * @param to index after the last deal
+         */
+        DealTask(int depth, long masterSeed, long from, long to) {
+            this.depth = depth;
+            this.masterSeed = masterSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Plays the range of deals, forking off half of it if it is too large
+         *
+         * @return the merged results of the range
+         */
+        @Override
+        protected ExactResults compute() {
+            if(to - from <= BATCH_SIZE) {
+                return play(depth, masterSeed, from, to);
+            }
+            long mid = from + (to - from) / 2;
+            DealTask left = new DealTask(depth, masterSeed, from, mid);
+            left.fork();
+            ExactResults right = new DealTask(depth, masterSeed, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package game;
+
+import enums.Sampling;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Estimates the liberal win rate and its variance under the sampling scheme of a run, optionally
+ *   corrected with a control variate
+ * The control variate is the number of liberal policies in the top CONTROL_DEPTH cards of the
+ *   initial deck, whose mean is known exactly; games with more liberal cards on top are won by the
+ *   liberals more often, so subtracting the fitted effect of the deal's deviation from the mean
+ *   removes part of the noise
+ * Games are added in index order and consecutive games 2k and 2k + 1 are paired: the pairs are the
+ *   antithetic pairs of ANTITHETIC runs and the collapsed strata whose differences estimate the
+ *   variance of STRATIFIED runs
+ * Only sums are kept, so estimators merge like Results
+ */
+public class Estimator {
+
+    public static final int CONTROL_DEPTH = 9;  //Cards on top of the deck the control counts
+    public static final double CONTROL_MEAN = (double) CONTROL_DEPTH * PolicyDeck.NUM_LIBERAL /
+            (PolicyDeck.NUM_LIBERAL + PolicyDeck.NUM_FASCIST);  //Expected control, 54/17
+
+    private long n;             //Number of games
+    private double sumY;        //Sum of the outcomes, 1 for a liberal win
+    private double sumX;        //Sum of the controls, centered on CONTROL_MEAN
+    private double sumYY;       //Sum of squared outcomes
+    private double sumXX;       //Sum of squared centered controls
+    private double sumXY;       //Sum of outcome times centered control
+    private long pairs;         //Number of complete pairs
+    private double sumA;        //Sum of pair mean outcomes
+    private double sumB;        //Sum of pair mean controls
+    private double sumAA;       //Sum of squared pair mean outcomes
+    private double sumBB;       //Sum of squared pair mean controls
+    private double sumAB;       //Sum of pair mean outcome times pair mean control
+    private double sumDD;       //Sum of squared differences of outcomes within pairs
+    private double sumEE;       //Sum of squared differences of controls within pairs
+    private double sumDE;       //Sum of products of the differences within pairs
+    private boolean pending;    //If the first game of a pair has been added without the second
+    private double pendingY;    //Outcome of the unpaired game
+    private double pendingX;    //Centered control of the unpaired game
+
+    /**
+     * Adds a game
+     *
+     * @param libsWon true if the liberals won
+     * @param control number of liberal policies in the top CONTROL_DEPTH cards of the initial deck
+     */
+    public void add(boolean libsWon, int control) {
+        double y = libsWon ? 1 : 0;
+        double x = control - CONTROL_MEAN;
+        n++;
+        sumY += y;
+        sumX += x;
+        sumYY += y * y;
+        sumXX += x * x;
+        sumXY += x * y;
+        if(!pending) {
+            pending = true;
+            pendingY = y;
+            pendingX = x;
+            return;
+        }
+        pending = false;
+        double a = (pendingY + y) / 2;
+        double b = (pendingX + x) / 2;
+        double d = pendingY - y;
+        double e = pendingX - x;
+        pairs++;
+        sumA += a;
+        sumB += b;
+        sumAA += a * a;
+        sumBB += b * b;
+        sumAB += a * b;
+        sumDD += d * d;
+        sumEE += e * e;
+        sumDE += d * e;
+    }
+
+    /**
+     * Adds another estimator to this one
+     *
+     * @precondition neither estimator has an unpaired game, which holds for even ranges of games
+     * @param other the estimator to be merged into this one
+     * @return this estimator
+     */
+    public Estimator merge(Estimator other) {
+        assert(!pending && !other.pending);
+        n += other.n;
+        sumY += other.sumY;
+        sumX += other.sumX;
+        sumYY += other.sumYY;
+        sumXX += other.sumXX;
+        sumXY += other.sumXY;
+        pairs += other.pairs;
+        sumA += other.sumA;
+        sumB += other.sumB;
+        sumAA += other.sumAA;
+        sumBB += other.sumBB;
+        sumAB += other.sumAB;
+        sumDD += other.sumDD;
+        sumEE += other.sumEE;
+        sumDE += other.sumDE;
+        return this;
+    }
+
+    /**
+     * Estimates the liberal win rate
+     *
+     * @param sampling the sampling scheme the games were picked with
+     * @param control true to correct the estimate with the control variate
+     * @return the estimated win rate
+     */
+    public double getEstimate(Sampling sampling, boolean control) {
+        if(n == 0) {
+            return 0;
+        }
+        double mean = sumY / n;
+        return control ? mean - getSlope(sampling) * (sumX / n) : mean;
+    }
+
+    /**
+     * Estimates the variance of the estimate
+     *
+     * @param sampling the sampling scheme the games were picked with
+     * @param control true if the estimate is corrected with the control variate
+     * @return the estimated variance
+     */
+    public double getVariance(Sampling sampling, boolean control) {
+        double beta = control ? getSlope(sampling) : 0;
+        switch(sampling) {
+            case STRATIFIED:
+                //Each pair of neighbouring strata is treated as one stratum of two draws, which
+                //  overstates the variance by the difference of their means at most
+                return (sumDD - 2 * beta * sumDE + beta * beta * sumEE) / ((double) n * n);
+            case ANTITHETIC: {
+                double sa = sumAA - sumA * sumA / pairs;
+                double sab = sumAB - sumA * sumB / pairs;
+                double sb = sumBB - sumB * sumB / pairs;
+                double residual = sa - 2 * beta * sab + beta * beta * sb;
+                return residual / (pairs - (control ? 2 : 1)) / pairs;
+            }
+            default: {
+                double sy = sumYY - sumY * sumY / n;
+                double sxy = sumXY - sumX * sumY / n;
+                double sx = sumXX - sumX * sumX / n;
+                double residual = sy - 2 * beta * sxy + beta * beta * sx;
+                return residual / (n - (control ? 2 : 1)) / n;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of independent games plain sampling would need for the same variance
+     *
+     * @param sampling the sampling scheme the games were picked with
+     * @param control true if the estimate is corrected with the control variate
+     * @return the effective sample size
+     */
+    public double getEffectiveSampleSize(Sampling sampling, boolean control) {
+        double p = getEstimate(sampling, control);
+        double variance = getVariance(sampling, control);
+        return variance <= 0 ? Double.POSITIVE_INFINITY : p * (1 - p) / variance;
+    }
+
+    /**
+     * Gets the number of games added
+     *
+     * @return the number of games
+     */
+    public long getNumGames() {
+        return n;
+    }
+
+    /**
+     * Writes the sums so that another process can merge them
+     *
+     * @param out destination of the sums
+     * @throws IOException if the sums cannot be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(n);
+        out.writeLong(pairs);
+        for(double sum : new double[] {sumY, sumX, sumYY, sumXX, sumXY, sumA, sumB, sumAA, sumBB,
+                sumAB, sumDD, sumEE, sumDE}) {
+            out.writeDouble(sum);
+        }
+    }
+
+    /**
+     * Reads sums written by writeTo into this estimator
+     *
+     * @param in source of the sums
+     * @throws IOException if the sums cannot be read
+     */
+    public void readFrom(DataInput in) throws IOException {
+        n = in.readLong();
+        pairs = in.readLong();
+        sumY = in.readDouble();
+        sumX = in.readDouble();
+        sumYY = in.readDouble();
+        sumXX = in.readDouble();
+        sumXY = in.readDouble();
+        sumA = in.readDouble();
+        sumB = in.readDouble();
+        sumAA = in.readDouble();
+        sumBB = in.readDouble();
+        sumAB = in.readDouble();
+        sumDD = in.readDouble();
+        sumEE = in.readDouble();
+        sumDE = in.readDouble();
+    }
+
+    /**
+     * Fits the slope of the outcome on the control
+     *
+     * @param sampling the sampling scheme the games were picked with
+     * @return the least squares slope over the units of the scheme, 0 if the control never varied
+     */
+    private double getSlope(Sampling sampling) {
+        double covariance;
+        double variance;
+        switch(sampling) {
+            case STRATIFIED:
+                covariance = sumDE;
+                variance = sumEE;
+                break;
+            case ANTITHETIC:
+                covariance = sumAB - sumA * sumB / pairs;
+                variance = sumBB - sumB * sumB / pairs;
+                break;
+            default:
+                covariance = sumXY - sumX * sumY / n;
+                variance = sumXX - sumX * sumX / n;
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+}
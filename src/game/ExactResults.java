@@ -0,0 +1,112 @@
+package game;
+
+import enums.EndCause;
+
+/**
+ * Tallies the outcomes of enumerated games, each weighted by the probability of its branch
+ * Unlike Results, which counts sampled games, the tally holds probabilities, so once every branch
+ *   has been added it is the exact distribution of outcomes
+ */
+public class ExactResults {
+
+    private static final int NUM_CAUSES = EndCause.values().length;
+
+    private long numBranches;           //Number of branches tallied
+    private double probability;         //Total probability of the branches tallied
+    private double libWins;             //Probability of a liberal win
+    private double rounds;              //Probability-weighted sum of round counts
+    private final double[] endCauses;   //Probability of the game ending for each reason
+
+    /**
+     * Constructor
+     */
+    public ExactResults() {
+        numBranches = 0;
+        probability = 0;
+        libWins = 0;
+        rounds = 0;
+        endCauses = new double[NUM_CAUSES];
+    }
+
+    /**
+     * Adds a finished game to the tally
+     *
+     * @precondition the game is over
+     * @param game the finished game
+     * @param weight probability of the branch the game followed
+     */
+    public void add(Game game, double weight) {
+        EndCause cause = game.getEndCause();
+        assert(cause != null);
+        numBranches++;
+        probability += weight;
+        if(cause.liberalsWin) {
+            libWins += weight;
+        }
+        rounds += weight * game.numRounds;
+        endCauses[cause.ordinal()] += weight;
+    }
+
+    /**
+     * Adds another tally to this one
+     *
+     * @param other the tally to be merged into this one
+     * @return this tally
+     */
+    public ExactResults merge(ExactResults other) {
+        numBranches += other.numBranches;
+        probability += other.probability;
+        libWins += other.libWins;
+        rounds += other.rounds;
+        for(int i = 0; i < NUM_CAUSES; i++) {
+            endCauses[i] += other.endCauses[i];
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of branches tallied
+     *
+     * @return the number of branches tallied
+     */
+    public long getNumBranches() {
+        return numBranches;
+    }
+
+    /**
+     * Gets the total probability of the branches tallied, 1 once every branch has been added
+     *
+     * @return the probability covered by the tally
+     */
+    public double getProbability() {
+        return probability;
+    }
+
+    /**
+     * Gets the probability that the liberals win
+     *
+     * @return the liberal win probability
+     */
+    public double getLibWinProbability() {
+        return libWins;
+    }
+
+    /**
+     * Gets the expected number of rounds per game
+     *
+     * @return the expected number of rounds
+     */
+    public double getExpectedRounds() {
+        return rounds;
+    }
+
+    /**
+     * Gets the probability of the game ending for a reason
+     *
+     * @param cause the reason
+     * @return the probability that the game ends for that reason
+     */
+    public double getEndCauseProbability(EndCause cause) {
+        return endCauses[cause.ordinal()];
+    }
+}
@@ -1,104 +1,482 @@
 package game;
 
-import actions.Action;
-import actions.PolicyAction;
-import actions.PlayerAction;
+import actions.ActionLog;
+import actions.ActionSummary;
 import enums.ActionType;
+import enums.EndCause;
+import enums.KnowledgeLevel;
 import enums.Policy;
 import enums.Role;
 import players.Fascist;
 import players.Hitler;
 import players.Liberal;
 import players.Player;
+import players.StrategyParams;
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.Stack;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Handles a game of Secret Hitler
  */
 public class Game {
 
-    public LinkedList<Player> players;      //List of alive players
-    public LinkedList<Player> deadPlayers;  //List of dead players
-    public LinkedList<Action> actions;      //Master list of all game actions
-    public Stack<Policy> deck;              //Deck of policies
-    public Stack<Policy> discard;           //Discard for policies
-    public Stack<Policy> liberalPolicies;   //Played liberal policies
-    public Stack<Policy> fascistPolicies;   //Played fascist policies
+    public static final int MAX_ROUNDS = 100;   //Cap on rounds per game, far beyond any legal game
+    public static final int NUM_LAYOUTS = 105;  //Ways to seat Hitler and two fascists among 7
+
+    public final SeatTable players;         //Seats of the players, alive and dead
+    public final ActionLog actions;         //Master log of all game actions, kept at FULL
+    public final ActionSummary summary;     //Counts of each player's actions, kept from SUMMARY
+    public final PolicyDeck deck;           //Deck and discard of policies
+    public final SuspicionMatrix suspicions;    //Every player's suspicion of every other player
+    public final BeliefTracker beliefs;     //Every player's beliefs over the role layouts
+    public int numLiberalPolicies;          //Number of liberal policies on the board
+    public int numFascistPolicies;          //Number of fascist policies on the board
 
     public Player chancellor;               //Current chancellor
     public Player president;                //Current president
+    public RandomGenerator random;          //Source of every random decision made in this game
+    public StrategyParams params;           //Tuning constants of the strategies, kept on reset
 
     public boolean vetoPower;               //If veto power has been enabled
     public int numRounds;                   //Number of rounds passed
     public int numFailed;                   //Number of rounds without a played policy
     private boolean presidentPicks;         //If the president selects the next president
+    private int numYes;                     //Yes votes cast so far in the current election
+    private EndCause endCause;              //Why the game ended, null while it is running
+
+    private final Player[] roster;          //Every player object, reused across games
+    private final int[] ids;                //Scratch space for assigning player IDs
+    private int hitlerId;                   //ID of the player with the HITLER role
+    private int layoutRank;                 //Rank of the role layout, see layout
+    private Tablebase tablebase;            //Ends the game early on solved states, null if not
+    private KnowledgeLevel knowledge;       //How much history is recorded, kept on reset
+    private int suspectors;                 //Bit i is set if player i's strategy uses suspicions
+    private long forkSeed;                  //Seed the forks of the current game are derived from
+    private long numForks;                  //Number of forks taken of the current game
+
+    /**
+     * Constructor, seeds the game randomly
+     */
+    public Game() {
+        this(new SplittableRandom().nextLong());
+    }
 
     /**
      * Constructor
+     *
+     * @param seed seed for every random decision made in this game
      */
-    public Game()
+    public Game(long seed)
     {
-        players = new LinkedList<Player>();
-        deadPlayers = new LinkedList<Player>();
-        actions = new LinkedList<Action>();
-        deck = new Stack<Policy>();
-        discard = new Stack<Policy>();
-        liberalPolicies = new Stack<Policy>();
-        fascistPolicies = new Stack<Policy>();
+        players = new SeatTable();
+        actions = new ActionLog(players::getById);
+        summary = new ActionSummary();
+        knowledge = KnowledgeLevel.FULL;
+        deck = new PolicyDeck();
+        suspicions = new SuspicionMatrix();
+        beliefs = new BeliefTracker();
+        params = StrategyParams.DEFAULT;
+        ids = new int[7];
+
+        //IDs are assigned when the game is reset
+        roster = new Player[7];
+        for(int i = 0; i < 4; i++) {
+            roster[i] = new Liberal(i, this);
+        }
+        for(int i = 4; i < 6; i++) {
+            roster[i] = new Fascist(i, this);
+        }
+        roster[6] = new Hitler(6, this);
+
+        reset(seed);
+    }
+
+    /**
+     * Constructor for fork, copies every part of the state of another game
+     *
+     * @param source the game to copy
+     * @param random source of every random decision made in the copy
+     */
+    private Game(Game source, RandomGenerator random) {
+        players = new SeatTable();
+        actions = source.actions.fork(players::getById);
+        summary = new ActionSummary();
+        knowledge = source.knowledge;
+        deck = new PolicyDeck();
+        suspicions = new SuspicionMatrix();
+        beliefs = new BeliefTracker();
+        params = source.params;
+        ids = source.ids.clone();
+        this.random = random;
+        tablebase = source.tablebase;
+        forkSeed = seed(source.forkSeed, 2 * source.numForks + 1);
+        numForks = 0;
+        source.numForks++;
+
+        //Forked players learn their own party, so the learned state is copied after them
+        roster = new Player[source.roster.length];
+        for(int i = 0; i < roster.length; i++) {
+            roster[i] = source.roster[i].fork(this);
+            players.seat(roster[i]);
+        }
+        for(int id = 0; id < SeatTable.NUM_SEATS; id++) {
+            if(!source.players.isAlive(id)) {
+                players.kill(players.indexOf(id));
+            }
+        }
+        summary.copyFrom(source.summary);
+        deck.copyFrom(source.deck);
+        suspicions.copyFrom(source.suspicions);
+        beliefs.copyFrom(source.beliefs);
+
+        numLiberalPolicies = source.numLiberalPolicies;
+        numFascistPolicies = source.numFascistPolicies;
+        numRounds = source.numRounds;
+        numFailed = source.numFailed;
+        presidentPicks = source.presidentPicks;
+        vetoPower = source.vetoPower;
+        numYes = source.numYes;
+        endCause = source.endCause;
+        hitlerId = source.hitlerId;
+        layoutRank = source.layoutRank;
+        suspectors = source.suspectors;
+        president = players.getById(source.president.getId());
+        chancellor = source.chancellor == null ? null : players.getById(source.chancellor.getId());
+    }
+
+    /**
+     * Makes an independent copy of the game as it stands, so that what happens from here can be
+     *   played out, as many times and on as many threads as wanted, without touching this game
+     * Costs O(state): the deck, the suspicions, the beliefs and the players' knowledge are
+     *   copied, while the log shares its history with this game, see ActionLog.fork
+     * Players are copied through Player.fork, a player who searches or plays a trained strategy
+     *   goes on as the strategy of its role
+     * A fork taken between rounds plays on with round() or playRound(), one taken at a decision
+     *   is resumed by the phases of a round, as Mcts does
+     * The fork's random decisions are seeded from a fork stream of this game, split off when
+     *   the game was reset, and the number of forks taken before it; forking never draws from
+     *   this game's own source, so this game plays on exactly as it would have unforked
+     * Forking still counts the fork and marks the log's chunks as shared, which only changes
+     *   where the log allocates, so forks are taken on the thread playing this game and then
+     *   handed to others
+     *
+     * @return the copy
+     */
+    public Game fork() {
+        return fork(new SplittableRandom(seed(forkSeed, 2 * numForks)));
+    }
+
+    /**
+     * Makes an independent copy of the game as it stands, see fork()
+     *
+     * @param random source of every random decision made in the copy
+     * @return the copy
+     */
+    public Game fork(RandomGenerator random) {
+        return new Game(this, random);
+    }
+
+    /**
+     * Starts a new game in place, reusing the player objects and collections of the previous game
+     *
+     * @param seed seed for every random decision made in the new game
+     */
+    public void reset(long seed) {
+        reset(new SplittableRandom(seed));
+        forkSeed = seed(seed, -2);
+    }
+
+    /**
+     * Starts a new game in place, drawing every random decision from the given source
+     *
+     * @param random source of every random decision made in the new game
+     */
+    public void reset(RandomGenerator random) {
+        this.random = random;
+        restartForks();
+        players.clear();
+        actions.clear();
+        summary.clear();
+        numLiberalPolicies = 0;
+        numFascistPolicies = 0;
+        chancellor = null;
         numRounds = 0;
         numFailed = 0;
         presidentPicks = false;
+        vetoPower = false;
+        endCause = null;
+
+        layoutRank = random.nextInt(NUM_LAYOUTS);
+        layout(layoutRank, ids);
+
+        suspicions.clear();
+        beliefs.reset(layoutRank);
+        //Liberals, then fascists, then Hitler take the assigned IDs in order
+        //Seating by ID matches player IDs to initial player position
+        suspectors = 0;
+        for(int i = 0; i < roster.length; i++) {
+            roster[i].reset(ids[i]);
+            players.seat(roster[i]);
+            if(roster[i].usesSuspicions()) {
+                suspectors |= 1 << ids[i];
+            }
+        }
+        hitlerId = ids[roster.length - 1];
 
-        LinkedList<Integer> ids = new LinkedList<>();
-        for(int i = 0; i < 7; i++) {
-            ids.add(i);
+        deck.reset(random);
+
+        //Reveals player roles to the fascist players
+        for(Player player : roster) {
+            if(player.getRole() == Role.FASCIST) {
+                player.viewRoles();
+            }
         }
 
-        Collections.shuffle(ids);
+        //Will set president to be the first player once the round starts
+        president = players.get(6);
+    }
 
-        for(int i = 0; i < 4; i++) {
-            players.add(new Liberal(ids.remove(), this));
+    /**
+     * Starts a new game in place from a position between rounds, reusing the player objects
+     * The board, the trackers, the alive set, veto power and the last chancellor are taken from
+     *   the position, the deck and discard are filled with its policies and the deck shuffled,
+     *   the roles are its layout or one drawn from the layouts that fit it, and players learn
+     *   the parties it says they know
+     * Suspicions start afresh but for those known parties, the first round played is the
+     *   position's president's and numRounds counts the rounds from the position on
+     *
+     * @param position the position
+     * @param random source of every random decision made in the new game
+     */
+    public void reset(Position position, RandomGenerator random) {
+        this.random = random;
+        restartForks();
+        players.clear();
+        actions.clear();
+        summary.clear();
+        numLiberalPolicies = position.numLiberalPolicies;
+        numFascistPolicies = position.numFascistPolicies;
+        numRounds = 0;
+        numFailed = position.numFailed;
+        presidentPicks = false;
+        vetoPower = position.vetoPower;
+        numYes = 0;
+        endCause = null;
+
+        layoutRank = position.drawLayout(random);
+        layout(layoutRank, ids);
+
+        suspicions.clear();
+        beliefs.reset(layoutRank);
+        suspectors = 0;
+        for(int i = 0; i < roster.length; i++) {
+            roster[i].reset(ids[i]);
+            players.seat(roster[i]);
+            if(roster[i].usesSuspicions()) {
+                suspectors |= 1 << ids[i];
+            }
+        }
+        hitlerId = ids[roster.length - 1];
+        for(int id = 0; id < SeatTable.NUM_SEATS; id++) {
+            if(!position.isAlive(id)) {
+                players.kill(players.indexOf(id));
+            }
         }
 
-        for(int i = 0; i < 2; i++) {
-            players.add(new Fascist(ids.remove(), this));
+        deck.fill(position.deckLiberal, position.deckFascist, position.getDiscardLiberal(),
+                position.getDiscardFascist(), random);
+
+        for(Player player : roster) {
+            if(player.getRole() == Role.FASCIST) {
+                player.viewRoles();
+            }
+        }
+        for(int observer = 0; observer < SeatTable.NUM_SEATS; observer++) {
+            for(int id = 0; id < SeatTable.NUM_SEATS; id++) {
+                if(position.knows(observer, id)) {
+                    players.getById(observer).showParty(id);
+                }
+            }
         }
 
-        players.add(new Hitler(ids.remove(),this));
+        chancellor = position.chancellor < 0 ? null : players.getById(position.chancellor);
+        //Will rotate to the position's president once the round starts
+        int presidentIndex = players.indexOf(position.president);
+        president = players.get((presidentIndex + players.size() - 1) % players.size());
+    }
 
-        for(int i = 0; i < 6; i++) {
-            deck.add(Policy.LIBERAL);
+    /**
+     * Replaces one of the player objects of the roster, the new player takes part from the next
+     *   reset on
+     *
+     * @precondition the player has the role of the slot: LIBERAL for slots 0 to 3, FASCIST for 4
+     *               and 5, HITLER for 6
+     * @param slot position of the player in the roster, see layout
+     * @param player the new player, built on this game
+     */
+    public void setRosterPlayer(int slot, Player player) {
+        assert(player.getRole() == roster[slot].getRole());
+        roster[slot] = player;
+    }
+
+    /**
+     * Turns this game into a copy of another game stopped at a decision, with the roles of a
+     *   given layout in place of the other game's, so that a search can play it on from there
+     * Public state is copied as it is: the board, the alive set, the government, the trackers and
+     *   the votes cast so far; the deck and discard keep their sizes and the discards fixedId saw,
+     *   but the other policies off the board are dealt between them at random, since which of
+     *   them were discarded is hidden, see PolicyDeck.redeal
+     * Suspicions are copied as well, except where they rest on what a player privately knew in
+     *   the other game: a player whose role differs starts its suspicions afresh, and every other
+     *   player forgets what it knew of the players whose party differs, so the copy carries no
+     *   hidden information that contradicts its layout
+     * The log is not copied, the copy is best played at KnowledgeLevel.NONE
+     *
+     * @precondition the other game is running and has a different roster
+     * @precondition fixedId has the role of roster slot fixedSlot in the layout
+     * @param source the game to copy
+     * @param world rank of the role layout of the copy, see layout
+     * @param fixedId ID of the player who must take roster slot fixedSlot
+     * @param fixedSlot slot of the roster whose player plays as fixedId
+     * @param random source of every random decision made in the copy from now on
+     */
+    void determinize(Game source, int world, int fixedId, int fixedSlot, RandomGenerator random) {
+        this.random = random;
+        restartForks();
+        params = source.params;
+        players.clear();
+        actions.clear();
+        summary.clear();
+        numLiberalPolicies = source.numLiberalPolicies;
+        numFascistPolicies = source.numFascistPolicies;
+        numRounds = source.numRounds;
+        numFailed = source.numFailed;
+        presidentPicks = source.presidentPicks;
+        vetoPower = source.vetoPower;
+        numYes = source.numYes;
+        endCause = null;
+
+        layoutRank = world;
+        layout(world, ids);
+        for(int i = 0; i < ids.length; i++) {
+            if(ids[i] == fixedId) {
+                ids[i] = ids[fixedSlot];
+                ids[fixedSlot] = fixedId;
+            }
         }
-        for(int i = 0; i < 11; i++) {
-            deck.add(Policy.FASCIST);
+
+        suspicions.copyFrom(source.suspicions);
+        beliefs.reset(world);
+        int changedParty = 0;
+        for(int i = 0; i < roster.length; i++) {
+            boolean wasLiberal = source.players.getById(ids[i]).getRole() == Role.LIBERAL;
+            if(wasLiberal != (roster[i].getRole() == Role.LIBERAL)) {
+                changedParty |= 1 << ids[i];
+            }
+        }
+        suspectors = 0;
+        for(int i = 0; i < roster.length; i++) {
+            if(source.players.getById(ids[i]).getRole() != roster[i].getRole()) {
+                suspicions.reset(ids[i]);
+            }
+            else {
+                suspicions.forget(ids[i], changedParty);
+            }
+            roster[i].reset(ids[i]);
+            players.seat(roster[i]);
+            if(roster[i].usesSuspicions()) {
+                suspectors |= 1 << ids[i];
+            }
+        }
+        hitlerId = ids[roster.length - 1];
+        for(int id = 0; id < SeatTable.NUM_SEATS; id++) {
+            if(!source.players.isAlive(id)) {
+                players.kill(players.indexOf(id));
+            }
         }
 
-        //Matches player IDs to initial player position
-        Collections.sort(players);
-        Collections.shuffle(deck);
+        deck.copyFrom(source.deck);
+        deck.redeal(fixedId, random);
 
-        //Reveals player roles to the fascist players
-        for(Player player : players) {
+        for(Player player : roster) {
             if(player.getRole() == Role.FASCIST) {
-                ((Fascist)player).viewRoles();
+                player.viewRoles();
             }
         }
 
-        //Will set president to be the first player once the round starts
-        president = players.get(6);
+        president = players.getById(source.president.getId());
+        chancellor = source.chancellor == null ? null : players.getById(source.chancellor.getId());
+    }
 
-        vetoPower = false;
+    /**
+     * Assigns player IDs to the roster by the rank of a role layout
+     * Players of the same role are interchangeable, so only where Hitler and the pair of fascists
+     *   sit matters, one of NUM_LAYOUTS layouts
+     *
+     * @precondition 0 <= rank < NUM_LAYOUTS
+     * @param rank rank of the layout, Hitler's seat times 15 plus the rank of the fascists' pair
+     *             among the other six seats
+     * @param ids receives the IDs of the four liberals, then the two fascists, then Hitler
+     */
+    static void layout(int rank, int[] ids) {
+        assert(rank >= 0 && rank < NUM_LAYOUTS);
+        int hitler = rank / 15;
+        int pair = rank % 15;
+
+        //Finds the pair of positions among the six seats other than Hitler's
+        int first = 0;
+        while(pair >= 5 - first) {
+            pair -= 5 - first;
+            first++;
+        }
+        int second = first + 1 + pair;
+
+        int liberal = 0;
+        int position = 0;
+        for(int seat = 0; seat < ids.length; seat++) {
+            if(seat == hitler) {
+                ids[6] = seat;
+                continue;
+            }
+            if(position == first) {
+                ids[4] = seat;
+            }
+            else if(position == second) {
+                ids[5] = seat;
+            }
+            else {
+                ids[liberal++] = seat;
+            }
+            position++;
+        }
     }
 
     /**
-     * Handles a round, runs recursively until a win condition is met
+     * Plays rounds until a win condition is met
      *
      * @return true if the liberals win, false if the fascists win
+     * @throws IllegalStateException if the game runs past MAX_ROUNDS rounds
      */
     public boolean round() {
+        while(numRounds < MAX_ROUNDS) {
+            if(tablebase != null && tablebase.resolve(this)) {
+                return endCause.liberalsWin;
+            }
+            if(playRound()) {
+                return endCause.liberalsWin;
+            }
+        }
+        throw new IllegalStateException("Game did not finish within " + MAX_ROUNDS + " rounds");
+    }
+
+    /**
+     * Handles a single round
+     * Used directly by tools which inspect the game between rounds, round() plays a whole game
+     *
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    public boolean playRound() {
         numRounds++;
 
         //Rotate the president unless the previous president already picked the new president
@@ -109,75 +487,175 @@ public class Game {
             presidentPicks = false;
         }
 
-        chancellor = players.get(president.chooseChancellor());
+        return nominate(president.chooseChancellor());
+    }
+
+    /**
+     * Nominates the chancellor and holds the election, the phases of a round from here on are
+     *   package-private so that a search can resume a copied game right after one of its decisions
+     *
+     * @param chancellorIndex index of the nominated chancellor
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    boolean nominate(int chancellorIndex) {
+        chancellor = players.get(chancellorIndex);
         addAction(president, ActionType.SELECT, chancellor);
+        numYes = 0;
+        return vote(0);
+    }
 
-        //Each player votes
-        int numYes = 0;
-        for(Player player : players) {
-            if(player.vote(president, chancellor)) {
-                numYes++;
-                addAction(player, ActionType.VOTE_YES, president, chancellor);
-            }
-            else {
-                addAction(player, ActionType.VOTE_NO, president, chancellor);
-            }
+    /**
+     * Collects the votes of every player from an index on, then counts them
+     *
+     * @param from index of the first player left to vote
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    boolean vote(int from) {
+        for(int i = from; i < players.size(); i++) {
+            castVote(i, players.get(i).vote(president, chancellor));
         }
+        return count();
+    }
 
+    /**
+     * Records the vote of a player
+     *
+     * @param playerIndex index of the voter
+     * @param yes true if the player voted for the government
+     */
+    void castVote(int playerIndex, boolean yes) {
+        Player player = players.get(playerIndex);
+        if(yes) {
+            numYes++;
+            addAction(player, ActionType.VOTE_YES, president, chancellor);
+        }
+        else {
+            addAction(player, ActionType.VOTE_NO, president, chancellor);
+        }
+    }
+
+    /**
+     * Counts the votes, the president draws if the government is elected
+     *
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    private boolean count() {
         //If the president/chancellor combo was voted up
         if((double) numYes / (double) players.size() > .5) {
 
             //The fascists win if Hitler is elected chancellor after 3 fascist policies are played
-            if(fascistPolicies.size() > 3 && chancellor.getRole().isHitler) {
-                return false;
+            if(numFascistPolicies > 3 && chancellor.getRole().isHitler) {
+                endCause = EndCause.HITLER_ELECTED;
+                return true;
             }
+            if(numFascistPolicies > 3) {
+                beliefs.revealHitler(chancellor.getId());
+            }
+            return legislate(president.draw());
+        }
+        //If the president/chancellor combo was voted down, increase the election tracker
+        numFailed++;
+        return endRound();
+    }
 
-            LinkedList<Policy> policies = president.draw();
-            addAction(president, ActionType.DISCARD, discard.peek());
-            addAction(president, ActionType.PASS, policies.get(0), policies.get(1));
+    /**
+     * Passes the two policies the president kept to the chancellor, who may propose a veto
+     *
+     * @precondition the president's discard is on top of the discard
+     * @param policies hand of policies passed to the chancellor
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    boolean legislate(int policies) {
+        deck.witness(1, 1 << president.getId());
+        addAction(president, ActionType.DISCARD, deck.getLastDiscarded());
+        addAction(president, ActionType.PASS, Hand.get(policies, 0), Hand.get(policies, 1));
+        return veto(policies, chancellor.veto(policies));
+    }
 
-            //If the chancellor and president agree to veto the policies
-            if(chancellor.veto(policies) && president.veto(policies)) {
-                addAction(president, ActionType.VETO, policies.get(0), policies.get(1));
+    /**
+     * Asks the president to agree if the chancellor proposed a veto
+     *
+     * @param policies hand of policies passed to the chancellor
+     * @param proposed true if the chancellor proposed a veto
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    boolean veto(int policies, boolean proposed) {
+        return resolveVeto(policies, proposed && president.veto(policies));
+    }
 
-                for(int i = 0; i < 2; i++) {
-                    discard.push(policies.remove(0));
-                }
-                numFailed++;
-            }
-            else {
-                Policy played = chancellor.play(policies);
-                addAction(chancellor, ActionType.DISCARD, discard.peek());
-                addAction(chancellor, ActionType.PLAY, played);
-                numFailed = 0;
-
-                //Play the card and handle fascist policy powers
-                if (played.isLiberal) {
-                    liberalPolicies.push(played);
-                } else {
-                    fascistPolicies.push(played);
-
-                    if (fascistPolicies.size() == 2) {
-                        addAction(president, ActionType.INVESTIGATE, president.investigate());
-                    } else if (fascistPolicies.size() == 3) {
-                        Player oldPresident = president;
-                        president = players.get(president.choosePresident());
-                        presidentPicks = true;
-                        addAction(oldPresident, ActionType.SELECT, president);
-                    } else if (fascistPolicies.size() == 4) {
-                        addAction(president, ActionType.SHOOT, president.shoot());
-                    } else if (fascistPolicies.size() == 5) {
-                        addAction(president, ActionType.SHOOT, president.shoot());
-                        vetoPower = true;
-                    }
-                }
+    /**
+     * Discards the policies if the government agreed to veto them, otherwise the chancellor plays
+     *
+     * @param policies hand of policies passed to the chancellor
+     * @param vetoed true if the chancellor and president agreed to veto the policies
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    boolean resolveVeto(int policies, boolean vetoed) {
+        if(!vetoed) {
+            return enact(chancellor.play(policies));
+        }
+        addAction(president, ActionType.VETO, Hand.get(policies, 0), Hand.get(policies, 1));
+        for(int i = 0; i < 2; i++) {
+            deck.discard(Hand.get(policies, i));
+        }
+        deck.witness(2, players.getAliveMask());
+        numFailed++;
+        return endRound();
+    }
+
+    /**
+     * Puts the chancellor's policy on the board and grants the president its power
+     *
+     * @precondition the chancellor's discard is on top of the discard
+     * @param played the policy played by the chancellor
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    boolean enact(Policy played) {
+        deck.witness(1, (1 << chancellor.getId()) | (1 << president.getId()));
+        addAction(chancellor, ActionType.DISCARD, deck.getLastDiscarded());
+        addAction(chancellor, ActionType.PLAY, played);
+        numFailed = 0;
+
+        //Play the card and handle fascist policy powers
+        if (played.isLiberal) {
+            numLiberalPolicies++;
+        } else {
+            numFascistPolicies++;
+
+            if (numFascistPolicies == 2) {
+                addAction(president, ActionType.INVESTIGATE, president.investigate());
+            } else if (numFascistPolicies == 3) {
+                Player oldPresident = president;
+                president = players.get(president.choosePresident());
+                presidentPicks = true;
+                addAction(oldPresident, ActionType.SELECT, president);
+            } else if (numFascistPolicies == 4 || numFascistPolicies == 5) {
+                return shot(president.shoot());
             }
         }
-        else {
-            //If the president/chancellor combo was voted down, increase the election tracker
-            numFailed++;
+        return endRound();
+    }
+
+    /**
+     * Records the player shot by the president, the fifth fascist policy also enables veto power
+     *
+     * @param victim the killed player
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    boolean shot(Player victim) {
+        addAction(president, ActionType.SHOOT, victim);
+        if(numFascistPolicies == 5) {
+            vetoPower = true;
         }
+        return endRound();
+    }
 
+    /**
+     * Flips a policy after three failed governments and checks the win conditions
+     *
+     * @return true if a win condition was met, in which case endCause holds the reason
+     */
+    private boolean endRound() {
         //If three governments have failed in a row, flip a policy from the deck
         if(numFailed == 3) {
             if(deck.size() < 1) {
@@ -186,9 +664,9 @@ public class Game {
             Policy flip = deck.pop();
 
             if (flip.isLiberal) {
-                liberalPolicies.push(flip);
+                numLiberalPolicies++;
             } else {
-                fascistPolicies.push(flip);
+                numFascistPolicies++;
             }
             //Reset the election tracker
             numFailed = 0;
@@ -197,14 +675,139 @@ public class Game {
         }
 
         //Handle win conditions
-        if (fascistPolicies.size() == 6) {
-            return false;
+        if (numFascistPolicies == 6) {
+            endCause = EndCause.FASCIST_POLICIES;
+            return true;
+        }
+        else if(numLiberalPolicies == 5) {
+            endCause = EndCause.LIBERAL_POLICIES;
+            return true;
         }
-        else if(liberalPolicies.size() == 5 || hitlerIsDead()) {
+        else if(hitlerIsDead()) {
+            endCause = EndCause.HITLER_SHOT;
             return true;
         }
 
-        return round();
+        return false;
+    }
+
+    /**
+     * Gets the reason the game ended
+     *
+     * @return the reason the game ended, null if it is still running
+     */
+    public EndCause getEndCause() {
+        return endCause;
+    }
+
+    /**
+     * Ends the game with an outcome decided outside of play, as a tablebase does
+     *
+     * @param cause why the game ended
+     * @param rounds number of rounds the rest of the game is counted as
+     */
+    void end(EndCause cause, int rounds) {
+        endCause = cause;
+        numRounds += rounds;
+    }
+
+    /**
+     * Gets the rank of the role layout, which with Game.layout gives every player's role
+     *
+     * @return the rank of the layout, between 0 and NUM_LAYOUTS - 1
+     */
+    public int getLayoutRank() {
+        return layoutRank;
+    }
+
+    /**
+     * Determines if the president picking a player is holding a special election rather than
+     *   nominating a chancellor
+     *
+     * @return true if the president was picked by the previous president
+     */
+    boolean isSpecialElection() {
+        return presidentPicks;
+    }
+
+    /**
+     * Sets the tablebase used to end games as soon as they reach a solved state
+     *
+     * @param tablebase the tablebase, null to always play games out
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Sets how much of the game's history is recorded, best set between games so that the log
+     *   covers whole games
+     * Strategies that read the log need FULL, which is the default
+     *
+     * @param knowledge the knowledge level
+     */
+    public void setKnowledge(KnowledgeLevel knowledge) {
+        this.knowledge = knowledge;
+    }
+
+    /**
+     * Gets how much of the game's history is recorded
+     *
+     * @return the knowledge level
+     */
+    public KnowledgeLevel getKnowledge() {
+        return knowledge;
+    }
+
+    /**
+     * Packs the state of the game between rounds into a key, see Tablebase
+     * Seats are counted from the last president's, so that states which differ only by a turn
+     *   of the table share a key
+     * From the most significant bits down: fascist and liberal policies played, so that keys
+     *   sort by progress, then the election tracker, the liberal and fascist policies left in the
+     *   deck, veto power, the alive set, if the last president picked the next one, the last
+     *   chancellor plus one (0 for none), the seats of the fascists and the seat of Hitler
+     *
+     * @precondition the game is between rounds
+     * @return the key of the state
+     */
+    public long getStateKey() {
+        int deckLiberal = deck.numLiberal();
+        int turn = president.getId();
+        long key = numFascistPolicies;
+        key = (key << 3) | numLiberalPolicies;
+        key = (key << 2) | numFailed;
+        key = (key << 3) | deckLiberal;
+        key = (key << 4) | (deck.size() - deckLiberal);
+        key = (key << 1) | (vetoPower ? 1 : 0);
+        key = (key << 7) | turn(players.getAliveMask(), turn);
+        key = (key << 1) | (presidentPicks ? 1 : 0);
+        key = (key << 3) | (chancellor == null ? 0 : seatFrom(chancellor.getId(), turn) + 1);
+        key = (key << 7) | turn((1 << ids[4]) | (1 << ids[5]), turn);
+        key = (key << 3) | seatFrom(hitlerId, turn);
+        return key;
+    }
+
+    /**
+     * Counts a seat from another seat
+     *
+     * @param seat the seat
+     * @param from the seat counted as 0
+     * @return the number of seats from one to the other, going round the table
+     */
+    private static int seatFrom(int seat, int from) {
+        return (seat - from + SeatTable.NUM_SEATS) % SeatTable.NUM_SEATS;
+    }
+
+    /**
+     * Counts every seat of a mask from another seat
+     *
+     * @param mask bit i is set for seat i
+     * @param from the seat counted as 0
+     * @return the mask with bit seatFrom(i, from) set for each seat i of the mask
+     */
+    private static int turn(int mask, int from) {
+        return ((mask >>> from) | (mask << (SeatTable.NUM_SEATS - from))) & 0x7F;
     }
 
     /**
@@ -213,48 +816,58 @@ public class Game {
      * @return index of the chancellor, -1 if no chancellor
      */
     public int getChancellorIndex() {
-        for(int i = 0; i < players.size(); i++) {
-            if(chancellor == players.get(i)) {
-                return i;
-            }
-        }
-        return -1;
+        return chancellor == null ? -1 : players.indexOf(chancellor.getId());
     }
 
     /**
      * Shuffles the discard back into the deck
      */
     public void shuffleInDiscard() {
-        deck.addAll(discard);
-        discard = new Stack<Policy>();
-        Collections.shuffle(deck);
+        deck.shuffleInDiscard(random);
     }
 
     /**
-     * Removes the player at the specified index from the player list and adds them to the dead
-     *   players list
+     * Starts a new fork stream for a game started in place, derived from the previous one so that
+     *   no draw is taken from the game's random source
+     */
+    private void restartForks() {
+        forkSeed = seed(forkSeed, -2);
+        numForks = 0;
+    }
+
+    /**
+     * Derives the seed of a single game from a run's master seed, so that any game of a run can
+     *   be replayed from (masterSeed, gameIndex) alone
+     *
+     * @param masterSeed seed of the whole run
+     * @param gameIndex index of the game within the run
+     * @return the seed for the game
+     */
+    public static long seed(long masterSeed, long gameIndex) {
+        //SplitMix64 finalizer, spreads consecutive indices across the whole seed space
+        long z = masterSeed + (gameIndex + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Kills the player at the specified index, removing them from the alive players
      *
      * @param playerIndex index of the player to be killed
      * @return the killed player
      */
     public Player kill(int playerIndex) {
-        Player killed = players.remove(playerIndex);
-        deadPlayers.add(killed);
-        return killed;
+        return players.kill(playerIndex);
     }
 
     /**
      * Gets a player by player ID
      * @param id player ID
-     * @return a player
+     * @return a player, null if dead
      */
     public Player findPlayerById(int id) {
-        for(Player player : players) {
-            if(player.getId() == id) {
-                return player;
-            }
-        }
-        return null;
+        return players.isAlive(id) ? players.getById(id) : null;
     }
 
     /**
@@ -264,45 +877,30 @@ public class Game {
      * @return the player index for the player matching id, -1 if dead
      */
     public int findPlayerIndexById(int id) {
-        for(int i = 0; i < players.size(); i++) {
-            if(players.get(i).getId() == id) {
-                return i;
-            }
-        }
-        return -1;
+        return players.indexOf(id);
     }
 
     /**
      * Determines if a player with the specified ID is alive
      *
      * @param id player ID
-     * @return
+     * @return true if the player is alive, false otherwise
      */
     public boolean isAlive(int id) {
-        for(Player player : players) {
-            if(player.getId() == id) {
-                return true;
-            }
-        }
-        return false;
+        return players.isAlive(id);
     }
 
     /**
-     * Determines if a player with the HITLER role is alive
+     * Determines if a player with the HITLER role is dead
      *
-     * @return true if a player with the HITLER role remains in the players list, false otherwise
+     * @return true if the player with the HITLER role is no longer alive, false otherwise
      */
     private boolean hitlerIsDead() {
-        for (Player player : players) {
-            if (player.getRole().isHitler) {
-                return false;
-            }
-        }
-        return true;
+        return !players.isAlive(hitlerId);
     }
 
     /**
-     * Helper method to add a PlayerAction to the actions list
+     * Helper method to add an action on a player to the actions log
      *
      * @precondition type is SELECT, ACCUSE, INVESTIGATE, or SHOOT
      * @param player the player who performed the action
@@ -312,12 +910,11 @@ public class Game {
     private void addAction(Player player, ActionType type, Player victim) {
         assert(type == ActionType.SELECT || type == ActionType.ACCUSE ||
                 type == ActionType.INVESTIGATE || type == ActionType.SHOOT);
-        actions.add(new PlayerAction(player, type, makeList(victim)));
-        updatePlayerKnowledge();
+        logAction(player, type, victim.getId(), ActionLog.NONE);
     }
 
     /**
-     * Helper method to add a PlayerAction to the actions list
+     * Helper method to add an action on two players to the actions log
      *
      * @precondition type is VOTE_YES, or VOTE_NO
      * @param player the player who performed the action
@@ -327,12 +924,11 @@ public class Game {
      */
     private void addAction(Player player, ActionType type, Player first, Player second) {
         assert(type == ActionType.VOTE_YES || type == ActionType.VOTE_NO);
-        actions.add(new PlayerAction(player, type, makeList(first, second)));
-        updatePlayerKnowledge();
+        logAction(player, type, first.getId(), second.getId());
     }
 
     /**
-     * Helper method to add a PolicyAction to the actions list
+     * Helper method to add an action on a policy to the actions log
      *
      * @precondition type is DISCARD, PLAY, or DECLARE_DISCARD
      * @param player the player who performed the action
@@ -342,12 +938,11 @@ public class Game {
     private void addAction(Player player, ActionType type, Policy policy) {
         assert(type == ActionType.DISCARD || type == ActionType.PLAY ||
                 type == ActionType.DECLARE_DISCARDED);
-        actions.add(new PolicyAction(player, type, makeList(policy)));
-        updatePlayerKnowledge();
+        logAction(player, type, policy.ordinal(), ActionLog.NONE);
     }
 
     /**
-     * Helper method to add a PolicyAction to the actions list
+     * Helper method to add an action on two policies to the actions log
      *
      * @precondition type is PASS, DECLARE_PASSED or VETO
      * @param player the player who performed the action
@@ -358,87 +953,43 @@ public class Game {
     private void addAction(Player player, ActionType type, Policy first, Policy second) {
         assert(type == ActionType.PASS || type == ActionType.DECLARE_PASSED
                 || type == ActionType.VETO);
-        actions.add(new PolicyAction(player, type, makeList(first, second)));
-        updatePlayerKnowledge();
+        logAction(player, type, first.ordinal(), second.ordinal());
     }
 
     /**
-     * Updates player knowledge with the last processed action
+     * Logs an action once, recording who observed it and who saw its policies as far as the
+     *   knowledge level asks, and updates the suspicion of the actor held by every observer whose
+     *   strategy uses suspicions and, if they are tracked, the beliefs of every observer
+     * Package-private so that the benchmarks can measure it directly
+     *
+     * @param player the player who performed the action
+     * @param type the type of action
+     * @param first the first operand of the action
+     * @param second the second operand of the action, ActionLog.NONE if there is only one
      */
-    private void updatePlayerKnowledge() {
-        if(actions.getLast().getType() == ActionType.DISCARD) {
-            for (Player player : players) {
-                //No one but the player and the president knows what card was discarded
-                if (player != actions.getLast().getPlayer() && player != president) {
-                    player.addAction(new PolicyAction(actions.getLast().getPlayer(),
-                            actions.getLast().getType(), dummyPolicies(1)));
-                }
-            }
-            //Adds the action to the president and, if visible, to the chancellor
-            president.addAction(actions.getLast());
-            if(actions.getLast().getPlayer() != president) {
-                actions.getLast().getPlayer().addAction(actions.getLast());
-            }
+    void logAction(Player player, ActionType type, int first, int second) {
+        int alive = players.getAliveMask();
+        int visible;
+        if(type == ActionType.DISCARD) {
+            //No one but the player and the president knows what card was discarded
+            visible = (1 << player.getId()) | (1 << president.getId());
         }
-        else if(actions.getLast().getType() == ActionType.PASS) {
-            for (Player player : players) {
-                //No one but the president and chancellor knows what cards were passed
-                if (player != president  && player != chancellor) {
-                    player.addAction(new PolicyAction(actions.getLast().getPlayer(),
-                            actions.getLast().getType(), dummyPolicies(2)));
-                }
-            }
-            //Adds the action to the president and chancellor
-            president.addAction(actions.getLast());
-            chancellor.addAction(actions.getLast());
+        else if(type == ActionType.PASS) {
+            //No one but the president and chancellor knows what cards were passed
+            visible = (1 << president.getId()) | (1 << chancellor.getId());
         }
         else {
-            //If actions is visible to all players, add the action to all players
-            for (Player player : players) {
-                player.addAction(actions.getLast());
-            }
+            //Actions on players are visible to all players
+            visible = alive;
         }
-    }
-
-    /**
-     * Helper method to wrap an object in a LinkedList
-     *
-     * @param single object to be wrapped
-     * @return a LinkedList containing single
-     */
-    private <T> LinkedList<T> makeList(T single) {
-        LinkedList<T> list = new LinkedList<T>();
-        list.add(single);
-        return list;
-    }
-
-    /**
-     * Helper method to wrap two objects in a LinkedList
-     *
-     * @param first first object to be wrapped
-     * @param second second object to be wrapped
-     * @return a LinkedList containing first and second
-     */
-    private <T> LinkedList<T> makeList(T first, T second) {
-        LinkedList<T> list = new LinkedList<T>();
-        list.add(first);
-        list.add(second);
-        return list;
-    }
-
-    /**
-     * Returns a policy list with null values
-     *
-     * @precondition size == 1 || size == 2
-     * @param size size of list
-     * @return policy list with null values
-     */
-    private LinkedList<Policy> dummyPolicies(int size) {
-        assert(size == 1 || size == 2);
-        LinkedList<Policy> dummy = new LinkedList<>();
-        for(int i = 0; i < size; i++) {
-            dummy.add(null);
+        if(knowledge.keepsLog) {
+            actions.add(player.getId(), type, first, second, alive, visible);
+        }
+        if(knowledge.keepsSummary) {
+            summary.add(player.getId(), type, first, alive, visible);
         }
-        return dummy;
+        suspicions.observe(params, player.getId(), !player.getParty().isLiberal, type, first,
+                alive & suspectors, visible);
+        beliefs.observe(player.getId(), type, first, second, alive, visible, this);
     }
 }
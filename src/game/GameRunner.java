@@ -1,54 +1,690 @@
 package game;
 
-import actions.Action;
-import actions.PlayerAction;
-import actions.PolicyAction;
-import enums.Policy;
-import players.Player;
+import enums.EndCause;
+import enums.KnowledgeLevel;
+import enums.RareEvent;
+import enums.Role;
+import enums.Sampling;
+import players.StrategyParams;
 
-import java.time.Instant;
-import java.util.LinkedList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Runs games of Secret Hitler
  */
 public class GameRunner {
 
+    private static final long BATCH_SIZE = 4096;   //Most games a single fork-join task plays
+    static final double Z_95 = 1.959964;    //Normal quantile of a 95% confidence interval
+
+    private static final int PILOT_ROUNDS = 3;  //Cross-entropy rounds before a rare-event run
+    private static final int[] DEAL_BOUNDS = {Game.NUM_LAYOUTS, PolicyDeck.NUM_ORDERS};
+
     /**
      * Runs 2^args[0] games, 2^16 if no arg provided
+     * Accepts --threads N to split the games across N worker threads, 1 if not provided
+     * Accepts --seed S to fix the master seed, random if not provided
+     * Accepts --out FILE to save the tally so that runs in other processes can be merged with it
+     * Accepts --merge FILE... to report the merged tallies of earlier runs instead of playing
+     * Accepts --precision P to stop once the 95% interval of the liberal win rate is within
+     *   +-P percent, and --time T to stop after T seconds; with either, 2^args[0] becomes an upper
+     *   bound on the games played and is unbounded if not provided
+     * Accepts --exact [D] to walk every deal and every random decision of the players instead of
+     *   sampling, or only the first D decisions of each deal, see Enumerator
+     * Accepts --build-tablebase FILE to play the games into a tablebase instead, recording states
+     *   with at least --min-progress K policies played, 0 if not provided
+     * Accepts --tablebase FILE to end games once they reach a state of the tablebase that at
+     *   least --min-games G games reached, 100 if not provided
+     * Accepts --sampling stratified|antithetic to pick deals with less variance than independent
+     *   draws, and --control to correct the estimate with a control variate, see Estimator
+     * Accepts --rare EVENT to estimate the probability of a rare outcome by importance sampling
+     *   instead, see ImportanceSampler
+     * Accepts --knowledge none|summary|full to set how much history each game records, none if
+     *   not provided since only outcomes are reported
+     * Accepts --batch to play the games on the structure-of-arrays BatchEngine, and --verify to
+     *   play them on both engines and count the games whose outcomes differ, exiting with status 1
+     *   if any do
+     * Accepts --trace FILE to record games to a trace file, see TraceWriter, every game unless
+     *   --trace-every N keeps only every Nth one or --trace-cause CAUSE only those ending that way
+     *
+     * @param args integer argument which will result in 2^args[0] games run, optionally followed
+     *             or preceded by --threads N, --seed S, --out FILE, --merge FILE...,
+     *             --precision P, --time T, --exact [D], --build-tablebase FILE,
+     *             --min-progress K, --tablebase FILE, --min-games G, --sampling S,
+     *             --control, --rare EVENT, --knowledge K, --batch, --verify, --trace FILE,
+     *             --trace-every N or --trace-cause CAUSE
+     * @throws IOException if a tally cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        long numGames = -1;
+        int threads = 1;
+        double precision = 0;
+        double budget = 0;
+        int exactDepth = -1;
+        Path buildTablebase = null;
+        int minProgress = 0;
+        Path tablebase = null;
+        long minGames = 100;
+        RareEvent rare = null;
+        Sampling sampling = Sampling.PLAIN;
+        boolean control = false;
+        KnowledgeLevel knowledge = KnowledgeLevel.NONE;
+        Tablebase table = null;
+        TraceWriter trace = null;
+        boolean batch = false;
+        boolean verify = false;
+        Path traceFile = null;
+        long traceEvery = 1;
+        EndCause traceCause = null;
+        long masterSeed = new SplittableRandom().nextLong();
+        String out = null;
+        List<String> merge = new ArrayList<String>();
+
+        for(int i = 0; i < args.length; i++) {
+            if(args[i].equals("--threads") && i + 1 < args.length && args[i + 1].matches("\\d+")) {
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+            }
+            else if(args[i].equals("--seed") && i + 1 < args.length &&
+                    args[i + 1].matches("-?\\d+")) {
+                masterSeed = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--precision") && i + 1 < args.length) {
+                precision = Double.parseDouble(args[++i]) / 100;
+            }
+            else if(args[i].equals("--time") && i + 1 < args.length) {
+                budget = Double.parseDouble(args[++i]);
+            }
+            else if(args[i].equals("--exact")) {
+                exactDepth = Integer.MAX_VALUE;
+                if(i + 1 < args.length && args[i + 1].matches("\\d+")) {
+                    exactDepth = Integer.parseInt(args[++i]);
+                }
+            }
+            else if(args[i].equals("--build-tablebase") && i + 1 < args.length) {
+                buildTablebase = Paths.get(args[++i]);
+            }
+            else if(args[i].equals("--min-progress") && i + 1 < args.length) {
+                minProgress = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equals("--tablebase") && i + 1 < args.length) {
+                tablebase = Paths.get(args[++i]);
+            }
+            else if(args[i].equals("--min-games") && i + 1 < args.length) {
+                minGames = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--sampling") && i + 1 < args.length) {
+                sampling = Sampling.valueOf(args[++i].toUpperCase());
+            }
+            else if(args[i].equals("--rare") && i + 1 < args.length) {
+                rare = RareEvent.valueOf(args[++i].toUpperCase());
+            }
+            else if(args[i].equals("--knowledge") && i + 1 < args.length) {
+                knowledge = KnowledgeLevel.valueOf(args[++i].toUpperCase());
+            }
+            else if(args[i].equals("--batch")) {
+                batch = true;
+            }
+            else if(args[i].equals("--verify")) {
+                verify = true;
+            }
+            else if(args[i].equals("--trace") && i + 1 < args.length) {
+                traceFile = Paths.get(args[++i]);
+            }
+            else if(args[i].equals("--trace-every") && i + 1 < args.length) {
+                traceEvery = Math.max(1, Long.parseLong(args[++i]));
+            }
+            else if(args[i].equals("--trace-cause") && i + 1 < args.length) {
+                traceCause = EndCause.valueOf(args[++i].toUpperCase());
+            }
+            else if(args[i].equals("--control")) {
+                control = true;
+            }
+            else if(args[i].equals("--out") && i + 1 < args.length) {
+                out = args[++i];
+            }
+            else if(args[i].equals("--merge")) {
+                while(i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    merge.add(args[++i]);
+                }
+            }
+            else if(args[i].matches("\\d+")) {
+                numGames = 1L << Integer.parseInt(args[i]);
+            }
+        }
+
+        if(buildTablebase != null) {
+            long start = System.nanoTime();
+            long games = numGames < 0 ? 1L << 16 : numGames;
+            int states = Tablebase.build(buildTablebase, games, threads, masterSeed, minProgress);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%d states from %d games written to %s in %.3f seconds\n", states,
+                    games, buildTablebase, seconds);
+            System.out.println("Master seed: " + masterSeed);
+            return;
+        }
+        if(tablebase != null) {
+            table = new Tablebase(tablebase, minGames);
+            System.out.println("Ending games early with " + table.size() + " states of " +
+                    tablebase);
+        }
+
+        if(rare != null) {
+            long games = numGames < 0 ? 1L << 16 : numGames;
+            long start = System.nanoTime();
+            ImportanceSampler sampler = new ImportanceSampler(rare);
+            long pilotGames = Math.max(1L << 14, games / 16);
+            sampler.fit(PILOT_ROUNDS, pilotGames, threads, masterSeed);
+            ImportanceSampler.Tally tally = sampler.run(games, threads, masterSeed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            double estimate = tally.getEstimate();
+            double halfWidth = Z_95 * Math.sqrt(tally.getVariance());
+            double effective = tally.getEffectiveSampleSize();
+            System.out.printf("%d importance-sampled games (after %d pilot games) in %.3f " +
+                    "seconds\n", games, PILOT_ROUNDS * pilotGames, seconds);
+            System.out.println("Master seed: " + masterSeed);
+            System.out.printf("P(%s) = %.4f%% +- %.4f%% (95%%), relative error %.2f%%\n", rare,
+                    estimate * 100, halfWidth * 100, halfWidth / estimate * 100);
+            System.out.printf("%d hits, mean weight %.4f, effective sample size %.0f (%.2fx)\n",
+                    tally.getHits(), tally.getMeanWeight(), effective, effective / games);
+            return;
+        }
+
+        if(verify) {
+            int games = (int) Math.min(Integer.MAX_VALUE, numGames < 0 ? 1L << 16 : numGames);
+            long start = System.nanoTime();
+            long mismatches = BatchEngine.verify(games, masterSeed, StrategyParams.DEFAULT);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%d games played on both engines in %.3f seconds, %d with " +
+                    "different outcomes\n", games, seconds, mismatches);
+            System.out.println("Master seed: " + masterSeed);
+            if(mismatches > 0) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        if(exactDepth >= 0) {
+            long start = System.nanoTime();
+            ExactResults exact = Enumerator.enumerate(exactDepth, threads, masterSeed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%d deals, %d branches enumerated in %.3f seconds on %d %s\n",
+                    Enumerator.NUM_DEALS, exact.getNumBranches(), seconds, threads,
+                    threads == 1 ? "thread" : "threads");
+            System.out.println("Master seed: " + masterSeed);
+            report(exact);
+            return;
+        }
+
+        Results results;
+        if(!merge.isEmpty()) {
+            results = new Results();
+            for(String file : merge) {
+                try(DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(new FileInputStream(file)))) {
+                    results.merge(Results.readFrom(in));
+                }
+            }
+            System.out.println("Merged the tallies of " + merge.size() + " runs:");
+        }
+        else {
+            if(traceFile != null) {
+                if(batch || sampling != Sampling.PLAIN || table != null) {
+                    throw new IllegalArgumentException("Traces can only be recorded from plain " +
+                            "runs on the reference engine");
+                }
+                trace = new TraceWriter(traceFile, masterSeed, traceEvery, traceCause);
+            }
+            RunConfig config = new RunConfig(table, sampling, control, knowledge, trace);
+            long start = System.nanoTime();
+            if(batch) {
+                if(sampling != Sampling.PLAIN || table != null) {
+                    throw new IllegalArgumentException("The batch engine only plays plain runs");
+                }
+                results = BatchEngine.run(numGames < 0 ? 1L << 16 : numGames, threads,
+                        masterSeed, StrategyParams.DEFAULT);
+            }
+            else if(precision > 0 || budget > 0) {
+                results = runUntil(precision, (long) (budget * 1e9),
+                        numGames < 0 ? Long.MAX_VALUE : numGames, threads, masterSeed, config);
+            }
+            else {
+                results = run(numGames < 0 ? 1L << 16 : numGames, threads, masterSeed, config);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println("This version produced the following results:");
+            System.out.printf("%d games executed in %.3f seconds on %d %s (%.0f games/sec)\n",
+                    results.getNumGames(), seconds, threads, threads == 1 ? "thread" : "threads",
+                    results.getNumGames() / seconds);
+            System.out.println("Master seed: " + masterSeed);
+            if(trace != null) {
+                trace.close();
+                System.out.println(trace.getNumRecords() + " games traced to " + traceFile);
+            }
+        }
+        report(results, sampling, control);
+
+        if(out != null) {
+            try(DataOutputStream stream = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(out)))) {
+                results.writeTo(stream);
+            }
+            System.out.println("Tally written to " + out);
+        }
+    }
+
+    /**
+     * Prints the win rate, round counts, end causes and per-role and per-seat results of a tally
+     *   of games with independent deals
+     *
+     * @param results the tally to report
+     */
+    public static void report(Results results) {
+        report(results, Sampling.PLAIN, false);
+    }
+
+    /**
+     * Prints the win rate, round counts, end causes and per-role and per-seat results of a tally,
+     *   with the estimate of the sampling scheme its deals were picked by
+     *
+     * @param results the tally to report
+     * @param sampling how the deals of the tally's games were picked
+     * @param control true if the estimate is corrected with the control variate
+     */
+    public static void report(Results results, Sampling sampling, boolean control) {
+        double[] interval = results.getLibWinInterval(Z_95);
+        System.out.printf("Liberals won %.2f%% of the time\n", results.getLibWinRate() * 100);
+        System.out.printf("95%% confidence interval: [%.2f%%, %.2f%%]\n", interval[0] * 100,
+                interval[1] * 100);
+        if(sampling != Sampling.PLAIN || control) {
+            Estimator estimator = results.getEstimator();
+            double estimate = estimator.getEstimate(sampling, control);
+            double halfWidth = Z_95 * Math.sqrt(estimator.getVariance(sampling, control));
+            double effective = estimator.getEffectiveSampleSize(sampling, control);
+            System.out.printf("%s%s estimate: %.2f%% +- %.2f%%, effective sample size %.0f " +
+                    "(%.2fx)\n", sampling.name().toLowerCase(), control ? " + control" : "",
+                    estimate * 100, halfWidth * 100, effective,
+                    effective / estimator.getNumGames());
+        }
+        System.out.printf("Average number of rounds: %.2f\n", results.getAverageRounds());
+        System.out.printf("Rounds quartiles: %d / %d / %d, 99th percentile: %d\n",
+                results.getRoundsQuantile(.25), results.getRoundsQuantile(.5),
+                results.getRoundsQuantile(.75), results.getRoundsQuantile(.99));
+
+        System.out.println("Games ended by:");
+        for(EndCause cause : EndCause.values()) {
+            System.out.printf("  %-17s %6.2f%%\n", cause, results.getEndCauseRate(cause) * 100);
+        }
+
+        System.out.println("Win rate by role:");
+        for(Role role : Role.values()) {
+            System.out.printf("  %-8s %6.2f%%\n", role, results.getRoleWinRate(role) * 100);
+        }
+
+        System.out.println("Win rate by seat (liberal / fascist / hitler):");
+        for(int seat = 0; seat < SeatTable.NUM_SEATS; seat++) {
+            System.out.printf("  seat %d   %6.2f%% %6.2f%% %6.2f%%\n", seat,
+                    results.getSeatWinRate(seat, Role.LIBERAL) * 100,
+                    results.getSeatWinRate(seat, Role.FASCIST) * 100,
+                    results.getSeatWinRate(seat, Role.HITLER) * 100);
+        }
+    }
+
+    /**
+     * Plays a number of games with the default settings, see RunConfig.DEFAULT
      *
-     * @param args integer argument which will result in 2^args[0] games run
+     * @param numGames number of games to play
+     * @param threads number of worker threads, 1 plays every game on the calling thread
+     * @param masterSeed seed from which every game's seed is derived
+     * @return the merged results of every game
      */
-    public static void main(String[] args) {
-        int numGames = (int)Math.pow(2, 16);
+    public static Results run(long numGames, int threads, long masterSeed) {
+        return run(numGames, threads, masterSeed, RunConfig.DEFAULT);
+    }
 
-        if(args.length > 0 && args[0].matches("\\d+")) {
-            numGames = (int)Math.pow(2, Integer.parseInt(args[0]));
+    /**
+     * Plays a number of games, splitting them across worker threads
+     * Game i is seeded from (masterSeed, i), so the results do not depend on the number of threads
+     *
+     * @param numGames number of games to play
+     * @param threads number of worker threads, 1 plays every game on the calling thread
+     * @param masterSeed seed from which every game's seed is derived
+     * @param config settings of the run: deals, tablebase, knowledge level and trace
+     * @return the merged results of every game
+     */
+    public static Results run(long numGames, int threads, long masterSeed, RunConfig config) {
+        if(threads <= 1) {
+            return play(config, masterSeed, 0, numGames, numGames);
         }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new GameTask(config, masterSeed, 0, numGames, numGames));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
 
-        Instant start = Instant.now();
+    /**
+     * Prints the win probability, expected rounds and end cause distribution of an enumeration
+     *
+     * @param exact the enumerated results to report
+     */
+    public static void report(ExactResults exact) {
+        System.out.printf("Probability covered: %.9f\n", exact.getProbability());
+        System.out.printf("Liberals win with probability %.4f%%\n",
+                exact.getLibWinProbability() * 100);
+        System.out.printf("Expected number of rounds: %.4f\n", exact.getExpectedRounds());
+        System.out.println("Games end by:");
+        for(EndCause cause : EndCause.values()) {
+            System.out.printf("  %-17s %8.4f%%\n", cause,
+                    exact.getEndCauseProbability(cause) * 100);
+        }
+    }
 
-        int numLibWins = 0;
-        int count = 0;
-        int numRounds = 0;
+    /**
+     * Plays games in batches until the liberal win rate is known precisely enough, the time
+     *   budget runs out or the game limit is reached, whichever comes first
+     * Workers claim batches of games from a shared counter and the stopping rule is checked each
+     *   time a batch is merged, so checking costs one interval computation per BATCH_SIZE games
+     * Batches are merged in order, see BatchedRun, so the tally always covers games 0 to n - 1
+     *   and a run without a time budget stops after the same games whatever the number of
+     *   threads
+     *
+     * @param halfWidth stop once the 95% interval is within +-halfWidth of the win rate, 0 for no
+     *                  precision target
+     * @param nanos stop once this many nanoseconds have passed, 0 for no time budget
+     * @param maxGames most games to play
+     * @param threads number of worker threads, 1 plays every game on the calling thread
+     * @param masterSeed seed from which every game's seed is derived
+     * @param config settings of the run, its sampling cannot be STRATIFIED
+     * @return the merged results of the games played
+     */
+    public static Results runUntil(double halfWidth, long nanos, long maxGames, int threads,
+                                   long masterSeed, RunConfig config) {
+        if(config.sampling == Sampling.STRATIFIED) {
+            throw new IllegalArgumentException("Stratified runs need a fixed number of games");
+        }
+        BudgetedRun budgeted = new BudgetedRun(config, halfWidth, nanos, maxGames, masterSeed);
+        budgeted.run(threads);
+        return budgeted.results;
+    }
 
-        for(int i = 0; i < numGames; i++) {
-            Game game = new Game();
+    /**
+     * Plays a contiguous range of games on the calling thread and writes the records of its
+     *   sampled games to the run's trace
+     *
+     * @precondition from is even, so that pairs of games are never split between ranges
+     * @param config settings of the run
+     * @param masterSeed seed from which every game's seed is derived
+     * @param from index of the first game
+     * @param to index after the last game
+     * @param numGames number of games in the whole run, which sets the strata of STRATIFIED runs
+     * @return the results of the games in the range
+     */
+    private static Results play(RunConfig config, long masterSeed, long from, long to,
+                                long numGames) {
+        TraceWriter.Batch records = config.trace == null ? null : config.trace.batch();
+        Results results = play(config, masterSeed, from, to, numGames, records);
+        if(records != null) {
+            config.trace.write(records);
+        }
+        return results;
+    }
+
+    /**
+     * Plays a contiguous range of games on the calling thread
+     *
+     * @precondition from is even, so that pairs of games are never split between ranges
+     * @param config settings of the run
+     * @param masterSeed seed from which every game's seed is derived
+     * @param from index of the first game
+     * @param to index after the last game
+     * @param numGames number of games in the whole run, which sets the strata of STRATIFIED runs
+     * @param records receives the records of the sampled games, null if the run is not traced
+     * @return the results of the games in the range
+     */
+    private static Results play(RunConfig config, long masterSeed, long from, long to,
+                                long numGames, TraceWriter.Batch records) {
+        assert(from % 2 == 0);
+        TraceWriter trace = config.trace;
+        Results results = new Results();
+        //Reuse one game per range rather than building a new one for every game
+        Game game = new Game(0);
+        game.setTablebase(config.tablebase);
+        game.setKnowledge(trace != null && trace.samplesAll() ? KnowledgeLevel.FULL :
+                config.knowledge);
+        //Sampled games played without their log are replayed on a game of their own
+        Game replay = trace == null ? null : new Game(0);
+        ScriptedRandom script = new ScriptedRandom(0, 2);
+        for(long i = from; i < to; i++) {
+            deal(config.sampling, game, script, masterSeed, i, numGames);
+            int top = game.deck.numLiberalOnTop(Estimator.CONTROL_DEPTH);
             boolean libsWon = game.round();
+            results.add(game);
+            results.getEstimator().add(libsWon, top);
+            if(records != null) {
+                records.record(i, Game.seed(masterSeed, i), game, replay);
+            }
+        }
+        return results;
+    }
 
-            if(libsWon) {
-                numLibWins++;
+    /**
+     * Resets a game with the deal the sampling scheme picks for it
+     * STRATIFIED game i draws its deal from the i-th of numGames equal slices of the deals, ordered
+     *   by layout and then deck order; ANTITHETIC games 2k and 2k + 1 play a random deck order and
+     *   its reverse, each with a layout of its own
+     * The deal is imposed through the first two calls of a script, the strategies' decisions and
+     *   any reshuffles draw from a stream of their own
+     *
+     * @param sampling how the deal is picked
+     * @param game the game to reset
+     * @param script scripted source of randomness reused by the range
+     * @param masterSeed seed from which every game's seed is derived
+     * @param i index of the game
+     * @param numGames number of games in the whole run
+     */
+    private static void deal(Sampling sampling, Game game, ScriptedRandom script,
+                             long masterSeed, long i, long numGames) {
+        long seed = Game.seed(masterSeed, i);
+        long deal;
+        long stream;
+        switch(sampling) {
+            case STRATIFIED: {
+                SplittableRandom pick = new SplittableRandom(seed);
+                long low = i * Enumerator.NUM_DEALS / numGames;
+                long high = Math.max(low + 1, (i + 1) * Enumerator.NUM_DEALS / numGames);
+                deal = low + pick.nextLong(high - low);
+                stream = pick.nextLong();
+                break;
+            }
+            case ANTITHETIC: {
+                SplittableRandom pick = new SplittableRandom(Game.seed(masterSeed, i / 2));
+                int order = pick.nextInt(PolicyDeck.NUM_ORDERS);
+                if(i % 2 == 1) {
+                    order = PolicyDeck.reversed(order);
+                    pick = new SplittableRandom(seed);
+                }
+                deal = (long) pick.nextInt(Game.NUM_LAYOUTS) * PolicyDeck.NUM_ORDERS + order;
+                stream = pick.nextLong();
+                break;
+            }
+            default:
+                game.reset(seed);
+                return;
+        }
+        script.start(new int[] {(int) (deal / PolicyDeck.NUM_ORDERS),
+                (int) (deal % PolicyDeck.NUM_ORDERS)}, DEAL_BOUNDS);
+        script.replay(stream);
+        game.reset(script);
+    }
+
+    /**
+     * Fork-join task which halves its range of games until it is small enough to play directly
+     */
+    private static class GameTask extends RecursiveTask<Results> {
+
+        private static final long serialVersionUID = 1L;  //Tasks are never serialized
+        private final RunConfig config; //Settings of the run
+        private final long masterSeed;  //Seed from which every game's seed is derived
+        private final long from;        //Index of the first game
+        private final long to;          //Index after the last game
+        private final long numGames;    //Number of games in the whole run
+
+        /**
+         * Constructor
+         *
+         * @param config settings of the run
+         * @param masterSeed seed from which every game's seed is derived
+         * @param from index of the first game
+         * @param to index after the last game
+         * @param numGames number of games in the whole run
+         */
+        GameTask(RunConfig config, long masterSeed, long from, long to, long numGames) {
+            this.config = config;
+            this.masterSeed = masterSeed;
+            this.from = from;
+            this.to = to;
+            this.numGames = numGames;
+        }
+
+        /**
+         * Plays the range of games, forking off half of it if it is too large
+         *
+         * @return the merged results of the range
+         */
+        @Override
+        protected Results compute() {
+            if(to - from <= BATCH_SIZE) {
+                return play(config, masterSeed, from, to, numGames);
+            }
+            //Splits on an even index so that pairs of games stay together
+            long mid = from + (to - from) / 4 * 2;
+            GameTask left = new GameTask(config, masterSeed, from, mid, numGames);
+            left.fork();
+            Results right = new GameTask(config, masterSeed, mid, to, numGames).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Results of a batch of games with the trace records of its sampled games
+     */
+    private static class PlayedBatch {
+
+        private final Results results;              //Results of the batch's games
+        private final TraceWriter.Batch records;    //Records of its sampled games, null if none
+
+        /**
+         * Constructor
+         *
+         * @param results results of the batch's games
+         * @param records records of its sampled games, null if the run is not traced
+         */
+        PlayedBatch(Results results, TraceWriter.Batch records) {
+            this.results = results;
+            this.records = records;
+        }
+    }
+
+    /**
+     * Run that stops on a precision target, time budget or game limit
+     * The trace records of a batch are written when it is merged, so a dropped batch leaves no
+     *   games in the trace
+     */
+    private static class BudgetedRun extends BatchedRun<PlayedBatch> {
+
+        private final RunConfig config;             //Settings of the run
+        private final double halfWidth;             //Target half-width of the 95% interval
+        private final long deadline;                //System.nanoTime() at which to stop
+        private final boolean timed;                //If the run has a time budget
+        private final long maxGames;                //Most games to play
+        private final long masterSeed;              //Seed from which every game's seed is derived
+        private final Results results;              //Merged results of the batches in order
+
+        /**
+         * Constructor
+         *
+         * @param config settings of the run
+         * @param halfWidth target half-width of the 95% interval, 0 for none
+         * @param nanos time budget in nanoseconds, 0 for none
+         * @param maxGames most games to play
+         * @param masterSeed seed from which every game's seed is derived
+         */
+        BudgetedRun(RunConfig config, double halfWidth, long nanos, long maxGames,
+                    long masterSeed) {
+            super(0, maxGames, BATCH_SIZE);
+            this.config = config;
+            this.halfWidth = halfWidth;
+            this.timed = nanos > 0;
+            this.deadline = System.nanoTime() + nanos;
+            this.maxGames = maxGames;
+            this.masterSeed = masterSeed;
+            results = new Results();
+        }
+
+        /**
+         * Plays a batch of games
+         *
+         * @param from index of the first game of the batch
+         * @param to index after the last game of the batch
+         * @return the results and trace records of the batch
+         */
+        @Override
+        PlayedBatch play(long from, long to) {
+            TraceWriter.Batch records = config.trace == null ? null : config.trace.batch();
+            return new PlayedBatch(GameRunner.play(config, masterSeed, from, to, maxGames, records),
+                    records);
+        }
+
+        /**
+         * Merges the next batch, writes its trace records and checks the precision target and
+         *   the time budget
+         *
+         * @param batch results and trace records of the batch
+         * @return true if the interval is narrow enough or the time is up
+         */
+        @Override
+        boolean merge(PlayedBatch batch) {
+            results.merge(batch.results);
+            if(batch.records != null) {
+                config.trace.write(batch.records);
             }
-            numRounds+= game.numRounds;
-            count++;
+            if(halfWidth > 0) {
+                double[] interval = results.getLibWinInterval(Z_95);
+                if((interval[1] - interval[0]) / 2 <= halfWidth) {
+                    return true;
+                }
+            }
+            return expired();
         }
 
-        Instant end = Instant.now();
-        System.out.println("This version produced the following results:");
-        System.out.println(numGames + " games executed in " +
-                (end.getEpochSecond() - start.getEpochSecond()) + " seconds");
-        System.out.printf("Liberals won %.2f%% of the time\n",
-                ((double)numLibWins / (double)count) * 100);
-        System.out.printf("Average number of rounds: %.2f\n", (double)numRounds / (double)count);
+        /**
+         * Determines if the time budget has run out
+         *
+         * @return true if the run is timed and its deadline has passed
+         */
+        @Override
+        boolean expired() {
+            return timed && System.nanoTime() - deadline >= 0;
+        }
     }
 }
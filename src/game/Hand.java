@@ -0,0 +1,119 @@
+package game;
+
+import enums.Policy;
+
+/**
+ * Packs a hand of up to three policies into an int so that hands can be passed around without
+ *   allocating
+ * Bit i holds policy i (1 if LIBERAL, 0 if FASCIST) in the order the policies were drawn, bits 3
+ *   and 4 hold the number of policies
+ */
+public final class Hand {
+
+    private static final int SIZE_SHIFT = 3;    //Position of the size bits
+    private static final int POLICY_MASK = 0x7; //Mask covering the policy bits
+
+    /**
+     * Hands are only handled through static methods
+     */
+    private Hand() {
+    }
+
+    /**
+     * Packs two policies into a hand
+     *
+     * @param first the first policy
+     * @param second the second policy
+     * @return a hand holding first and second
+     */
+    public static int of(Policy first, Policy second) {
+        return (2 << SIZE_SHIFT) | (first.isLiberal ? 1 : 0) | (second.isLiberal ? 2 : 0);
+    }
+
+    /**
+     * Packs three policies into a hand
+     *
+     * @param first the first policy
+     * @param second the second policy
+     * @param third the third policy
+     * @return a hand holding first, second and third
+     */
+    public static int of(Policy first, Policy second, Policy third) {
+        return (3 << SIZE_SHIFT) | (first.isLiberal ? 1 : 0) | (second.isLiberal ? 2 : 0) |
+                (third.isLiberal ? 4 : 0);
+    }
+
+    /**
+     * Gets the number of policies in a hand
+     *
+     * @param hand a hand
+     * @return the number of policies in the hand
+     */
+    public static int size(int hand) {
+        return hand >>> SIZE_SHIFT;
+    }
+
+    /**
+     * Determines if a policy in a hand is liberal
+     *
+     * @precondition 0 <= index < size(hand)
+     * @param hand a hand
+     * @param index index of the policy
+     * @return true if the policy is LIBERAL, false if it is FASCIST
+     */
+    public static boolean isLiberal(int hand, int index) {
+        assert(index >= 0 && index < size(hand));
+        return (hand & (1 << index)) != 0;
+    }
+
+    /**
+     * Gets a policy from a hand
+     *
+     * @precondition 0 <= index < size(hand)
+     * @param hand a hand
+     * @param index index of the policy
+     * @return the policy
+     */
+    public static Policy get(int hand, int index) {
+        return isLiberal(hand, index) ? Policy.LIBERAL : Policy.FASCIST;
+    }
+
+    /**
+     * Removes a policy from a hand, keeping the remaining policies in order
+     *
+     * @precondition 0 <= index < size(hand)
+     * @param hand a hand
+     * @param index index of the policy to be removed
+     * @return the hand without the policy
+     */
+    public static int remove(int hand, int index) {
+        assert(index >= 0 && index < size(hand));
+        int below = hand & ((1 << index) - 1);
+        int above = (hand & POLICY_MASK) >>> (index + 1) << index;
+        return ((size(hand) - 1) << SIZE_SHIFT) | above | below;
+    }
+
+    /**
+     * Counts the liberal policies in a hand
+     *
+     * @param hand a hand
+     * @return the number of LIBERAL policies in the hand
+     */
+    public static int numLiberal(int hand) {
+        return Integer.bitCount(hand & POLICY_MASK);
+    }
+
+    /**
+     * Produces a String representation of a hand
+     *
+     * @param hand a hand
+     * @return a String representation of the hand
+     */
+    public static String toString(int hand) {
+        StringBuilder out = new StringBuilder("[");
+        for(int i = 0; i < size(hand); i++) {
+            out.append(i == 0 ? "" : ", ").append(get(hand, i));
+        }
+        return out.append("]").toString();
+    }
+}
@@ -0,0 +1,362 @@
+package game;
+
+import enums.ActionType;
+import enums.KnowledgeLevel;
+import enums.RareEvent;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Estimates the probability of a rare outcome by drawing deals from a proposal tilted towards it
+ *   and weighting each game by the likelihood ratio of its deal
+ * The proposal picks the role layout from its own distribution over the NUM_LAYOUTS layouts and
+ *   the deck from its own distribution over the number of liberal policies in the top
+ *   CLASS_DEPTH cards, then an order uniformly among the orders with that number, so the
+ *   likelihood ratio of a deal only depends on its layout and class
+ * The proposal is fitted by the cross-entropy method: pilot runs move each distribution towards
+ *   the weighted frequencies of the deals on which the event happened, mixed with the uniform
+ *   deal distribution so that no deal becomes impossible and the weights stay bounded
+ * The strategies' decisions and reshuffles are left untilted, so the estimate is unbiased
+ *   whatever the proposal, which only decides the variance
+ */
+public class ImportanceSampler {
+
+    public static final int CLASS_DEPTH = 9;    //Cards on top of the deck that set its class
+    private static final int NUM_CLASSES = PolicyDeck.NUM_LIBERAL + 1;
+    private static final double MIX = .5;       //Share of the uniform deal distribution kept
+    private static final long BATCH_SIZE = 4096;    //Most games a single fork-join task plays
+    private static final int[][] ORDERS;        //Deck order ranks by class
+    private static final double[] CLASS_PROB;   //Probability of each class under a fair shuffle
+    static {
+        int[] counts = new int[NUM_CLASSES];
+        for(int rank = 0; rank < PolicyDeck.NUM_ORDERS; rank++) {
+            counts[classOf(rank)]++;
+        }
+        ORDERS = new int[NUM_CLASSES][];
+        CLASS_PROB = new double[NUM_CLASSES];
+        for(int c = 0; c < NUM_CLASSES; c++) {
+            ORDERS[c] = new int[counts[c]];
+            CLASS_PROB[c] = (double) counts[c] / PolicyDeck.NUM_ORDERS;
+            counts[c] = 0;
+        }
+        for(int rank = 0; rank < PolicyDeck.NUM_ORDERS; rank++) {
+            int c = classOf(rank);
+            ORDERS[c][counts[c]++] = rank;
+        }
+    }
+
+    private final RareEvent event;      //The outcome whose probability is estimated
+    private final double[] layoutProb;  //Proposal probability of each layout
+    private final double[] classProb;   //Proposal probability of each deck class
+
+    /**
+     * Constructor, the proposal starts as the fair deal distribution
+     *
+     * @param event the outcome whose probability is estimated
+     */
+    public ImportanceSampler(RareEvent event) {
+        this.event = event;
+        layoutProb = new double[Game.NUM_LAYOUTS];
+        classProb = CLASS_PROB.clone();
+        for(int i = 0; i < Game.NUM_LAYOUTS; i++) {
+            layoutProb[i] = 1.0 / Game.NUM_LAYOUTS;
+        }
+    }
+
+    /**
+     * Fits the proposal with rounds of the cross-entropy method
+     *
+     * @param rounds number of pilot runs
+     * @param pilotGames number of games per pilot run
+     * @param threads number of worker threads
+     * @param masterSeed seed of the pilot runs, which are seeded apart from the main run
+     */
+    public void fit(int rounds, long pilotGames, int threads, long masterSeed) {
+        for(int round = 0; round < rounds; round++) {
+            Tally pilot = run(pilotGames, threads, Game.seed(~masterSeed, round));
+            if(pilot.hits == 0) {
+                continue;
+            }
+            for(int i = 0; i < Game.NUM_LAYOUTS; i++) {
+                layoutProb[i] = (1 - MIX) * pilot.layoutMass[i] / pilot.sum +
+                        MIX / Game.NUM_LAYOUTS;
+            }
+            for(int c = 0; c < NUM_CLASSES; c++) {
+                classProb[c] = (1 - MIX) * pilot.classMass[c] / pilot.sum + MIX * CLASS_PROB[c];
+            }
+        }
+    }
+
+    /**
+     * Plays games with deals drawn from the proposal, splitting them across worker threads
+     *
+     * @param numGames number of games to play
+     * @param threads number of worker threads, 1 plays every game on the calling thread
+     * @param masterSeed seed from which every game's seed is derived
+     * @return the weighted tally of the event
+     */
+    public Tally run(long numGames, int threads, long masterSeed) {
+        if(threads <= 1) {
+            return play(masterSeed, 0, numGames);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new SampleTask(masterSeed, 0, numGames));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays a contiguous range of games on the calling thread
+     *
+     * @param masterSeed seed from which every game's seed is derived
+     * @param from index of the first game
+     * @param to index after the last game
+     * @return the weighted tally of the event over the range
+     */
+    private Tally play(long masterSeed, long from, long to) {
+        Tally tally = new Tally();
+        Game game = new Game(0);
+        //Only the veto event is read from the log
+        game.setKnowledge(event == RareEvent.VETO ? KnowledgeLevel.FULL : KnowledgeLevel.NONE);
+        ScriptedRandom script = new ScriptedRandom(0, 2);
+        int[] deal = new int[2];
+        int[] bounds = {Game.NUM_LAYOUTS, PolicyDeck.NUM_ORDERS};
+        for(long i = from; i < to; i++) {
+            SplittableRandom pick = new SplittableRandom(Game.seed(masterSeed, i));
+            int layout = draw(layoutProb, pick.nextDouble());
+            int c = draw(classProb, pick.nextDouble());
+            deal[0] = layout;
+            deal[1] = ORDERS[c][pick.nextInt(ORDERS[c].length)];
+            double weight = (1.0 / Game.NUM_LAYOUTS) / layoutProb[layout] *
+                    CLASS_PROB[c] / classProb[c];
+
+            script.start(deal, bounds);
+            script.replay(pick.nextLong());
+            game.reset(script);
+            game.round();
+            tally.add(layout, c, weight, occurred(game));
+        }
+        return tally;
+    }
+
+    /**
+     * Determines if the event happened in a finished game
+     *
+     * @param game the finished game
+     * @return true if the event happened
+     */
+    private boolean occurred(Game game) {
+        if(event.cause != null) {
+            return game.getEndCause() == event.cause;
+        }
+        //Veto power is set by the second shooting, so a veto after it was made with veto power
+        int shots = 0;
+        for(int i = 0; i < game.actions.size(); i++) {
+            ActionType type = game.actions.getType(i);
+            if(type == ActionType.SHOOT) {
+                shots++;
+            }
+            else if(type == ActionType.VETO && shots >= 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Draws an index from a discrete distribution
+     *
+     * @param probabilities probability of each index
+     * @param unit uniform value between 0 and 1
+     * @return the drawn index
+     */
+    private static int draw(double[] probabilities, double unit) {
+        for(int i = 0; i < probabilities.length - 1; i++) {
+            unit -= probabilities[i];
+            if(unit < 0) {
+                return i;
+            }
+        }
+        return probabilities.length - 1;
+    }
+
+    /**
+     * Gets the class of a full deck's order
+     *
+     * @param rank rank of the order
+     * @return the number of liberal policies in its top CLASS_DEPTH cards
+     */
+    private static int classOf(int rank) {
+        int size = PolicyDeck.NUM_LIBERAL + PolicyDeck.NUM_FASCIST;
+        return Integer.bitCount(PolicyDeck.mask(rank) >>> (size - CLASS_DEPTH));
+    }
+
+    /**
+     * Weighted tally of an event over importance-sampled games
+     */
+    public static class Tally {
+
+        private long n;                     //Number of games
+        private long hits;                  //Number of games in which the event happened
+        private double sum;                 //Sum of the weights of the hits
+        private double sumSquares;          //Sum of the squared weights of the hits
+        private double weights;             //Sum of every game's weight, n in expectation
+        private final double[] layoutMass;  //Sum of the weights of the hits by layout
+        private final double[] classMass;   //Sum of the weights of the hits by deck class
+
+        /**
+         * Constructor
+         */
+        Tally() {
+            layoutMass = new double[Game.NUM_LAYOUTS];
+            classMass = new double[NUM_CLASSES];
+        }
+
+        /**
+         * Adds a game
+         *
+         * @param layout rank of the game's layout
+         * @param c class of the game's deck
+         * @param weight likelihood ratio of the game's deal
+         * @param hit true if the event happened
+         */
+        void add(int layout, int c, double weight, boolean hit) {
+            n++;
+            weights += weight;
+            if(hit) {
+                hits++;
+                sum += weight;
+                sumSquares += weight * weight;
+                layoutMass[layout] += weight;
+                classMass[c] += weight;
+            }
+        }
+
+        /**
+         * Adds another tally to this one
+         *
+         * @param other the tally to be merged into this one
+         * @return this tally
+         */
+        Tally merge(Tally other) {
+            n += other.n;
+            hits += other.hits;
+            sum += other.sum;
+            sumSquares += other.sumSquares;
+            weights += other.weights;
+            for(int i = 0; i < layoutMass.length; i++) {
+                layoutMass[i] += other.layoutMass[i];
+            }
+            for(int c = 0; c < classMass.length; c++) {
+                classMass[c] += other.classMass[c];
+            }
+            return this;
+        }
+
+        /**
+         * Gets the number of games
+         *
+         * @return the number of games
+         */
+        public long getNumGames() {
+            return n;
+        }
+
+        /**
+         * Gets the number of games in which the event happened
+         *
+         * @return the number of hits
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Estimates the probability of the event
+         *
+         * @return the mean weighted indicator of the event
+         */
+        public double getEstimate() {
+            return n == 0 ? 0 : sum / n;
+        }
+
+        /**
+         * Estimates the variance of the estimate
+         *
+         * @return the sample variance of the weighted indicator over n
+         */
+        public double getVariance() {
+            if(n < 2) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double mean = sum / n;
+            return (sumSquares / n - mean * mean) / (n - 1);
+        }
+
+        /**
+         * Gets the number of plain games that would estimate the probability as precisely
+         *
+         * @return p(1 - p) over the variance of the estimate
+         */
+        public double getEffectiveSampleSize() {
+            double p = getEstimate();
+            double variance = getVariance();
+            return variance <= 0 ? Double.POSITIVE_INFINITY : p * (1 - p) / variance;
+        }
+
+        /**
+         * Gets the mean likelihood ratio, which should be close to 1 for a sound proposal
+         *
+         * @return the mean weight over every game
+         */
+        public double getMeanWeight() {
+            return n == 0 ? 0 : weights / n;
+        }
+    }
+
+    /**
+     * Fork-join task which halves its range of games until it is small enough to play directly
+     */
+    private class SampleTask extends RecursiveTask<Tally> {
+
+        private static final long serialVersionUID = 1L;  //Tasks are never serialized
+        private final long masterSeed;  //Seed from which every game's seed is derived
+        private final long from;        //Index of the first game
+        private final long to;          //Index after the last game
+
+        /**
+         * Constructor
+         *
+         * @param masterSeed seed from which every game's seed is derived
+         * @param from index of the first game
+         * @param to index after the last game
+         */
+        SampleTask(long masterSeed, long from, long to) {
+            this.masterSeed = masterSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Plays the range of games, forking off half of it if it is too large
+         *
+         * @return the merged tally of the range
+         */
+        @Override
+        protected Tally compute() {
+            if(to - from <= BATCH_SIZE) {
+                return play(masterSeed, from, to);
+            }
+            long mid = from + (to - from) / 2;
+            SampleTask left = new SampleTask(masterSeed, from, mid);
+            left.fork();
+            Tally right = new SampleTask(masterSeed, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
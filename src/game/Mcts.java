@@ -0,0 +1,725 @@
+package game;
+
+import enums.Decision;
+import enums.KnowledgeLevel;
+import enums.Party;
+import enums.Policy;
+import enums.Role;
+import players.Fascist;
+import players.Hitler;
+import players.Liberal;
+import players.MctsPlayer;
+import players.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks a player's moves by information-set Monte Carlo tree search
+ * Every rollout determinizes what the player cannot see: it samples a role layout the player
+ *   holds possible, weighted by the player's beliefs if the game tracks them, copies the game
+ *   onto a rollout game with those roles and a deck redealt from the policies the player has
+ *   not seen, see Game.determinize, and plays it to the end from the searched move
+ * The tree is open loop: a node stands for the player's next decision after a sequence of its
+ *   own moves, whatever the others did in between; the other players follow their strategies
+ *   and, past the tree, so does the player
+ * Rollouts run on several threads sharing the tree without locks: counters are atomic, children
+ *   are added by compare-and-set and a move's visit is counted as soon as it is selected, so a
+ *   rollout still in flight weighs as a loss (virtual loss) and steers the other threads away
+ * Each decision gets a budget of rollouts, of time, or whichever runs out first
+ * An instance serves one decision at a time and owns the thread pool its rollouts run on, so it
+ *   should be closed once its games are over rather than built anew for each game
+ */
+public class Mcts implements AutoCloseable {
+
+    public static final double EXPLORATION = .7;    //Default weight of the exploration term
+    private static final int[] SLOTS = {0, 4, 6};   //Roster slot of each role, by Role ordinal
+    private static final int NUM_WORLDS = Game.NUM_LAYOUTS;
+
+    private final int rollouts;         //Rollouts per decision, 0 for no limit
+    private final long nanos;           //Time per decision in nanoseconds, 0 for no limit
+    private final double exploration;   //Weight of the exploration term of UCB1
+    private final Worker[] workers;     //One rollout game per thread
+    private final ForkJoinPool pool;    //Runs the workers, null if there is a single one
+    private final double[] worlds;      //Cumulative weight of the layouts held possible
+    private final int[] moves;          //Player index of each move of the searched decision
+    private final int[] ids;            //Scratch space for layouts
+    private final AtomicInteger remaining;  //Rollouts left in the current search
+
+    private Role role;                  //Role the rollout games were built for, null before any
+    private Game source;                //Game being searched
+    private int searcherId;             //ID of the searching player
+    private boolean liberal;            //If the searching player is in the liberal party
+    private Node root;                  //Root of the current search
+    private int hand;                   //Policies of the searched decision, 0 if it has none
+    private long deadline;              //System.nanoTime() at which the current search stops
+
+    /**
+     * Constructor
+     *
+     * @precondition rollouts > 0 || micros > 0
+     * @param rollouts rollouts per decision, 0 for no limit
+     * @param micros time per decision in microseconds, 0 for no limit
+     * @param threads number of threads running rollouts, 1 runs them on the deciding thread
+     * @param exploration weight of the exploration term of UCB1, EXPLORATION by default
+     */
+    public Mcts(int rollouts, long micros, int threads, double exploration) {
+        assert(rollouts > 0 || micros > 0);
+        this.rollouts = rollouts;
+        this.nanos = micros * 1000;
+        this.exploration = exploration;
+        workers = new Worker[Math.max(1, threads)];
+        pool = workers.length > 1 ? new ForkJoinPool(workers.length) : null;
+        worlds = new double[NUM_WORLDS];
+        moves = new int[SeatTable.NUM_SEATS];
+        ids = new int[SeatTable.NUM_SEATS];
+        remaining = new AtomicInteger();
+        role = null;
+    }
+
+    /**
+     * Searches a decision of a player
+     *
+     * @precondition the game is stopped at the decision and runs on a single thread
+     * @param game the game the player takes part in
+     * @param player the deciding player
+     * @param known the parties the player knows by ID, null where unknown
+     * @param decision the decision to take
+     * @param hand the three policies drawn for DISCARD, the two passed for PLAY and VETO, 0
+     *             otherwise
+     * @return the index of the chosen player for CHANCELLOR and SHOOT, the index of the discarded
+     *         policy for DISCARD, of the played policy for PLAY, 1 for yes or 0 for no otherwise
+     * @throws RuntimeException the exception a rollout threw, rather than a move picked from the
+     *                          rollouts that finished
+     */
+    public int search(Game game, Player player, Party[] known, Decision decision, int hand) {
+        int numMoves = moves(game, player.getId(), decision, moves);
+        if(numMoves == 1) {
+            return decision.picksPlayer ? moves[0] : 0;
+        }
+        weighWorlds(game, player, known);
+        if(player.getRole() != role) {
+            role = player.getRole();
+            for(int i = 0; i < workers.length; i++) {
+                workers[i] = new Worker(role);
+            }
+        }
+        source = game;
+        searcherId = player.getId();
+        liberal = player.getParty().isLiberal;
+        root = new Node(decision, numMoves);
+        this.hand = hand;
+        remaining.set(rollouts > 0 ? rollouts : Integer.MAX_VALUE);
+        deadline = nanos > 0 ? System.nanoTime() + nanos : Long.MAX_VALUE;
+
+        long seed = game.random.nextLong();
+        for(int i = 0; i < workers.length; i++) {
+            workers[i].random = new SplittableRandom(Game.seed(seed, i));
+        }
+        if(pool == null) {
+            workers[0].call();
+        }
+        else {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(Arrays.asList(workers));
+            for(Future<Void> result : pool.invokeAll(tasks)) {
+                try {
+                    result.get();
+                }
+                catch(ExecutionException e) {
+                    //Workers only throw unchecked exceptions, a failed rollout fails the search
+                    source = null;
+                    if(e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw (RuntimeException) e.getCause();
+                }
+                catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while searching", e);
+                }
+            }
+        }
+        source = null;
+
+        int best = root.best();
+        return decision.picksPlayer ? moves[best] : best;
+    }
+
+    /**
+     * Compares a searching player with the strategy of its role
+     * Plays args[0] games with an MctsPlayer in a roster slot of the role given by args[1],
+     *   liberal, fascist or hitler, then the same deals with the usual strategy in that slot, and
+     *   reports how often the player's party won each time
+     * Accepts --rollouts N and --micros T to set the budget per decision, 100 rollouts if neither
+     *   is provided, --threads N to run the rollouts on N threads, --seed S to fix the master seed
+     *   and --beliefs to track beliefs, which then weigh the sampled layouts
+     *
+     * @param args the number of games and the role, optionally followed by --rollouts N,
+     *             --micros T, --threads N, --seed S or --beliefs
+     */
+    public static void main(String[] args) {
+        if(args.length < 2) {
+            System.out.println("Usage: Mcts GAMES liberal|fascist|hitler [--rollouts N] " +
+                    "[--micros T] [--threads N] [--seed S] [--beliefs]");
+            return;
+        }
+        int numGames = Integer.parseInt(args[0]);
+        Role role = Role.valueOf(args[1].toUpperCase());
+        int rollouts = 0;
+        long micros = 0;
+        int threads = 1;
+        long masterSeed = new SplittableRandom().nextLong();
+        boolean beliefs = false;
+        for(int i = 2; i < args.length; i++) {
+            if(args[i].equals("--rollouts") && i + 1 < args.length) {
+                rollouts = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equals("--micros") && i + 1 < args.length) {
+                micros = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equals("--seed") && i + 1 < args.length) {
+                masterSeed = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--beliefs")) {
+                beliefs = true;
+            }
+        }
+        if(rollouts <= 0 && micros <= 0) {
+            rollouts = 100;
+        }
+
+        Game searched = new Game(0);
+        searched.setKnowledge(KnowledgeLevel.NONE);
+        searched.beliefs.setEnabled(beliefs);
+        Game baseline = new Game(0);
+        baseline.setKnowledge(KnowledgeLevel.NONE);
+        boolean liberal = role == Role.LIBERAL;
+
+        long start = System.nanoTime();
+        int searchedWins = 0;
+        try(Mcts search = new Mcts(rollouts, micros, threads, EXPLORATION)) {
+            searched.setRosterPlayer(SLOTS[role.ordinal()], new MctsPlayer(0, searched, role,
+                    search));
+            for(int i = 0; i < numGames; i++) {
+                searched.reset(Game.seed(masterSeed, i));
+                searchedWins += searched.round() == liberal ? 1 : 0;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int baselineWins = 0;
+        for(int i = 0; i < numGames; i++) {
+            baseline.reset(Game.seed(masterSeed, i));
+            baselineWins += baseline.round() == liberal ? 1 : 0;
+        }
+
+        System.out.printf("%d games in %.3f seconds, master seed %d\n", numGames, seconds,
+                masterSeed);
+        System.out.printf("Searching %s won %.2f%% of the time, the %s strategy %.2f%%\n",
+                args[1].toLowerCase(), 100.0 * searchedWins / numGames, args[1].toLowerCase(),
+                100.0 * baselineWins / numGames);
+    }
+
+    /**
+     * Shuts down the thread pool the rollouts run on, the instance cannot search after this
+     */
+    @Override
+    public void close() {
+        if(pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Lists the moves of a decision
+     *
+     * @param game the game stopped at the decision
+     * @param selfId ID of the deciding player
+     * @param decision the decision
+     * @param out receives the player index of each move of CHANCELLOR and SHOOT
+     * @return the number of moves
+     */
+    static int moves(Game game, int selfId, Decision decision, int[] out) {
+        if(decision == Decision.DISCARD) {
+            return 3;
+        }
+        if(!decision.picksPlayer) {
+            return 2;
+        }
+        int self = game.players.indexOf(selfId);
+        int lastChancellor = decision == Decision.CHANCELLOR ? game.getChancellorIndex() : -1;
+        int numMoves = 0;
+        for(int i = 0; i < game.players.size(); i++) {
+            if(i != self && i != lastChancellor) {
+                out[numMoves++] = i;
+            }
+        }
+        return numMoves;
+    }
+
+    /**
+     * Weighs the layouts by how likely the searching player holds them: a fascist knows the
+     *   layout, the beliefs give the weights if the game tracks them, otherwise every layout that
+     *   agrees with the player's role, the parties it knows and the dead not being Hitler counts
+     *   the same
+     *
+     * @param game the game being searched
+     * @param player the searching player
+     * @param known the parties the player knows by ID, null where unknown
+     */
+    private void weighWorlds(Game game, Player player, Party[] known) {
+        double total = 0;
+        for(int w = 0; w < NUM_WORLDS; w++) {
+            if(player.getRole() == Role.FASCIST) {
+                total += w == game.getLayoutRank() ? 1 : 0;
+            }
+            else if(game.beliefs.isEnabled()) {
+                total += game.beliefs.getWorldProbability(player.getId(), w);
+            }
+            else if(agrees(w, game, player, known)) {
+                total++;
+            }
+            worlds[w] = total;
+        }
+    }
+
+    /**
+     * Determines if a layout agrees with what a player knows
+     *
+     * @param world rank of the layout
+     * @param game the game being searched
+     * @param player the searching player
+     * @param known the parties the player knows by ID, null where unknown
+     * @return true if the player cannot rule the layout out
+     */
+    private boolean agrees(int world, Game game, Player player, Party[] known) {
+        Game.layout(world, ids);
+        for(int slot = 0; slot < ids.length; slot++) {
+            Role slotRole = slot < 4 ? Role.LIBERAL : slot < 6 ? Role.FASCIST : Role.HITLER;
+            int id = ids[slot];
+            if(id == player.getId() && slotRole != player.getRole()) {
+                return false;
+            }
+            if(known[id] != null && known[id].isLiberal != (slotRole == Role.LIBERAL)) {
+                return false;
+            }
+            if(slotRole.isHitler && !game.isAlive(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Node of the search tree, the counters of each of its moves are updated without locks
+     */
+    private static final class Node {
+        final Decision decision;                //Decision taken at the node
+        final AtomicIntegerArray visits;        //Rollouts through each move, in flight included
+        final AtomicIntegerArray wins;          //Finished rollouts through each move won
+        final AtomicReferenceArray<Node> children;  //Next decision after each move, null if none
+
+        /**
+         * Constructor
+         *
+         * @param decision decision taken at the node
+         * @param numMoves number of moves of the decision
+         */
+        Node(Decision decision, int numMoves) {
+            this.decision = decision;
+            visits = new AtomicIntegerArray(numMoves);
+            wins = new AtomicIntegerArray(numMoves);
+            children = new AtomicReferenceArray<>(numMoves);
+        }
+
+        /**
+         * Gets the number of moves of the node's decision
+         *
+         * @return the number of moves
+         */
+        int numMoves() {
+            return visits.length();
+        }
+
+        /**
+         * Selects a move by UCB1, an unvisited move first, and counts the visit right away
+         *
+         * @param exploration weight of the exploration term
+         * @param random breaks ties among unvisited moves
+         * @return the selected move
+         */
+        int select(double exploration, RandomGenerator random) {
+            int numMoves = numMoves();
+            int offset = random.nextInt(numMoves);
+            int total = 0;
+            for(int i = 0; i < numMoves; i++) {
+                int move = (offset + i) % numMoves;
+                int n = visits.get(move);
+                if(n == 0 && visits.compareAndSet(move, 0, 1)) {
+                    return move;
+                }
+                total += n;
+            }
+            double logTotal = Math.log(Math.max(total, 1));
+            int best = 0;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for(int move = 0; move < numMoves; move++) {
+                int n = Math.max(visits.get(move), 1);
+                double value = (double) wins.get(move) / n + exploration * Math.sqrt(logTotal / n);
+                if(value > bestValue) {
+                    best = move;
+                    bestValue = value;
+                }
+            }
+            visits.incrementAndGet(best);
+            return best;
+        }
+
+        /**
+         * Gets the child reached by a move, adding it if it is missing
+         *
+         * @param move the move
+         * @param decision decision taken at the child if it is added
+         * @param numMoves number of moves of that decision
+         * @return the child, which another thread may have added with another decision
+         */
+        Node child(int move, Decision decision, int numMoves) {
+            Node child = children.get(move);
+            if(child == null) {
+                Node added = new Node(decision, numMoves);
+                child = children.compareAndSet(move, null, added) ? added : children.get(move);
+            }
+            return child;
+        }
+
+        /**
+         * Gets the most visited move, by wins among equals
+         *
+         * @return the move to play
+         */
+        int best() {
+            int best = 0;
+            for(int move = 1; move < numMoves(); move++) {
+                int difference = visits.get(move) - visits.get(best);
+                if(difference > 0 || difference == 0 && wins.get(move) > wins.get(best)) {
+                    best = move;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Plays rollouts on its own game until the budget of the search runs out
+     */
+    private final class Worker implements Callable<Void> {
+        private final Game game;            //Rollout game, the searcher plays through player
+        private final Searcher player;      //The searcher in the rollout game
+        private Node[] pathNodes;           //Nodes passed by the current rollout
+        private int[] pathMoves;            //Move taken at each of those nodes
+        private int pathSize;               //Number of nodes passed
+        private SplittableRandom random;    //Source of every random decision of the rollouts
+
+        /**
+         * Constructor
+         *
+         * @param role role of the searching player
+         */
+        Worker(Role role) {
+            game = new Game(0);
+            game.setKnowledge(KnowledgeLevel.NONE);
+            Player strategy = role == Role.LIBERAL ? new Liberal(0, game) :
+                    role == Role.FASCIST ? new Fascist(0, game) : new Hitler(0, game);
+            player = new Searcher(this, strategy);
+            game.setRosterPlayer(SLOTS[role.ordinal()], player);
+            pathNodes = new Node[16];
+            pathMoves = new int[16];
+        }
+
+        /**
+         * Plays rollouts until the budget runs out
+         *
+         * @return null
+         */
+        @Override
+        public Void call() {
+            while((nanos == 0 || System.nanoTime() < deadline) && remaining.getAndDecrement() > 0) {
+                rollout();
+            }
+            return null;
+        }
+
+        /**
+         * Plays one rollout from a sampled layout and backs its outcome up the tree
+         */
+        private void rollout() {
+            double pick = random.nextDouble() * worlds[NUM_WORLDS - 1];
+            int world = 0;
+            while(world < NUM_WORLDS - 1 && worlds[world] <= pick) {
+                world++;
+            }
+            game.determinize(source, world, searcherId, SLOTS[role.ordinal()], random);
+
+            pathSize = 0;
+            int move = root.select(exploration, random);
+            push(root, move);
+            boolean over = resume(move);
+            while(!over && game.numRounds < Game.MAX_ROUNDS) {
+                over = game.playRound();
+            }
+
+            //Visits were counted on the way down, only wins are left to add
+            if(over && game.getEndCause().liberalsWin == liberal) {
+                for(int i = 0; i < pathSize; i++) {
+                    if(pathNodes[i] != null) {
+                        pathNodes[i].wins.incrementAndGet(pathMoves[i]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Plays the searched move on the rollout game and the rest of its round
+         *
+         * @param move the searched move
+         * @return true if a win condition was met
+         */
+        private boolean resume(int move) {
+            Decision decision = root.decision;
+            if(decision == Decision.CHANCELLOR) {
+                return game.nominate(moves[move]);
+            }
+            else if(decision == Decision.VOTE) {
+                int index = game.players.indexOf(searcherId);
+                game.castVote(index, move == 1);
+                return game.vote(index + 1);
+            }
+            else if(decision == Decision.DISCARD) {
+                game.deck.discard(Hand.get(hand, move));
+                return game.legislate(Hand.remove(hand, move));
+            }
+            else if(decision == Decision.PLAY) {
+                game.deck.discard(Hand.get(hand, 1 - move));
+                return game.enact(Hand.get(hand, move));
+            }
+            else if(decision == Decision.VETO) {
+                return game.chancellor.getId() == searcherId ? game.veto(hand, move == 1) :
+                        game.resolveVeto(hand, move == 1);
+            }
+            return game.shot(game.kill(moves[move]));
+        }
+
+        /**
+         * Records a move taken by the current rollout, a null node marks that it left the tree
+         *
+         * @param node the node the move was taken at
+         * @param move the move
+         */
+        private void push(Node node, int move) {
+            if(pathSize == pathNodes.length) {
+                pathNodes = Arrays.copyOf(pathNodes, pathSize * 2);
+                pathMoves = Arrays.copyOf(pathMoves, pathSize * 2);
+            }
+            pathNodes[pathSize] = node;
+            pathMoves[pathSize++] = move;
+        }
+
+        /**
+         * Takes the searcher's next decision of the rollout from the tree while the rollout is in
+         *   it, a rollout adds one node and leaves the tree once it meets a move with no child
+         *   or a child for another decision
+         *
+         * @param decision the decision
+         * @param numMoves number of moves of the decision
+         * @return the move, -1 if the rollout left the tree
+         */
+        int descend(Decision decision, int numMoves) {
+            if(pathSize == 0 || pathNodes[pathSize - 1] == null) {
+                return -1;
+            }
+            Node parent = pathNodes[pathSize - 1];
+            boolean added = parent.children.get(pathMoves[pathSize - 1]) == null;
+            Node node = parent.child(pathMoves[pathSize - 1], decision, numMoves);
+            if(node.decision != decision || node.numMoves() != numMoves) {
+                push(null, 0);
+                return -1;
+            }
+            int move = node.select(exploration, random);
+            push(node, move);
+            if(added) {
+                push(null, 0);
+            }
+            return move;
+        }
+    }
+
+    /**
+     * Stands for the searching player in a rollout game, taking its moves from the tree and
+     *   leaving the rest to the strategy of its role
+     */
+    private static final class Searcher extends Player {
+        private final Worker worker;    //Worker whose rollouts the player takes part in
+        private final Player strategy;  //Plays the player's moves past the tree
+        private final int[] moves;      //Player index of each move of a decision
+
+        /**
+         * Constructor
+         *
+         * @param worker worker whose rollouts the player takes part in
+         * @param strategy player of the searcher's role on the worker's game, never seated
+         */
+        Searcher(Worker worker, Player strategy) {
+            super(strategy.getId(), worker.game);
+            this.worker = worker;
+            this.strategy = strategy;
+            role = strategy.getRole();
+            party = strategy.getParty();
+            moves = new int[SeatTable.NUM_SEATS];
+        }
+
+        /**
+         * Prepares the player and its strategy for a new rollout
+         *
+         * @param id the player's new unique identifier
+         */
+        @Override
+        public void reset(int id) {
+            this.id = id;
+            strategy.reset(id);
+        }
+
+        /**
+         * Shows every player's role to the strategy
+         */
+        @Override
+        public void viewRoles() {
+            strategy.viewRoles();
+        }
+
+        /**
+         * Determines if the strategy reads its suspicions
+         *
+         * @return true if the strategy of the player's role uses suspicions
+         */
+        @Override
+        public boolean usesSuspicions() {
+            return strategy.usesSuspicions();
+        }
+
+        /**
+         * Nominates the chancellor from the tree, by the strategy past it
+         *
+         * @return the index of the nominated player
+         */
+        @Override
+        public int chooseChancellor() {
+            int numMoves = Mcts.moves(game, id, Decision.CHANCELLOR, moves);
+            int move = worker.descend(Decision.CHANCELLOR, numMoves);
+            return move < 0 ? strategy.chooseChancellor() : moves[move];
+        }
+
+        /**
+         * Draws three policies and discards the one picked in the tree, by the strategy past it
+         *
+         * @return a hand of two policies for the chancellor to pick from
+         */
+        @Override
+        public int draw() {
+            int move = worker.descend(Decision.DISCARD, 3);
+            if(move < 0) {
+                return strategy.draw();
+            }
+            if(game.deck.size() < 3) {
+                game.shuffleInDiscard();
+            }
+            int hand = game.deck.drawThree();
+            game.deck.discard(Hand.get(hand, move));
+            return Hand.remove(hand, move);
+        }
+
+        /**
+         * Plays the policy picked in the tree, by the strategy past it
+         *
+         * @param policies hand of policies to be played
+         * @return the played policy
+         */
+        @Override
+        public Policy play(int policies) {
+            int move = worker.descend(Decision.PLAY, 2);
+            if(move < 0) {
+                return strategy.play(policies);
+            }
+            game.deck.discard(Hand.get(policies, 1 - move));
+            return Hand.get(policies, move);
+        }
+
+        /**
+         * Investigates a player by the strategy, investigations are not searched
+         *
+         * @return the investigated player
+         */
+        @Override
+        public Player investigate() {
+            return strategy.investigate();
+        }
+
+        /**
+         * Votes from the tree, by the strategy past it
+         *
+         * @param president the current president
+         * @param chancellor the current chancellor
+         * @return true if the player votes for the combo
+         */
+        @Override
+        public boolean vote(Player president, Player chancellor) {
+            int move = worker.descend(Decision.VOTE, 2);
+            return move < 0 ? strategy.vote(president, chancellor) : move == 1;
+        }
+
+        /**
+         * Picks the next president by the strategy, special elections are not searched
+         *
+         * @return the index of the next president
+         */
+        @Override
+        public int choosePresident() {
+            return strategy.choosePresident();
+        }
+
+        /**
+         * Shoots the player picked in the tree, by the strategy past it
+         *
+         * @return the killed player
+         */
+        @Override
+        public Player shoot() {
+            int numMoves = Mcts.moves(game, id, Decision.SHOOT, moves);
+            int move = worker.descend(Decision.SHOOT, numMoves);
+            return move < 0 ? strategy.shoot() : game.kill(moves[move]);
+        }
+
+        /**
+         * Vetoes from the tree, by the strategy past it
+         *
+         * @param policies hand of policies the president gave the chancellor
+         * @return true if the player will veto
+         */
+        @Override
+        public boolean veto(int policies) {
+            int move = worker.descend(Decision.VETO, 2);
+            return move < 0 ? strategy.veto(policies) : move == 1;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package game;
+
+import enums.Policy;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Deck and discard pile of policies, held as primitive arrays so that drawing and shuffling never
+ *   allocate
+ * Cards are stored as 1 for LIBERAL and 0 for FASCIST, the top of the deck is the end of the array
+ */
+public class PolicyDeck {
+
+    public static final int NUM_LIBERAL = 6;    //Liberal policies in a full deck
+    public static final int NUM_FASCIST = 11;   //Fascist policies in a full deck
+    public static final int NUM_ORDERS;         //Distinct orders of a full deck, 12376
+
+    //BINOMIAL[n][k] is n choose k, for every n up to the size of a full deck
+    private static final int[][] BINOMIAL = new int[NUM_LIBERAL + NUM_FASCIST + 1][];
+    static {
+        for(int n = 0; n < BINOMIAL.length; n++) {
+            BINOMIAL[n] = new int[n + 1];
+            BINOMIAL[n][0] = 1;
+            BINOMIAL[n][n] = 1;
+            for(int k = 1; k < n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+        NUM_ORDERS = binomial(NUM_LIBERAL + NUM_FASCIST, NUM_LIBERAL);
+    }
+
+    private final byte[] deck;      //Cards in the deck, top card last
+    private final byte[] discard;   //Cards in the discard, in the order they were discarded
+    private final byte[] witnesses; //Players who saw each card of the discard, bit i for player i
+    private int deckSize;           //Number of cards in the deck
+    private int discardSize;        //Number of cards in the discard
+
+    /**
+     * Constructor, the deck starts empty until it is reset
+     */
+    public PolicyDeck() {
+        deck = new byte[NUM_LIBERAL + NUM_FASCIST];
+        discard = new byte[NUM_LIBERAL + NUM_FASCIST];
+        witnesses = new byte[NUM_LIBERAL + NUM_FASCIST];
+        deckSize = 0;
+        discardSize = 0;
+    }
+
+    /**
+     * Fills the deck with every policy, empties the discard and shuffles the deck
+     *
+     * @param random source of randomness for the shuffle
+     */
+    public void reset(RandomGenerator random) {
+        deckSize = 0;
+        discardSize = 0;
+        for(int i = 0; i < NUM_LIBERAL; i++) {
+            deck[deckSize++] = 1;
+        }
+        for(int i = 0; i < NUM_FASCIST; i++) {
+            deck[deckSize++] = 0;
+        }
+        shuffle(random);
+    }
+
+    /**
+     * Fills the deck and the discard with given numbers of each policy and shuffles the deck
+     * No player is recorded as having seen the cards of the discard
+     *
+     * @precondition the counts fit in a full deck
+     * @param deckLiberal liberal policies in the deck
+     * @param deckFascist fascist policies in the deck
+     * @param discardLiberal liberal policies in the discard
+     * @param discardFascist fascist policies in the discard
+     * @param random source of randomness for the shuffle
+     */
+    public void fill(int deckLiberal, int deckFascist, int discardLiberal, int discardFascist,
+                     RandomGenerator random) {
+        assert(deckLiberal + discardLiberal <= NUM_LIBERAL);
+        assert(deckFascist + discardFascist <= NUM_FASCIST);
+        deckSize = deckLiberal + deckFascist;
+        discardSize = 0;
+        for(int i = 0; i < discardLiberal; i++) {
+            discard[discardSize++] = 1;
+        }
+        for(int i = 0; i < discardFascist; i++) {
+            discard[discardSize++] = 0;
+        }
+        Arrays.fill(witnesses, 0, discardSize, (byte) 0);
+        //The shuffle builds an order with the deck's liberal count, so the count is set first
+        Arrays.fill(deck, 0, deckLiberal, (byte) 1);
+        Arrays.fill(deck, deckLiberal, deckSize, (byte) 0);
+        shuffle(random);
+    }
+
+    /**
+     * Copies the cards of another deck and its discard, in their order
+     *
+     * @param other the deck to copy
+     */
+    public void copyFrom(PolicyDeck other) {
+        System.arraycopy(other.deck, 0, deck, 0, other.deckSize);
+        System.arraycopy(other.discard, 0, discard, 0, other.discardSize);
+        System.arraycopy(other.witnesses, 0, witnesses, 0, other.discardSize);
+        deckSize = other.deckSize;
+        discardSize = other.discardSize;
+    }
+
+    /**
+     * Gets the number of cards in the deck
+     *
+     * @return the number of cards in the deck
+     */
+    public int size() {
+        return deckSize;
+    }
+
+    /**
+     * Gets the number of cards in the discard
+     *
+     * @return the number of cards in the discard
+     */
+    public int discardSize() {
+        return discardSize;
+    }
+
+    /**
+     * Draws the top card of the deck
+     *
+     * @precondition size() >= 1
+     * @return the drawn policy
+     */
+    public Policy pop() {
+        assert(deckSize >= 1);
+        return deck[--deckSize] == 1 ? Policy.LIBERAL : Policy.FASCIST;
+    }
+
+    /**
+     * Draws the top three cards of the deck
+     *
+     * @precondition size() >= 3
+     * @return a hand holding the three policies, the top card first
+     */
+    public int drawThree() {
+        assert(deckSize >= 3);
+        int hand = (3 << 3) | deck[deckSize - 1] | (deck[deckSize - 2] << 1) |
+                (deck[deckSize - 3] << 2);
+        deckSize -= 3;
+        return hand;
+    }
+
+    /**
+     * Adds a policy to the discard, seen by no one until witness is called
+     *
+     * @param policy the discarded policy
+     */
+    public void discard(Policy policy) {
+        witnesses[discardSize] = 0;
+        discard[discardSize++] = (byte) (policy.isLiberal ? 1 : 0);
+    }
+
+    /**
+     * Records which players saw the most recently discarded cards
+     *
+     * @precondition discardSize() >= count
+     * @param count number of cards from the top of the discard
+     * @param players bit i is set if player i saw the cards
+     */
+    public void witness(int count, int players) {
+        assert(discardSize >= count);
+        for(int i = discardSize - count; i < discardSize; i++) {
+            witnesses[i] |= (byte) players;
+        }
+    }
+
+    /**
+     * Deals the cards a player has not seen between the deck and the discard at random
+     * The cards of the discard the player saw stay there, the others are pooled with the deck and
+     *   the pool is shuffled, its top becoming the deck and the rest going to the discard, so the
+     *   sizes of both stay as they were
+     *
+     * @param observer ID of the player whose view is kept
+     * @param random source of randomness for the shuffle
+     */
+    public void redeal(int observer, RandomGenerator random) {
+        int size = deckSize;
+        int kept = 0;
+        for(int i = 0; i < discardSize; i++) {
+            if((witnesses[i] & (1 << observer)) != 0) {
+                discard[kept] = discard[i];
+                witnesses[kept++] = witnesses[i];
+            }
+            else {
+                deck[deckSize++] = discard[i];
+            }
+        }
+        shuffle(random);
+
+        //The bottom of the shuffled pool goes to the discard, unseen, the top is the new deck
+        int unseen = deckSize - size;
+        System.arraycopy(deck, 0, discard, kept, unseen);
+        Arrays.fill(witnesses, kept, kept + unseen, (byte) 0);
+        System.arraycopy(deck, unseen, deck, 0, size);
+        deckSize = size;
+        discardSize = kept + unseen;
+    }
+
+    /**
+     * Gets the most recently discarded policy
+     *
+     * @precondition discardSize() >= 1
+     * @return the policy on top of the discard
+     */
+    public Policy getLastDiscarded() {
+        assert(discardSize >= 1);
+        return discard[discardSize - 1] == 1 ? Policy.LIBERAL : Policy.FASCIST;
+    }
+
+    /**
+     * Puts the discard on top of the deck and shuffles the deck
+     *
+     * @param random source of randomness for the shuffle
+     */
+    public void shuffleInDiscard(RandomGenerator random) {
+        System.arraycopy(discard, 0, deck, deckSize, discardSize);
+        deckSize += discardSize;
+        discardSize = 0;
+        shuffle(random);
+    }
+
+    /**
+     * Gets the number of distinct orders of the cards in the deck
+     *
+     * @return the number of ways to place the deck's liberal policies among its cards
+     */
+    public int numOrders() {
+        return binomial(deckSize, numLiberal());
+    }
+
+    /**
+     * Orders the cards in the deck by rank, see shuffle
+     *
+     * @precondition 0 <= rank < numOrders()
+     * @param rank rank of the order
+     */
+    public void order(int rank) {
+        assert(rank >= 0 && rank < numOrders());
+        int liberal = numLiberal();
+        //Walks down from the top card, a card is liberal if the rank passes every order with
+        //  the remaining liberal cards below it
+        for(int i = deckSize - 1; i >= 0; i--) {
+            if(liberal > 0 && rank >= binomial(i, liberal)) {
+                rank -= binomial(i, liberal);
+                deck[i] = 1;
+                liberal--;
+            }
+            else {
+                deck[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Shuffles the deck in place
+     * Cards of the same party are interchangeable, so a shuffle draws the rank of one of the
+     *   numOrders() distinct orders with a single random call and builds that order
+     *
+     * @param random source of randomness for the shuffle
+     */
+    private void shuffle(RandomGenerator random) {
+        order(random.nextInt(numOrders()));
+    }
+
+    /**
+     * Counts the liberal policies among the top cards of the deck
+     *
+     * @param count number of cards from the top
+     * @return the number of liberal policies among them
+     */
+    public int numLiberalOnTop(int count) {
+        int liberal = 0;
+        for(int i = deckSize - 1; i >= Math.max(0, deckSize - count); i--) {
+            liberal += deck[i];
+        }
+        return liberal;
+    }
+
+    /**
+     * Gets the positions of the liberal policies in a full deck's order
+     *
+     * @precondition 0 <= rank < NUM_ORDERS
+     * @param rank rank of the order of a full deck, see order
+     * @return a mask where bit i is set if card i is liberal, the top card being the highest bit
+     */
+    public static int mask(int rank) {
+        int liberal = NUM_LIBERAL;
+        int mask = 0;
+        for(int i = NUM_LIBERAL + NUM_FASCIST - 1; i >= 0; i--) {
+            if(liberal > 0 && rank >= binomial(i, liberal)) {
+                rank -= binomial(i, liberal);
+                mask |= 1 << i;
+                liberal--;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the rank of the reverse of a full deck's order, the bottom card becoming the top
+     *
+     * @precondition 0 <= rank < NUM_ORDERS
+     * @param rank rank of the order of a full deck
+     * @return rank of the reversed order
+     */
+    public static int reversed(int rank) {
+        int size = NUM_LIBERAL + NUM_FASCIST;
+        int mask = mask(rank);
+
+        //Ranks the mirrored positions, as order unranks them
+        int reversed = 0;
+        int liberal = NUM_LIBERAL;
+        for(int i = size - 1; i >= 0; i--) {
+            if((mask & (1 << (size - 1 - i))) != 0) {
+                reversed += binomial(i, liberal);
+                liberal--;
+            }
+        }
+        return reversed;
+    }
+
+    /**
+     * Counts the liberal policies in the deck
+     *
+     * @return the number of liberal policies in the deck
+     */
+    public int numLiberal() {
+        int liberal = 0;
+        for(int i = 0; i < deckSize; i++) {
+            liberal += deck[i];
+        }
+        return liberal;
+    }
+
+    /**
+     * Computes a binomial coefficient
+     *
+     * @param n size of the set, at most the size of a full deck
+     * @param k size of the subset
+     * @return n choose k, 0 if k > n
+     */
+    static int binomial(int n, int k) {
+        if(k < 0 || k > n) {
+            return 0;
+        }
+        return BINOMIAL[n][k];
+    }
+}
@@ -0,0 +1,316 @@
+package game;
+
+import enums.Party;
+import enums.Role;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Description of a game between rounds, from which Game.reset(Position, RandomGenerator) sets up
+ *   a game to play on, see PositionEvaluator
+ * Holds what is on the table: the policy tracks, the election tracker, the composition of the
+ *   deck and discard, the alive set, the next president, the last chancellor and veto power,
+ *   plus the parties players learned by investigation and, optionally, the role layout
+ * Without a layout the roles are drawn for each game from the layouts that fit the position:
+ *   Hitler alive and every known party right
+ * The order of the deck, the suspicions the strategies built up and the log are not part of a
+ *   position, a game set up from one starts them afresh
+ */
+public class Position {
+
+    public final int numLiberalPolicies;    //Liberal policies on the board
+    public final int numFascistPolicies;    //Fascist policies on the board
+    public final int numFailed;             //Failed governments on the election tracker
+    public final int deckLiberal;           //Liberal policies in the deck, the rest are discarded
+    public final int deckFascist;           //Fascist policies in the deck, the rest are discarded
+    public final int aliveMask;             //Bit i is set if player i is alive
+    public final int president;             //ID of the president of the next round
+    public final int chancellor;            //ID of the last chancellor, -1 if none is term-limited
+    public final boolean vetoPower;         //If veto power has been enabled
+    public final int layout;                //Rank of the role layout, -1 to draw it for each game
+    private final long known;               //Bit observer * 7 + id is set if observer knows id
+    private final int liberals;             //Bit i is set if player i is known to be liberal
+    private final int[] layouts;            //Ranks of the layouts that fit the position
+
+    /**
+     * Constructor
+     *
+     * @param numLiberalPolicies liberal policies on the board, 0 to 4
+     * @param numFascistPolicies fascist policies on the board, 0 to 5
+     * @param numFailed failed governments on the election tracker, 0 to 2
+     * @param deckLiberal liberal policies in the deck
+     * @param deckFascist fascist policies in the deck
+     * @param aliveMask bit i is set if player i is alive
+     * @param president ID of the president of the next round
+     * @param chancellor ID of the last chancellor, who cannot be nominated next, -1 for none
+     * @param vetoPower if veto power has been enabled
+     * @param layout rank of the role layout, -1 to draw it for each game from the layouts that fit
+     * @param knownParties entry [observer][id] is the party observer knows id to have, null if
+     *                     unknown, null for no known parties
+     * @throws IllegalArgumentException if the position cannot come up in a running game
+     */
+    public Position(int numLiberalPolicies, int numFascistPolicies, int numFailed,
+                    int deckLiberal, int deckFascist, int aliveMask, int president,
+                    int chancellor, boolean vetoPower, int layout, Party[][] knownParties) {
+        this.numLiberalPolicies = numLiberalPolicies;
+        this.numFascistPolicies = numFascistPolicies;
+        this.numFailed = numFailed;
+        this.deckLiberal = deckLiberal;
+        this.deckFascist = deckFascist;
+        this.aliveMask = aliveMask;
+        this.president = president;
+        this.chancellor = chancellor;
+        this.vetoPower = vetoPower;
+        this.layout = layout;
+
+        if(numLiberalPolicies < 0 || numLiberalPolicies > 4 || numFascistPolicies < 0 ||
+                numFascistPolicies > 5) {
+            throw new IllegalArgumentException("The policy tracks must hold 0 to 4 liberal and " +
+                    "0 to 5 fascist policies");
+        }
+        if(numFailed < 0 || numFailed > 2) {
+            throw new IllegalArgumentException("The election tracker must be at 0 to 2");
+        }
+        if(deckLiberal < 0 || deckFascist < 0 || getDiscardLiberal() < 0 ||
+                getDiscardFascist() < 0) {
+            throw new IllegalArgumentException("The deck holds more policies than are left off " +
+                    "the board");
+        }
+        if((aliveMask & ~0x7F) != 0 || Integer.bitCount(aliveMask) < 3) {
+            throw new IllegalArgumentException("At least three of the seven players must be alive");
+        }
+        if(president < 0 || president >= SeatTable.NUM_SEATS || !isAlive(president)) {
+            throw new IllegalArgumentException("The president must be a living player");
+        }
+        if(chancellor >= SeatTable.NUM_SEATS || (chancellor >= 0 && !isAlive(chancellor))) {
+            throw new IllegalArgumentException("The last chancellor must be a living player");
+        }
+        if(layout < -1 || layout >= Game.NUM_LAYOUTS) {
+            throw new IllegalArgumentException("No role layout has rank " + layout);
+        }
+
+        long known = 0;
+        int liberals = 0;
+        int seen = 0;
+        for(int observer = 0; knownParties != null && observer < knownParties.length;
+            observer++) {
+            for(int id = 0; id < knownParties[observer].length; id++) {
+                Party party = knownParties[observer][id];
+                if(party == null) {
+                    continue;
+                }
+                if((seen & (1 << id)) != 0 && party.isLiberal != ((liberals & (1 << id)) != 0)) {
+                    throw new IllegalArgumentException("Player " + id + " is known to be of " +
+                            "both parties");
+                }
+                known |= 1L << (observer * SeatTable.NUM_SEATS + id);
+                seen |= 1 << id;
+                liberals |= party.isLiberal ? 1 << id : 0;
+            }
+        }
+        this.known = known;
+        this.liberals = liberals;
+
+        int[] fitting = new int[Game.NUM_LAYOUTS];
+        int numFitting = 0;
+        int[] ids = new int[SeatTable.NUM_SEATS];
+        for(int rank = Math.max(layout, 0); rank <= (layout < 0 ? Game.NUM_LAYOUTS - 1 : layout);
+            rank++) {
+            Game.layout(rank, ids);
+            int liberalMask = 0;
+            for(int i = 0; i < 4; i++) {
+                liberalMask |= 1 << ids[i];
+            }
+            if(isAlive(ids[6]) && (liberalMask & seen) == liberals) {
+                fitting[numFitting++] = rank;
+            }
+        }
+        if(numFitting == 0) {
+            throw new IllegalArgumentException("No role layout with Hitler alive fits the known " +
+                    "parties");
+        }
+        layouts = Arrays.copyOf(fitting, numFitting);
+    }
+
+    /**
+     * Gets the liberal policies in the discard
+     *
+     * @return the liberal policies neither on the board nor in the deck
+     */
+    public int getDiscardLiberal() {
+        return PolicyDeck.NUM_LIBERAL - numLiberalPolicies - deckLiberal;
+    }
+
+    /**
+     * Gets the fascist policies in the discard
+     *
+     * @return the fascist policies neither on the board nor in the deck
+     */
+    public int getDiscardFascist() {
+        return PolicyDeck.NUM_FASCIST - numFascistPolicies - deckFascist;
+    }
+
+    /**
+     * Determines if a player is alive
+     *
+     * @param id ID of the player
+     * @return true if the player is alive
+     */
+    public boolean isAlive(int id) {
+        return (aliveMask & (1 << id)) != 0;
+    }
+
+    /**
+     * Determines if a player knows the party of another player
+     *
+     * @param observer ID of the player who knows
+     * @param id ID of the player whose party is known
+     * @return true if observer knows the party of id
+     */
+    public boolean knows(int observer, int id) {
+        return (known & (1L << (observer * SeatTable.NUM_SEATS + id))) != 0;
+    }
+
+    /**
+     * Gets the number of role layouts that fit the position
+     *
+     * @return 1 if the layout is given, otherwise the number the layout of a game is drawn from
+     */
+    public int getNumLayouts() {
+        return layouts.length;
+    }
+
+    /**
+     * Draws the role layout of a game set up from the position
+     *
+     * @param random source of the draw, not called if the layout is given
+     * @return the rank of a layout that fits the position, see Game.layout
+     */
+    int drawLayout(RandomGenerator random) {
+        return layouts.length == 1 ? layouts[0] : layouts[random.nextInt(layouts.length)];
+    }
+
+    /**
+     * Hashes every part of the position into a key, which PositionEvaluator caches results by
+     * Two positions share a key only if they are equal, barring a 64-bit hash collision
+     *
+     * @return the key of the position
+     */
+    public long getKey() {
+        long board = numFascistPolicies;
+        board = (board << 3) | numLiberalPolicies;
+        board = (board << 2) | numFailed;
+        board = (board << 3) | deckLiberal;
+        board = (board << 4) | deckFascist;
+        board = (board << 1) | (vetoPower ? 1 : 0);
+        board = (board << 7) | aliveMask;
+        board = (board << 3) | president;
+        board = (board << 3) | (chancellor + 1);
+        board = (board << 7) | (layout + 1);
+        return Game.seed(board, known ^ ((long) liberals << 49));
+    }
+
+    /**
+     * Determines if another object is the same position
+     *
+     * @param other the other object
+     * @return true if other is a Position with the same state
+     */
+    @Override
+    public boolean equals(Object other) {
+        if(!(other instanceof Position)) {
+            return false;
+        }
+        Position position = (Position) other;
+        return numLiberalPolicies == position.numLiberalPolicies &&
+                numFascistPolicies == position.numFascistPolicies &&
+                numFailed == position.numFailed && deckLiberal == position.deckLiberal &&
+                deckFascist == position.deckFascist && aliveMask == position.aliveMask &&
+                president == position.president && chancellor == position.chancellor &&
+                vetoPower == position.vetoPower && layout == position.layout &&
+                known == position.known && liberals == position.liberals;
+    }
+
+    /**
+     * Hashes the position
+     *
+     * @return the hash of the position's key
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getKey());
+    }
+
+    /**
+     * Produces a String representation of the position
+     *
+     * @return the board, the deck and discard, the players and what they know
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(numLiberalPolicies).append(" liberal and ").append(numFascistPolicies)
+                .append(" fascist policies, election tracker at ").append(numFailed)
+                .append(", deck ").append(deckLiberal).append("L/").append(deckFascist)
+                .append("F, discard ").append(getDiscardLiberal()).append("L/")
+                .append(getDiscardFascist()).append("F\nAlive:");
+        for(int id = 0; id < SeatTable.NUM_SEATS; id++) {
+            if(isAlive(id)) {
+                out.append(' ').append(id);
+            }
+        }
+        out.append(", president ").append(president);
+        if(chancellor >= 0) {
+            out.append(", last chancellor ").append(chancellor);
+        }
+        if(vetoPower) {
+            out.append(", veto power");
+        }
+        out.append("\nRoles: ");
+        if(layout < 0) {
+            out.append("drawn from ").append(layouts.length).append(" layouts");
+        }
+        else {
+            int[] ids = new int[SeatTable.NUM_SEATS];
+            Game.layout(layout, ids);
+            char[] roles = new char[SeatTable.NUM_SEATS];
+            for(int i = 0; i < ids.length; i++) {
+                roles[ids[i]] = i < 4 ? 'L' : i < 6 ? 'F' : 'H';
+            }
+            out.append(roles);
+        }
+        for(int observer = 0; observer < SeatTable.NUM_SEATS; observer++) {
+            for(int id = 0; id < SeatTable.NUM_SEATS; id++) {
+                if(knows(observer, id)) {
+                    out.append(", ").append(observer).append(" knows ").append(id).append(" is ")
+                            .append((liberals & (1 << id)) != 0 ? Party.LIBERAL : Party.FASCIST);
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Gets the rank of the role layout that gives each player a role
+     *
+     * @param roles role of each player, by ID
+     * @return the rank of the layout, see Game.layout
+     * @throws IllegalArgumentException if the roles are not four liberals, two fascists and Hitler
+     */
+    public static int rank(Role[] roles) {
+        int[] ids = new int[SeatTable.NUM_SEATS];
+        for(int rank = 0; rank < Game.NUM_LAYOUTS; rank++) {
+            Game.layout(rank, ids);
+            boolean match = roles.length == SeatTable.NUM_SEATS;
+            for(int i = 0; match && i < ids.length; i++) {
+                Role role = i < 4 ? Role.LIBERAL : i < 6 ? Role.FASCIST : Role.HITLER;
+                match = roles[ids[i]] == role;
+            }
+            if(match) {
+                return rank;
+            }
+        }
+        throw new IllegalArgumentException("Roles must be four liberals, two fascists and Hitler");
+    }
+}
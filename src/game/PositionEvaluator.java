@@ -0,0 +1,361 @@
+package game;
+
+import enums.KnowledgeLevel;
+import enums.Party;
+import enums.Role;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the outcome of a Position by playing it out many times with the strategies of the
+ *   roles, on worker threads, until the 95% interval of the liberal win rate is narrow enough
+ * Games are played in batches which are merged in order, see BatchedRun, so that where a run
+ *   stops depends on its seed alone and not on how the threads were scheduled, as
+ *   GameRunner.runUntil does
+ * Results are cached by Position.getKey(); asking again for a position extends its cached games
+ *   rather than starting over, game i of a position always being the game seeded from
+ *   (masterSeed, key) and i, and the cache can be saved to a file and loaded in later runs
+ */
+public class PositionEvaluator {
+
+    private static final long BATCH_SIZE = 1024;    //Games per batch claimed by a worker
+    private static final int MAGIC = 0x53485045;    //Marks a cache file
+    private static final double DEFAULT_PRECISION = .005;  //Default target half-width
+    private static final long DEFAULT_MAX_GAMES = 1L << 24;    //Default most games per position
+
+    private final Map<Long, Results> cache; //Results of every position evaluated, by key
+    private final int threads;              //Number of worker threads
+    private final long masterSeed;          //Seed from which every game's seed is derived
+
+    /**
+     * Constructor
+     *
+     * @param threads number of worker threads, 1 plays every game on the calling thread
+     * @param masterSeed seed from which every game's seed is derived
+     */
+    public PositionEvaluator(int threads, long masterSeed) {
+        cache = new ConcurrentHashMap<Long, Results>();
+        this.threads = threads;
+        this.masterSeed = masterSeed;
+    }
+
+    /**
+     * Plays a position out until the 95% interval of the liberal win rate is within +-halfWidth
+     *   or maxGames games have been played, counting the games cached for it
+     *
+     * @param position the position
+     * @param halfWidth target half-width of the interval, 0 to play maxGames games
+     * @param maxGames most games to play from the position
+     * @return the results of every game played from the position, numRounds counting the rounds
+     *         after it
+     */
+    public synchronized Results evaluate(Position position, double halfWidth, long maxGames) {
+        long key = position.getKey();
+        Results results = cache.get(key);
+        if(results == null) {
+            results = new Results();
+            cache.put(key, results);
+        }
+        if(!isDone(results, halfWidth, maxGames)) {
+            new Rollouts(position, results, halfWidth, maxGames, Game.seed(masterSeed, key))
+                    .run(threads);
+        }
+        return new Results().merge(results);
+    }
+
+    /**
+     * Gets the cached results of a position without playing it
+     *
+     * @param position the position
+     * @return a copy of the cached results, null if the position was never evaluated
+     */
+    public synchronized Results getCached(Position position) {
+        Results results = cache.get(position.getKey());
+        return results == null ? null : new Results().merge(results);
+    }
+
+    /**
+     * Gets the number of positions in the cache
+     *
+     * @return the number of cached positions
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Writes the cache to a file
+     *
+     * @param file destination of the cache
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save(Path file) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(cache.size());
+            for(Map.Entry<Long, Results> entry : cache.entrySet()) {
+                out.writeLong(entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Reads a cache written by save, positions already in the cache keep their results
+     *
+     * @param file source of the cache
+     * @throws IOException if the file cannot be read or is not a cache
+     */
+    public synchronized void load(Path file) throws IOException {
+        try(DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file.toFile())))) {
+            if(in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a position cache");
+            }
+            int size = in.readInt();
+            for(int i = 0; i < size; i++) {
+                long key = in.readLong();
+                cache.putIfAbsent(key, Results.readFrom(in));
+            }
+        }
+    }
+
+    /**
+     * Determines if results meet the stopping rule
+     *
+     * @param results the results so far
+     * @param halfWidth target half-width of the 95% interval, 0 for none
+     * @param maxGames most games to play
+     * @return true if the interval is narrow enough or every game was played
+     */
+    private static boolean isDone(Results results, double halfWidth, long maxGames) {
+        if(results.getNumGames() >= maxGames) {
+            return true;
+        }
+        if(halfWidth > 0 && results.getNumGames() > 0) {
+            double[] interval = results.getLibWinInterval(GameRunner.Z_95);
+            return (interval[1] - interval[0]) / 2 <= halfWidth;
+        }
+        return false;
+    }
+
+    /**
+     * Plays a contiguous range of games from a position on the calling thread
+     *
+     * @param position the position
+     * @param seed seed from which the seed of every game of the position is derived
+     * @param from index of the first game
+     * @param to index after the last game
+     * @return the results of the games in the range
+     */
+    private static Results play(Position position, long seed, long from, long to) {
+        Results results = new Results();
+        Game game = new Game(0);
+        game.setKnowledge(KnowledgeLevel.NONE);
+        for(long i = from; i < to; i++) {
+            game.reset(position, new SplittableRandom(Game.seed(seed, i)));
+            game.round();
+            results.add(game);
+        }
+        return results;
+    }
+
+    /**
+     * Evaluates a position given on the command line, described by the policies on the board
+     *   and the options below, and prints its results
+     * Accepts --tracker N for N failed governments on the election tracker, 0 if not provided
+     * Accepts --deck L F for L liberal and F fascist policies in the deck, every policy off the
+     *   board if not provided, the rest are in the discard
+     * Accepts --dead ID... for the IDs of the players shot
+     * Accepts --president ID for the president of the next round, 0 if not provided
+     * Accepts --chancellor ID for the last chancellor, none if not provided
+     * Accepts --veto if veto power has been enabled
+     * Accepts --roles R for the role of each player by ID, a string of L, F and H such as
+     *   LLFLHFL, drawn for every game from the roles that fit the position if not provided
+     * Accepts --known O:ID=P... for player O knowing player ID to be of party P, L or F
+     * Accepts --precision P to stop once the 95% interval is within +-P percent, 0.5 if not
+     *   provided, and --max-games N to stop after N games, 2^24 if not provided
+     * Accepts --threads N to play on N threads, 1 if not provided
+     * Accepts --seed S to fix the master seed, random if not provided
+     * Accepts --cache FILE to start from the results cached in FILE, if it exists, and save the
+     *   cache to it afterwards
+     *
+     * @param args the liberal and fascist policies on the board, optionally followed by the
+     *             options above
+     * @throws IOException if the cache cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.out.println("Usage: PositionEvaluator LIBERAL FASCIST [--tracker N] " +
+                    "[--deck L F] [--dead ID...] [--president ID] [--chancellor ID] [--veto] " +
+                    "[--roles R] [--known O:ID=P...] [--precision P] [--max-games N] " +
+                    "[--threads N] [--seed S] [--cache FILE]");
+            return;
+        }
+        int numLiberal = Integer.parseInt(args[0]);
+        int numFascist = Integer.parseInt(args[1]);
+        int tracker = 0;
+        int deckLiberal = PolicyDeck.NUM_LIBERAL - numLiberal;
+        int deckFascist = PolicyDeck.NUM_FASCIST - numFascist;
+        int aliveMask = 0x7F;
+        int president = 0;
+        int chancellor = -1;
+        boolean veto = false;
+        int layout = -1;
+        Party[][] known = new Party[SeatTable.NUM_SEATS][SeatTable.NUM_SEATS];
+        double precision = DEFAULT_PRECISION;
+        long maxGames = DEFAULT_MAX_GAMES;
+        int threads = 1;
+        long masterSeed = new SplittableRandom().nextLong();
+        Path cacheFile = null;
+        for(int i = 2; i < args.length; i++) {
+            if(args[i].equals("--tracker") && i + 1 < args.length) {
+                tracker = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equals("--deck") && i + 2 < args.length) {
+                deckLiberal = Integer.parseInt(args[++i]);
+                deckFascist = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equals("--dead")) {
+                while(i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    aliveMask &= ~(1 << Integer.parseInt(args[++i]));
+                }
+            }
+            else if(args[i].equals("--president") && i + 1 < args.length) {
+                president = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equals("--chancellor") && i + 1 < args.length) {
+                chancellor = Integer.parseInt(args[++i]);
+            }
+            else if(args[i].equals("--veto")) {
+                veto = true;
+            }
+            else if(args[i].equals("--roles") && i + 1 < args.length) {
+                String roles = args[++i].toUpperCase();
+                Role[] byId = new Role[roles.length()];
+                for(int id = 0; id < byId.length; id++) {
+                    char role = roles.charAt(id);
+                    byId[id] = role == 'L' ? Role.LIBERAL : role == 'F' ? Role.FASCIST :
+                            role == 'H' ? Role.HITLER : null;
+                }
+                layout = Position.rank(byId);
+            }
+            else if(args[i].equals("--known")) {
+                while(i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    String[] fact = args[++i].toUpperCase().split("[:=]");
+                    if(fact.length != 3) {
+                        throw new IllegalArgumentException("Known parties are given as O:ID=P");
+                    }
+                    known[Integer.parseInt(fact[0])][Integer.parseInt(fact[1])] =
+                            fact[2].startsWith("L") ? Party.LIBERAL : Party.FASCIST;
+                }
+            }
+            else if(args[i].equals("--precision") && i + 1 < args.length) {
+                precision = Double.parseDouble(args[++i]) / 100;
+            }
+            else if(args[i].equals("--max-games") && i + 1 < args.length) {
+                maxGames = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+            }
+            else if(args[i].equals("--seed") && i + 1 < args.length) {
+                masterSeed = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--cache") && i + 1 < args.length) {
+                cacheFile = Paths.get(args[++i]);
+            }
+        }
+
+        Position position = new Position(numLiberal, numFascist, tracker, deckLiberal,
+                deckFascist, aliveMask, president, chancellor, veto, layout, known);
+        PositionEvaluator evaluator = new PositionEvaluator(threads, masterSeed);
+        if(cacheFile != null && Files.exists(cacheFile)) {
+            evaluator.load(cacheFile);
+        }
+        Results cached = evaluator.getCached(position);
+        long start = System.nanoTime();
+        Results results = evaluator.evaluate(position, precision, maxGames);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if(cacheFile != null) {
+            evaluator.save(cacheFile);
+        }
+
+        System.out.println(position);
+        long played = results.getNumGames() - (cached == null ? 0 : cached.getNumGames());
+        System.out.printf("%d games played in %.3f seconds on %d %s, %d more from the cache\n",
+                played, seconds, threads, threads == 1 ? "thread" : "threads",
+                results.getNumGames() - played);
+        System.out.println("Master seed: " + masterSeed);
+        GameRunner.report(results);
+    }
+
+    /**
+     * Games played from a position by one call to evaluate, extending its cached games
+     */
+    private static class Rollouts extends BatchedRun<Results> {
+
+        private final Position position;    //The position played out
+        private final Results results;      //Merged results, cached games included
+        private final double halfWidth;     //Target half-width of the 95% interval
+        private final long maxGames;        //Most games to play from the position
+        private final long seed;            //Seed of the position's games
+
+        /**
+         * Constructor
+         *
+         * @param position the position played out
+         * @param results results of the games cached for the position, merged into as games end
+         * @param halfWidth target half-width of the 95% interval, 0 for none
+         * @param maxGames most games to play from the position
+         * @param seed seed of the position's games
+         */
+        Rollouts(Position position, Results results, double halfWidth, long maxGames,
+                 long seed) {
+            super(results.getNumGames(), maxGames, BATCH_SIZE);
+            this.position = position;
+            this.results = results;
+            this.halfWidth = halfWidth;
+            this.maxGames = maxGames;
+            this.seed = seed;
+        }
+
+        /**
+         * Plays a batch of games from the position
+         *
+         * @param from index of the first game of the batch
+         * @param to index after the last game of the batch
+         * @return the results of the batch
+         */
+        @Override
+        Results play(long from, long to) {
+            return PositionEvaluator.play(position, seed, from, to);
+        }
+
+        /**
+         * Merges the next batch into the cached results and checks the stopping rule
+         * Batches finished after the rule is met are dropped, so the cached games stay contiguous
+         *
+         * @param batch results of the batch
+         * @return true if the interval is narrow enough or every game was played
+         */
+        @Override
+        boolean merge(Results batch) {
+            results.merge(batch);
+            return isDone(results, halfWidth, maxGames);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Open-addressing hash table of regrets and average strategies by information set, kept in a
+ *   memory-mapped file so that it lives off the heap, can outgrow it and survives restarts
+ * The file starts with a header of MAGIC, VERSION, the capacity, the number of training
+ *   iterations and the number of used slots, then holds capacity slots of SLOT bytes: the key,
+ *   then the regret and the average strategy weight of each of MAX_ACTIONS actions as floats
+ * Slots are found by linear probing and claimed by a compare-and-set on their key, values are
+ *   added by compare-and-set loops, so any number of threads update the table without locks
+ * Values are stored in native byte order, a file moved to a machine of the other order fails
+ *   the MAGIC check
+ * The mapping is split into segments so that the table is not held to the 2GB of one mapping
+ */
+public class RegretTable implements Closeable {
+
+    public static final int MAX_ACTIONS = 5;        //Actions per information set
+    static final int MAGIC = 0x53484346;            //Marks a regret table file
+    static final int VERSION = 1;                   //Version of the slot layout
+    private static final int HEADER = 32;           //Bytes before the first slot
+    private static final int SLOT = 8 + 2 * 4 * MAX_ACTIONS;    //Bytes per slot
+    private static final int SEGMENT_SHIFT = 24;    //Slots per mapped segment, as a power of two
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;          //The table file
+    private final MappedByteBuffer header;      //The mapped header
+    private final MappedByteBuffer[] segments;  //The mapped slots, 2^SEGMENT_SHIFT per segment
+    private final long capacity;                //Number of slots, a power of two
+
+    /**
+     * Constructor, opens a table file or creates it if it does not exist
+     *
+     * @param file the table file
+     * @param capacity number of slots of a new table, rounded up to a power of two, ignored if
+     *                 the file exists
+     * @throws IOException if the file cannot be mapped or is not a regret table
+     */
+    public RegretTable(Path file, long capacity) throws IOException {
+        boolean exists = Files.exists(file);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        //Mapping past the end of a file grows it, so a short file is turned down first
+        if(exists && channel.size() < HEADER) {
+            channel.close();
+            throw new IOException(file + " is not a regret table");
+        }
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+        header.order(ByteOrder.nativeOrder());
+        if(exists) {
+            if(header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException(file + " is not a regret table");
+            }
+            capacity = header.getLong(8);
+        }
+        else {
+            capacity = Long.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+            header.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, capacity);
+            header.putLong(16, 0).putLong(24, 0);
+        }
+        this.capacity = capacity;
+
+        //New pages of the file read as zero, which marks every slot as empty
+        long segmentSlots = Math.min(capacity, 1L << SEGMENT_SHIFT);
+        segments = new MappedByteBuffer[(int) (capacity / segmentSlots)];
+        for(int i = 0; i < segments.length; i++) {
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER + i * segmentSlots * SLOT, segmentSlots * SLOT);
+        }
+    }
+
+    /**
+     * Gets the number of slots
+     *
+     * @return the capacity of the table
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of information sets in the table
+     *
+     * @return the number of used slots
+     */
+    public long size() {
+        return (long) LONGS.getVolatile(header, 24);
+    }
+
+    /**
+     * Gets the number of training iterations the table has seen, over every run
+     *
+     * @return the number of iterations
+     */
+    public long getIterations() {
+        return (long) LONGS.getVolatile(header, 16);
+    }
+
+    /**
+     * Counts training iterations
+     *
+     * @param iterations number of iterations to add
+     */
+    public void addIterations(long iterations) {
+        LONGS.getAndAdd(header, 16, iterations);
+    }
+
+    /**
+     * Finds the slot of an information set
+     *
+     * @precondition key != 0
+     * @param key key of the information set
+     * @return the slot, -1 if the information set is not in the table
+     */
+    public long find(long key) {
+        assert(key != 0);
+        long slot = hash(key);
+        for(long probes = 0; probes < capacity; probes++) {
+            long stored = (long) LONGS.getVolatile(segment(slot), offset(slot));
+            if(stored == key) {
+                return slot;
+            }
+            if(stored == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the slot of an information set, claiming an empty slot for it if it is new
+     *
+     * @precondition key != 0
+     * @param key key of the information set
+     * @return the slot
+     * @throws IllegalStateException if the table is full
+     */
+    public long insert(long key) {
+        assert(key != 0);
+        long slot = hash(key);
+        for(long probes = 0; probes < capacity; probes++) {
+            MappedByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            long stored = (long) LONGS.getVolatile(segment, offset);
+            if(stored == 0) {
+                if(LONGS.compareAndSet(segment, offset, 0L, key)) {
+                    LONGS.getAndAdd(header, 24, 1L);
+                    return slot;
+                }
+                //Another thread claimed the slot first, it may have claimed it for this key
+                stored = (long) LONGS.getVolatile(segment, offset);
+            }
+            if(stored == key) {
+                return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        throw new IllegalStateException("Regret table is full at " + capacity + " slots");
+    }
+
+    /**
+     * Gets the cumulative regret of an action
+     *
+     * @param slot slot of the information set
+     * @param action the action
+     * @return the regret
+     */
+    public float getRegret(long slot, int action) {
+        return get(slot, 8 + 4 * action);
+    }
+
+    /**
+     * Adds to the cumulative regret of an action
+     *
+     * @param slot slot of the information set
+     * @param action the action
+     * @param delta regret to add
+     */
+    public void addRegret(long slot, int action, float delta) {
+        add(slot, 8 + 4 * action, delta);
+    }
+
+    /**
+     * Gets the weight of an action in the average strategy
+     *
+     * @param slot slot of the information set
+     * @param action the action
+     * @return the weight, which divided by the weights of every action is its probability
+     */
+    public float getAverage(long slot, int action) {
+        return get(slot, 8 + 4 * (MAX_ACTIONS + action));
+    }
+
+    /**
+     * Adds to the weight of an action in the average strategy
+     *
+     * @param slot slot of the information set
+     * @param action the action
+     * @param delta weight to add
+     */
+    public void addAverage(long slot, int action, float delta) {
+        add(slot, 8 + 4 * (MAX_ACTIONS + action), delta);
+    }
+
+    /**
+     * Writes the mapped table to the file
+     */
+    public void force() {
+        header.force();
+        for(MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Writes the mapped table to the file and closes it, the mapping lasts until it is collected
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Reads a float of a slot
+     *
+     * @param slot the slot
+     * @param field byte offset of the float in the slot
+     * @return the float
+     */
+    private float get(long slot, int field) {
+        return Float.intBitsToFloat((int) INTS.getVolatile(segment(slot), offset(slot) + field));
+    }
+
+    /**
+     * Adds to a float of a slot, retrying until no other thread changed it in between
+     *
+     * @param slot the slot
+     * @param field byte offset of the float in the slot
+     * @param delta value to add
+     */
+    private void add(long slot, int field, float delta) {
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot) + field;
+        int old;
+        do {
+            old = (int) INTS.getVolatile(segment, offset);
+        } while(!INTS.compareAndSet(segment, offset, old,
+                Float.floatToRawIntBits(Float.intBitsToFloat(old) + delta)));
+    }
+
+    /**
+     * Gets the mapped segment holding a slot
+     *
+     * @param slot the slot
+     * @return the segment
+     */
+    private MappedByteBuffer segment(long slot) {
+        return segments[(int) (slot >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * Gets the byte offset of a slot in its segment
+     *
+     * @param slot the slot
+     * @return the offset
+     */
+    private static int offset(long slot) {
+        return (int) (slot & ((1L << SEGMENT_SHIFT) - 1)) * SLOT;
+    }
+
+    /**
+     * Gets the first slot probed for a key
+     *
+     * @param key the key
+     * @return the slot
+     */
+    private long hash(long key) {
+        return Game.seed(key, 0) & (capacity - 1);
+    }
+}
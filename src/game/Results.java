@@ -0,0 +1,371 @@
+package game;
+
+import enums.EndCause;
+import enums.Role;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Tallies the outcomes of a batch of games in constant memory
+ * Keeps the liberal win count, a histogram of round counts, the reason each game ended and how
+ *   each seat fared in each role
+ * Each worker keeps its own Results and merges them once it is done, so no locking is needed,
+ *   and tallies can be written out and merged across processes
+ */
+public class Results {
+
+    private static final int MAGIC = 0x53485253;    //Marks a serialized tally
+    private static final int NUM_SEATS = SeatTable.NUM_SEATS;
+    private static final int NUM_ROLES = Role.values().length;
+    private static final int NUM_CAUSES = EndCause.values().length;
+
+    private long numGames;              //Number of games tallied
+    private long numLibWins;            //Number of games won by the liberals
+    private long numRounds;             //Total number of rounds over all tallied games
+    private final long[] roundCounts;   //Number of games lasting each number of rounds
+    private final long[] endCauses;     //Number of games ending for each reason
+    private final long[][] seatGames;   //Games by seat and role ordinal
+    private final long[][] seatWins;    //Games won by the seat's team, by seat and role ordinal
+    private final Estimator estimator;  //Variance-reduced estimate of the liberal win rate
+
+    /**
+     * Constructor
+     */
+    public Results() {
+        numGames = 0;
+        numLibWins = 0;
+        numRounds = 0;
+        roundCounts = new long[Game.MAX_ROUNDS + 1];
+        endCauses = new long[NUM_CAUSES];
+        seatGames = new long[NUM_SEATS][NUM_ROLES];
+        seatWins = new long[NUM_SEATS][NUM_ROLES];
+        estimator = new Estimator();
+    }
+
+    /**
+     * Adds a finished game to the tally
+     *
+     * @precondition the game is over
+     * @param game the finished game
+     */
+    public void add(Game game) {
+        assert(game.getEndCause() != null);
+        int fascists = 0;
+        int hitler = 0;
+        for(int seat = 0; seat < NUM_SEATS; seat++) {
+            Role role = game.players.getById(seat).getRole();
+            if(role == Role.FASCIST) {
+                fascists |= 1 << seat;
+            }
+            else if(role == Role.HITLER) {
+                hitler = seat;
+            }
+        }
+        add(game.getEndCause(), game.numRounds, fascists, hitler);
+    }
+
+    /**
+     * Adds a finished game to the tally by its outcome and seating
+     * Lets engines that keep no Game objects, such as BatchEngine, share the tally
+     *
+     * @param cause why the game ended
+     * @param rounds number of rounds the game went on for
+     * @param fascists bit i is set if the player in seat i had the FASCIST role
+     * @param hitler seat of the player with the HITLER role
+     */
+    void add(EndCause cause, int rounds, int fascists, int hitler) {
+        numGames++;
+        if(cause.liberalsWin) {
+            numLibWins++;
+        }
+        numRounds += rounds;
+        roundCounts[Math.min(rounds, Game.MAX_ROUNDS)]++;
+        endCauses[cause.ordinal()]++;
+
+        for(int seat = 0; seat < NUM_SEATS; seat++) {
+            Role role = seat == hitler ? Role.HITLER :
+                    (fascists & (1 << seat)) != 0 ? Role.FASCIST : Role.LIBERAL;
+            seatGames[seat][role.ordinal()]++;
+            if((role == Role.LIBERAL) == cause.liberalsWin) {
+                seatWins[seat][role.ordinal()]++;
+            }
+        }
+    }
+
+    /**
+     * Adds another tally to this one
+     *
+     * @param other the tally to be merged into this one
+     * @return this tally
+     */
+    public Results merge(Results other) {
+        numGames += other.numGames;
+        numLibWins += other.numLibWins;
+        numRounds += other.numRounds;
+        for(int i = 0; i < roundCounts.length; i++) {
+            roundCounts[i] += other.roundCounts[i];
+        }
+        for(int i = 0; i < NUM_CAUSES; i++) {
+            endCauses[i] += other.endCauses[i];
+        }
+        for(int seat = 0; seat < NUM_SEATS; seat++) {
+            for(int role = 0; role < NUM_ROLES; role++) {
+                seatGames[seat][role] += other.seatGames[seat][role];
+                seatWins[seat][role] += other.seatWins[seat][role];
+            }
+        }
+        estimator.merge(other.estimator);
+        return this;
+    }
+
+    /**
+     * Gets the variance-reduced estimator of the liberal win rate, which the runner feeds
+     *
+     * @return the estimator
+     */
+    public Estimator getEstimator() {
+        return estimator;
+    }
+
+    /**
+     * Gets the number of games tallied
+     *
+     * @return the number of games tallied
+     */
+    public long getNumGames() {
+        return numGames;
+    }
+
+    /**
+     * Gets the number of liberal wins
+     *
+     * @return the number of liberal wins
+     */
+    public long getNumLibWins() {
+        return numLibWins;
+    }
+
+    /**
+     * Gets the total number of rounds played
+     *
+     * @return the total number of rounds played
+     */
+    public long getNumRounds() {
+        return numRounds;
+    }
+
+    /**
+     * Gets the fraction of games won by the liberals
+     *
+     * @return the liberal win rate, 0 if no games were tallied
+     */
+    public double getLibWinRate() {
+        return numGames == 0 ? 0 : (double) numLibWins / (double) numGames;
+    }
+
+    /**
+     * Gets the Wilson score interval around the liberal win rate
+     *
+     * @param z standard normal quantile of the confidence level, 1.96 for 95%
+     * @return the lower and upper bounds of the interval, {0, 1} if no games were tallied
+     */
+    public double[] getLibWinInterval(double z) {
+        return wilson(numLibWins, numGames, z);
+    }
+
+    /**
+     * Gets the average number of rounds per game
+     *
+     * @return the average number of rounds, 0 if no games were tallied
+     */
+    public double getAverageRounds() {
+        return numGames == 0 ? 0 : (double) numRounds / (double) numGames;
+    }
+
+    /**
+     * Gets a quantile of the number of rounds per game
+     *
+     * @precondition 0 <= q <= 1
+     * @param q the quantile, 0.5 for the median
+     * @return the smallest round count covering at least q of the games, 0 if no games were
+     *         tallied
+     */
+    public int getRoundsQuantile(double q) {
+        assert(q >= 0 && q <= 1);
+        long target = (long) Math.ceil(q * numGames);
+        long seen = 0;
+        for(int rounds = 0; rounds < roundCounts.length; rounds++) {
+            seen += roundCounts[rounds];
+            if(seen >= target && seen > 0) {
+                return rounds;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the number of games lasting a number of rounds
+     *
+     * @param rounds number of rounds
+     * @return the number of games that lasted exactly that many rounds
+     */
+    public long getRoundCount(int rounds) {
+        return rounds < 0 || rounds >= roundCounts.length ? 0 : roundCounts[rounds];
+    }
+
+    /**
+     * Gets the number of games that ended for a reason
+     *
+     * @param cause the reason
+     * @return the number of games that ended for that reason
+     */
+    public long getEndCauseCount(EndCause cause) {
+        return endCauses[cause.ordinal()];
+    }
+
+    /**
+     * Gets the fraction of games that ended for a reason
+     *
+     * @param cause the reason
+     * @return the fraction of games that ended for that reason, 0 if no games were tallied
+     */
+    public double getEndCauseRate(EndCause cause) {
+        return numGames == 0 ? 0 : (double) endCauses[cause.ordinal()] / (double) numGames;
+    }
+
+    /**
+     * Gets the number of games in which a seat held a role
+     *
+     * @param seat seat, which is also the player ID
+     * @param role the role
+     * @return the number of games the seat held the role
+     */
+    public long getSeatGames(int seat, Role role) {
+        return seatGames[seat][role.ordinal()];
+    }
+
+    /**
+     * Gets the fraction of games a seat's team won while the seat held a role
+     *
+     * @param seat seat, which is also the player ID
+     * @param role the role
+     * @return the win rate of the seat in that role, 0 if the seat never held it
+     */
+    public double getSeatWinRate(int seat, Role role) {
+        long games = seatGames[seat][role.ordinal()];
+        return games == 0 ? 0 : (double) seatWins[seat][role.ordinal()] / (double) games;
+    }
+
+    /**
+     * Gets the fraction of player-games a role's team won, over every seat
+     *
+     * @param role the role
+     * @return the win rate of the role, 0 if no games were tallied
+     */
+    public double getRoleWinRate(Role role) {
+        long games = 0;
+        long wins = 0;
+        for(int seat = 0; seat < NUM_SEATS; seat++) {
+            games += seatGames[seat][role.ordinal()];
+            wins += seatWins[seat][role.ordinal()];
+        }
+        return games == 0 ? 0 : (double) wins / (double) games;
+    }
+
+    /**
+     * Writes the tally so that another process can merge it
+     *
+     * @param out destination of the tally
+     * @throws IOException if the tally cannot be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeLong(numGames);
+        out.writeLong(numLibWins);
+        out.writeLong(numRounds);
+        writeCounts(out, roundCounts);
+        writeCounts(out, endCauses);
+        for(int seat = 0; seat < NUM_SEATS; seat++) {
+            writeCounts(out, seatGames[seat]);
+            writeCounts(out, seatWins[seat]);
+        }
+        estimator.writeTo(out);
+    }
+
+    /**
+     * Reads a tally written by writeTo
+     *
+     * @param in source of the tally
+     * @return the tally
+     * @throws IOException if the tally cannot be read or was written with a different layout
+     */
+    public static Results readFrom(DataInput in) throws IOException {
+        if(in.readInt() != MAGIC) {
+            throw new IOException("Not a serialized Results tally");
+        }
+        Results results = new Results();
+        results.numGames = in.readLong();
+        results.numLibWins = in.readLong();
+        results.numRounds = in.readLong();
+        readCounts(in, results.roundCounts);
+        readCounts(in, results.endCauses);
+        for(int seat = 0; seat < NUM_SEATS; seat++) {
+            readCounts(in, results.seatGames[seat]);
+            readCounts(in, results.seatWins[seat]);
+        }
+        results.estimator.readFrom(in);
+        return results;
+    }
+
+    /**
+     * Computes a Wilson score interval for a binomial proportion
+     *
+     * @param successes number of successes
+     * @param trials number of trials
+     * @param z standard normal quantile of the confidence level
+     * @return the lower and upper bounds of the interval, {0, 1} if there were no trials
+     */
+    static double[] wilson(long successes, long trials, double z) {
+        if(trials == 0) {
+            return new double[] {0, 1};
+        }
+        double n = trials;
+        double p = successes / n;
+        double z2 = z * z;
+        double center = (p + z2 / (2 * n)) / (1 + z2 / n);
+        double half = z / (1 + z2 / n) * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+        return new double[] {Math.max(0, center - half), Math.min(1, center + half)};
+    }
+
+    /**
+     * Writes an array of counts preceded by its length
+     *
+     * @param out destination of the counts
+     * @param counts the counts
+     * @throws IOException if the counts cannot be written
+     */
+    private static void writeCounts(DataOutput out, long[] counts) throws IOException {
+        out.writeInt(counts.length);
+        for(long count : counts) {
+            out.writeLong(count);
+        }
+    }
+
+    /**
+     * Reads an array of counts written by writeCounts
+     *
+     * @param in source of the counts
+     * @param counts array to fill, must match the written length
+     * @throws IOException if the counts cannot be read or have a different length
+     */
+    private static void readCounts(DataInput in, long[] counts) throws IOException {
+        if(in.readInt() != counts.length) {
+            throw new IOException("Serialized tally has a different layout");
+        }
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] = in.readLong();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package game;
+
+import enums.KnowledgeLevel;
+import enums.Sampling;
+
+/**
+ * Settings of a run of games played by GameRunner.run or GameRunner.runUntil
+ * Each run carries its own settings, so runs with different settings can be played at once
+ */
+public class RunConfig {
+
+    public static final RunConfig DEFAULT = new RunConfig(null, Sampling.PLAIN, false,
+            KnowledgeLevel.NONE, null);
+
+    public final Tablebase tablebase;       //Tablebase every game ends early with, null if none
+    public final Sampling sampling;         //How each game's deal is picked
+    public final boolean control;           //If the estimate is corrected with the control variate
+    public final KnowledgeLevel knowledge;  //History each game records
+    public final TraceWriter trace;         //Records a sample of the games played, null if none
+
+    /**
+     * Constructor
+     *
+     * @precondition trace is null, or sampling is PLAIN and tablebase is null, so that a traced
+     *               game replays from its seed
+     * @param tablebase the tablebase games end early with, null to play every game out
+     * @param sampling how deals are picked, STRATIFIED is only supported by GameRunner.run
+     * @param control true to correct the estimate with the control variate
+     * @param knowledge how much history each game records, FULL to keep every game's log
+     * @param trace the trace games are recorded to, null to record nothing
+     */
+    public RunConfig(Tablebase tablebase, Sampling sampling, boolean control,
+                     KnowledgeLevel knowledge, TraceWriter trace) {
+        assert(trace == null || (sampling == Sampling.PLAIN && tablebase == null));
+        this.tablebase = tablebase;
+        this.sampling = sampling;
+        this.control = control;
+        this.knowledge = knowledge;
+        this.trace = trace;
+    }
+}
@@ -0,0 +1,169 @@
+package game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Source of randomness which walks every branch of a game's random calls in depth-first order
+ * The first calls of a game follow a script, the calls after the script choose branch 0 and are
+ *   appended to it until the script is maxDepth calls long, and any later calls are sampled
+ * After a game ends, advance() moves the script to the next branch, like an odometer, so that
+ *   replaying the game from the start visits every combination of the enumerated calls once
+ * Calls with more than maxBranches branches are sampled instead of enumerated, which with
+ *   DECISIONS leaves the reshuffles of the deck to chance and enumerates the players' decisions
+ * Sampled calls draw from one stream per replay, so a replay with the same seed and script makes
+ *   the same calls and the script stays valid
+ * Only nextInt(bound) and nextBoolean() can be enumerated, which are the only calls games make
+ */
+public class ScriptedRandom implements RandomGenerator {
+
+    public static final int DECISIONS = 8;  //Most branches of any player decision
+
+    private final int maxBranches;      //Most branches of a call that is enumerated
+    private final int maxDepth;         //Most calls in the script, later calls are sampled
+    private int[] choices;              //Branch taken at each scripted call
+    private int[] bounds;               //Number of branches of each scripted call
+    private int length;                 //Number of scripted calls
+    private int floor;                  //Number of scripted calls that advance() leaves fixed
+    private int position;               //Index of the next call in the current game
+    private SplittableRandom fallback;  //Source of the sampled calls
+
+    /**
+     * Constructor
+     *
+     * @param maxBranches most branches of a call that is enumerated, calls with more are sampled
+     * @param maxDepth most calls enumerated per game, including any fixed prefix
+     */
+    public ScriptedRandom(int maxBranches, int maxDepth) {
+        this.maxBranches = maxBranches;
+        this.maxDepth = maxDepth;
+        choices = new int[16];
+        bounds = new int[16];
+        length = 0;
+        floor = 0;
+        position = 0;
+        fallback = new SplittableRandom(0);
+    }
+
+    /**
+     * Fixes the first calls of every game to the given branches and enumerates the rest
+     *
+     * @param prefixChoices branch taken at each fixed call
+     * @param prefixBounds number of branches of each fixed call
+     */
+    public void start(int[] prefixChoices, int[] prefixBounds) {
+        assert(prefixChoices.length == prefixBounds.length);
+        length = 0;
+        for(int i = 0; i < prefixChoices.length; i++) {
+            push(prefixChoices[i], prefixBounds[i]);
+        }
+        floor = length;
+        position = 0;
+    }
+
+    /**
+     * Prepares to replay a game along the current script
+     *
+     * @param seed seed of the sampled calls, must be the same for every branch of a prefix
+     */
+    public void replay(long seed) {
+        position = 0;
+        fallback = new SplittableRandom(seed);
+    }
+
+    /**
+     * Moves the script to the next branch after the game along it has ended
+     * Calls the game did not reach are dropped from the script
+     *
+     * @return true if there is a branch left, false once every branch has been visited
+     */
+    public boolean advance() {
+        length = Math.min(length, position);
+        while(length > floor && choices[length - 1] == bounds[length - 1] - 1) {
+            length--;
+        }
+        if(length == floor) {
+            return false;
+        }
+        choices[length - 1]++;
+        return true;
+    }
+
+    /**
+     * Gets the probability of the branch the script describes
+     *
+     * @return the product of 1 / bound over the enumerated calls, excluding the fixed prefix
+     */
+    public double getWeight() {
+        double weight = 1;
+        for(int i = floor; i < length; i++) {
+            weight /= bounds[i];
+        }
+        return weight;
+    }
+
+    /**
+     * Draws a number from 0 to bound - 1, following the script unless the call is sampled
+     *
+     * @param bound number of branches
+     * @return the branch taken
+     */
+    @Override
+    public int nextInt(int bound) {
+        if(position < floor) {
+            assert(bounds[position] == bound);
+            return choices[position++];
+        }
+        if(bound > maxBranches) {
+            return fallback.nextInt(bound);
+        }
+        if(position < length) {
+            assert(bounds[position] == bound);
+            return choices[position++];
+        }
+        if(position < maxDepth) {
+            push(0, bound);
+            position++;
+            return 0;
+        }
+        position++;
+        return fallback.nextInt(bound);
+    }
+
+    /**
+     * Draws a boolean as a call with two branches
+     *
+     * @return true on branch 1
+     */
+    @Override
+    public boolean nextBoolean() {
+        return nextInt(2) == 1;
+    }
+
+    /**
+     * Draws a long, always sampled since it cannot be enumerated
+     *
+     * @return a random long
+     */
+    @Override
+    public long nextLong() {
+        return fallback.nextLong();
+    }
+
+    /**
+     * Appends a call to the script
+     *
+     * @param choice branch taken
+     * @param bound number of branches
+     */
+    private void push(int choice, int bound) {
+        if(length == choices.length) {
+            choices = Arrays.copyOf(choices, length * 2);
+            bounds = Arrays.copyOf(bounds, length * 2);
+        }
+        choices[length] = choice;
+        bounds[length] = bound;
+        length++;
+    }
+}
@@ -0,0 +1,169 @@
+package game;
+
+import players.Player;
+
+/**
+ * Seats the players of a game, answering every ID, index and alive lookup with an array read
+ * Players sit in ID order, and a player's index is their position among the players still alive
+ */
+public class SeatTable {
+
+    public static final int NUM_SEATS = 7;  //Number of players in a game
+
+    //Index of each ID for every set of alive players, -1 if the ID is dead
+    private static final byte[][] INDEX_OF = new byte[1 << NUM_SEATS][NUM_SEATS];
+    //ID at each index for every set of alive players
+    private static final byte[][] ID_AT = new byte[1 << NUM_SEATS][NUM_SEATS];
+
+    static {
+        for(int alive = 0; alive < 1 << NUM_SEATS; alive++) {
+            int index = 0;
+            for(int id = 0; id < NUM_SEATS; id++) {
+                if((alive & (1 << id)) != 0) {
+                    INDEX_OF[alive][id] = (byte) index;
+                    ID_AT[alive][index++] = (byte) id;
+                }
+                else {
+                    INDEX_OF[alive][id] = -1;
+                }
+            }
+        }
+    }
+
+    private final Player[] byId;    //Every player, alive or dead, by ID
+    private int alive;              //Bit i is set if the player with ID i is alive
+    private int size;               //Number of alive players
+
+    /**
+     * Constructor, the table starts empty until players are seated
+     */
+    public SeatTable() {
+        byId = new Player[NUM_SEATS];
+        alive = 0;
+        size = 0;
+    }
+
+    /**
+     * Empties every seat
+     */
+    public void clear() {
+        for(int i = 0; i < NUM_SEATS; i++) {
+            byId[i] = null;
+        }
+        alive = 0;
+        size = 0;
+    }
+
+    /**
+     * Seats a living player at the seat matching their ID
+     *
+     * @param player the player to be seated
+     */
+    public void seat(Player player) {
+        byId[player.getId()] = player;
+        if((alive & (1 << player.getId())) == 0) {
+            alive |= 1 << player.getId();
+            size++;
+        }
+    }
+
+    /**
+     * Gets the number of alive players
+     *
+     * @return the number of alive players
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets an alive player by index
+     *
+     * @precondition 0 <= index < size()
+     * @param index the player's index among the alive players
+     * @return the player
+     */
+    public Player get(int index) {
+        assert(index >= 0 && index < size);
+        return byId[ID_AT[alive][index]];
+    }
+
+    /**
+     * Gets a player by ID, alive or dead
+     *
+     * @param id player ID
+     * @return the player
+     */
+    public Player getById(int id) {
+        return byId[id];
+    }
+
+    /**
+     * Gets the index of a player by ID
+     *
+     * @param id player ID
+     * @return the index of the player among the alive players, -1 if dead
+     */
+    public int indexOf(int id) {
+        return INDEX_OF[alive][id];
+    }
+
+    /**
+     * Gets the index of an ID among a set of alive players, for callers that keep their own
+     *   alive mask
+     *
+     * @param alive bit i is set if the player with ID i is alive
+     * @param id player ID
+     * @return the index of the ID among the alive players, -1 if dead
+     */
+    static int indexOf(int alive, int id) {
+        return INDEX_OF[alive][id];
+    }
+
+    /**
+     * Gets the ID at an index among a set of alive players, for callers that keep their own
+     *   alive mask
+     *
+     * @precondition 0 <= index < number of alive players
+     * @param alive bit i is set if the player with ID i is alive
+     * @param index index among the alive players
+     * @return the ID at that index
+     */
+    static int idAt(int alive, int index) {
+        return ID_AT[alive][index];
+    }
+
+    /**
+     * Determines if the player with the specified ID is alive
+     *
+     * @param id player ID
+     * @return true if the player is alive, false otherwise
+     */
+    public boolean isAlive(int id) {
+        return (alive & (1 << id)) != 0;
+    }
+
+    /**
+     * Gets the set of alive players
+     *
+     * @return a mask where bit i is set if the player with ID i is alive
+     */
+    public int getAliveMask() {
+        return alive;
+    }
+
+    /**
+     * Kills the player at the specified index, shifting the indices of the players after them
+     *
+     * @precondition 0 <= index < size()
+     * @param index index of the player to be killed
+     * @return the killed player
+     */
+    public Player kill(int index) {
+        assert(index >= 0 && index < size);
+        int id = ID_AT[alive][index];
+        alive &= ~(1 << id);
+        size--;
+        return byId[id];
+    }
+}
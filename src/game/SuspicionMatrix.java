@@ -0,0 +1,216 @@
+package game;
+
+import enums.ActionType;
+import enums.Policy;
+import players.StrategyParams;
+
+/**
+ * Every player's suspicion of every other player, kept in one 7x7 matrix of ints
+ * Row o holds how suspect observer o finds each player, and a mask per observer holds which
+ *   players' parties the observer knows
+ * An action changes one column of the matrix, the actor's, by a weight looked up per observer
+ *   from a table indexed by what the observer knows of the actor, the action type and its policy
+ * Sums saturate at the int range instead of overflowing, so a known fascist stays at the maximum
+ *   and a known liberal at the minimum
+ */
+public class SuspicionMatrix {
+
+    private static final int N = SeatTable.NUM_SEATS;
+    private static final int NUM_TYPES = ActionType.values().length;
+    private static final int NO_POLICY = Policy.values().length;    //Policy index of other actions
+    private static final int NUM_POLICIES = NO_POLICY + 1;
+
+    //Knowledge of an observer about an actor, the first index of the weight table
+    private static final int HIDDEN = 0;            //Party unknown, policies not seen
+    private static final int SEEN = 1;              //Party unknown, policies seen
+    private static final int KNOWN_LIBERAL = 2;     //Actor known to be liberal
+    private static final int KNOWN_FASCIST = 3;     //Actor known to be fascist
+    private static final int NUM_KNOWLEDGE = 4;
+
+    private final int[] cells;          //Suspicion of suspect s by observer o at o * N + s
+    private final int[] known;          //Bit i of known[o] is set if o knows the party of ID i
+    private final int[] weights;        //Weight by knowledge, action type and policy
+    private StrategyParams params;      //Tuning constants the weights were built from
+
+    /**
+     * Constructor
+     */
+    public SuspicionMatrix() {
+        cells = new int[N * N];
+        known = new int[N];
+        weights = new int[NUM_KNOWLEDGE * NUM_TYPES * NUM_POLICIES];
+        params = null;
+    }
+
+    /**
+     * Forgets every suspicion and every known party
+     */
+    public void clear() {
+        for(int i = 0; i < cells.length; i++) {
+            cells[i] = 0;
+        }
+        for(int o = 0; o < N; o++) {
+            known[o] = 0;
+        }
+    }
+
+    /**
+     * Copies every suspicion and every known party of another matrix
+     *
+     * @param other the matrix to copy
+     */
+    public void copyFrom(SuspicionMatrix other) {
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        System.arraycopy(other.known, 0, known, 0, known.length);
+    }
+
+    /**
+     * Forgets every suspicion and every known party of an observer
+     *
+     * @param observer ID of the observer
+     */
+    public void reset(int observer) {
+        for(int suspect = 0; suspect < N; suspect++) {
+            cells[observer * N + suspect] = 0;
+        }
+        known[observer] = 0;
+    }
+
+    /**
+     * Forgets the parties an observer knows among some players, along with its suspicions of
+     *   them, which knowing their parties pushed to the extremes
+     *
+     * @param observer ID of the observer
+     * @param ids mask of the IDs of the players
+     */
+    public void forget(int observer, int ids) {
+        for(int forgotten = known[observer] & ids; forgotten != 0; forgotten &= forgotten - 1) {
+            cells[observer * N + Integer.numberOfTrailingZeros(forgotten)] = 0;
+        }
+        known[observer] &= ~ids;
+    }
+
+    /**
+     * Gets how suspect an observer finds a player
+     *
+     * @param observer ID of the observer
+     * @param suspect ID of the player
+     * @return the observer's suspicion of the player
+     */
+    public int get(int observer, int suspect) {
+        return cells[observer * N + suspect];
+    }
+
+    /**
+     * Sets how suspect an observer finds a player
+     *
+     * @param observer ID of the observer
+     * @param suspect ID of the player
+     * @param value the observer's new suspicion of the player
+     */
+    public void set(int observer, int suspect, int value) {
+        cells[observer * N + suspect] = value;
+    }
+
+    /**
+     * Records that an observer knows a player's party
+     *
+     * @param observer ID of the observer
+     * @param id ID of the player whose party is known
+     */
+    public void reveal(int observer, int id) {
+        known[observer] |= 1 << id;
+    }
+
+    /**
+     * Determines if an observer knows a player's party
+     *
+     * @param observer ID of the observer
+     * @param id ID of the player
+     * @return true if the observer knows the player's party
+     */
+    public boolean knows(int observer, int id) {
+        return (known[observer] & (1 << id)) != 0;
+    }
+
+    /**
+     * Updates every observer's suspicion of the player who performed an action
+     *
+     * @param params tuning constants of the strategies
+     * @param actor ID of the player who performed the action
+     * @param fascist true if the actor is in the fascist party
+     * @param type the type of action
+     * @param first the first operand of the action, a policy ordinal or a player ID
+     * @param observers mask of the IDs who observed the action
+     * @param visible mask of the IDs who saw the policies of the action
+     */
+    public void observe(StrategyParams params, int actor, boolean fascist, ActionType type,
+                        int first, int observers, int visible) {
+        if(params != this.params) {
+            build(params);
+        }
+        int policy = type == ActionType.PLAY || type == ActionType.DISCARD ? first : NO_POLICY;
+        int column = type.ordinal() * NUM_POLICIES + policy;
+        int knownRow = fascist ? KNOWN_FASCIST : KNOWN_LIBERAL;
+        for(; observers != 0; observers &= observers - 1) {
+            int o = Integer.numberOfTrailingZeros(observers);
+            int knowledge = (known[o] & (1 << actor)) != 0 ? knownRow :
+                    (visible & (1 << o)) != 0 ? SEEN : HIDDEN;
+            int weight = weights[knowledge * NUM_TYPES * NUM_POLICIES + column];
+            //The two weights that depend on the observer rather than the action
+            if(knowledge == SEEN) {
+                if(type == ActionType.SELECT) {
+                    weight = (int) (cells[o * N + first] * params.selectFactor);
+                }
+                else if(type == ActionType.ACCUSE && o == first) {
+                    weight = 50;
+                }
+            }
+            cells[o * N + actor] = saturatedAdd(cells[o * N + actor], weight);
+        }
+    }
+
+    /**
+     * Adds two ints, clamping the sum to the int range instead of letting it overflow
+     *
+     * @param a the first addend
+     * @param b the second addend
+     * @return a + b, clamped to [Integer.MIN_VALUE, Integer.MAX_VALUE]
+     */
+    public static int saturatedAdd(int a, int b) {
+        int sum = a + b;
+        //Overflow happened if both addends have the same sign and the sum does not
+        if(((a ^ sum) & (b ^ sum)) < 0) {
+            return a < 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        }
+        return sum;
+    }
+
+    /**
+     * Fills the weight table for a set of tuning constants
+     * Unknown actors are weighed by the visible policies they played or discarded, known actors
+     *   are pushed to the extremes whatever they do
+     *
+     * @param params tuning constants of the strategies
+     */
+    private void build(StrategyParams params) {
+        this.params = params;
+        for(int i = 0; i < weights.length; i++) {
+            weights[i] = 0;
+        }
+        for(int t = 0; t < NUM_TYPES; t++) {
+            for(int p = 0; p < NUM_POLICIES; p++) {
+                int column = t * NUM_POLICIES + p;
+                weights[KNOWN_LIBERAL * NUM_TYPES * NUM_POLICIES + column] = Integer.MIN_VALUE;
+                weights[KNOWN_FASCIST * NUM_TYPES * NUM_POLICIES + column] = Integer.MAX_VALUE;
+            }
+        }
+        int seen = SEEN * NUM_TYPES * NUM_POLICIES;
+        int play = seen + ActionType.PLAY.ordinal() * NUM_POLICIES;
+        int discard = seen + ActionType.DISCARD.ordinal() * NUM_POLICIES;
+        weights[play + Policy.FASCIST.ordinal()] = params.playFascist;
+        weights[play + Policy.LIBERAL.ordinal()] = params.playLiberal;
+        weights[discard + Policy.FASCIST.ordinal()] = params.discardFascist;
+        weights[discard + Policy.LIBERAL.ordinal()] = params.discardLiberal;
+    }
+}
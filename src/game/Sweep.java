@@ -0,0 +1,365 @@
+package game;
+
+import enums.Design;
+import enums.EndCause;
+import enums.KnowledgeLevel;
+import enums.Parameter;
+import players.StrategyParams;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates the strategies at many values of their tuning constants, see Parameter
+ * Every point plays the same games, seeded (masterSeed, i) for game i, so each game is dealt the
+ *   same roles and deck at every point and the differences between points are not drowned out by
+ *   the luck of the deal
+ * Points are spread across worker threads and each point's results are written as a CSV line as
+ *   soon as it finishes, so a long sweep can be watched and resumed from its output
+ */
+public class Sweep {
+
+    //Direction numbers of the first seven Sobol dimensions after the first, from Joe and Kuo:
+    //  degree of the primitive polynomial, its coefficients and the initial odd numbers m
+    private static final int[] SOBOL_DEGREE = {1, 2, 3, 3, 4, 4};
+    private static final int[] SOBOL_POLY = {0, 1, 1, 2, 1, 4};
+    private static final int[][] SOBOL_M = {
+            {1}, {1, 3}, {1, 3, 1}, {1, 1, 1}, {1, 1, 3, 3}, {1, 3, 5, 13}};
+
+    /**
+     * Runs a sweep
+     * Usage: Sweep DESIGN POINTS [N] [--threads T] [--seed S] [--params P1,P2,...] [--out FILE]
+     * Plays 2^N games per point, 2^12 if not provided; POINTS is rounded down to a whole grid
+     *   for GRID, which needs at least 2^dimensions points; parameters not listed in --params
+     *   keep their defaults
+     *
+     * @param args the design, number of points and options
+     * @throws FileNotFoundException if the output file cannot be created
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        if(args.length < 2) {
+            System.out.println("Usage: Sweep GRID|LATIN_HYPERCUBE|SOBOL POINTS [N] [--threads T] " +
+                    "[--seed S] [--params P1,P2,...] [--out FILE]");
+            return;
+        }
+        Design design = Design.valueOf(args[0].toUpperCase());
+        int numPoints = Integer.parseInt(args[1]);
+        long numGames = 1L << 12;
+        int threads = 1;
+        long masterSeed = new SplittableRandom().nextLong();
+        Parameter[] parameters = Parameter.values();
+        PrintStream out = System.out;
+
+        for(int i = 2; i < args.length; i++) {
+            if(args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+            }
+            else if(args[i].equals("--seed") && i + 1 < args.length) {
+                masterSeed = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--params") && i + 1 < args.length) {
+                String[] names = args[++i].split(",");
+                parameters = new Parameter[names.length];
+                for(int j = 0; j < names.length; j++) {
+                    parameters[j] = Parameter.valueOf(names[j].toUpperCase());
+                }
+            }
+            else if(args[i].equals("--out") && i + 1 < args.length) {
+                out = new PrintStream(args[++i]);
+            }
+            else if(args[i].matches("\\d+")) {
+                numGames = 1L << Integer.parseInt(args[i]);
+            }
+        }
+
+        double[][] points = points(design, numPoints, parameters.length, masterSeed);
+        System.err.printf("Sweeping %d points of %d games over %d parameters, master seed %d\n",
+                points.length, numGames, parameters.length, masterSeed);
+        run(points, parameters, numGames, threads, masterSeed, out);
+        if(out != System.out) {
+            out.close();
+        }
+    }
+
+    /**
+     * Evaluates every point of a design, writing a CSV header and then one line per point in the
+     *   order the points finish
+     * A point whose games throw gets no line: the failure is reported on System.err as it happens,
+     *   naming the point, and the other points carry on
+     *
+     * @param points coordinates of each point in the unit cube, one per swept parameter
+     * @param parameters the swept parameters, the rest keep their defaults
+     * @param numGames number of games played at each point
+     * @param threads number of worker threads, each evaluates whole points
+     * @param masterSeed seed from which every game's seed is derived
+     * @param out destination of the CSV lines
+     * @throws IllegalStateException if any point failed, once every point has finished
+     */
+    public static void run(double[][] points, Parameter[] parameters, long numGames, int threads,
+                           long masterSeed, PrintStream out) {
+        out.println(header());
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for(int i = 0; i < points.length; i++) {
+            int point = i;
+            tasks.add(() -> {
+                String line;
+                try {
+                    StrategyParams params = params(points[point], parameters);
+                    line = line(point, params, play(params, numGames, masterSeed));
+                }
+                catch(RuntimeException | Error e) {
+                    System.err.println("Point " + point + " failed: " + e);
+                    throw e;
+                }
+                synchronized(out) {
+                    out.println(line);
+                    out.flush();
+                }
+                return null;
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        List<Future<Object>> results;
+        try {
+            results = pool.invokeAll(tasks);
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        StringBuilder failed = new StringBuilder();
+        Throwable cause = null;
+        for(int i = 0; i < results.size(); i++) {
+            try {
+                results.get(i).get();
+            }
+            catch(ExecutionException e) {
+                failed.append(failed.length() == 0 ? "" : ", ").append(i);
+                cause = cause == null ? e.getCause() : cause;
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for point " + i, e);
+            }
+        }
+        if(cause != null) {
+            throw new IllegalStateException("Points failed: " + failed, cause);
+        }
+    }
+
+    /**
+     * Plays the common games of a sweep under the given parameters
+     *
+     * @param params tuning constants of the strategies
+     * @param numGames number of games to play
+     * @param masterSeed seed from which every game's seed is derived
+     * @return the results of the games
+     */
+    public static Results play(StrategyParams params, long numGames, long masterSeed) {
+        Results results = new Results();
+        Game game = new Game(0);
+        game.setKnowledge(KnowledgeLevel.NONE);
+        game.params = params;
+        for(long i = 0; i < numGames; i++) {
+            game.reset(Game.seed(masterSeed, i));
+            game.round();
+            results.add(game);
+        }
+        return results;
+    }
+
+    /**
+     * Lays out the points of a design in the unit cube
+     *
+     * @param design the design
+     * @param numPoints number of points, rounded down to a whole grid for GRID
+     * @param dimensions number of swept parameters
+     * @param seed seed of the random designs
+     * @return coordinates of each point, one per dimension, each between 0 and 1
+     */
+    public static double[][] points(Design design, int numPoints, int dimensions, long seed) {
+        switch(design) {
+            case GRID:
+                return grid(numPoints, dimensions);
+            case LATIN_HYPERCUBE:
+                return latinHypercube(numPoints, dimensions, seed);
+            case SOBOL:
+                return sobol(numPoints, dimensions);
+        }
+        throw new IllegalArgumentException("Unknown design " + design);
+    }
+
+    /**
+     * Lays out a full grid with the same number of evenly spaced levels in every dimension
+     *
+     * @param numPoints most points, the grid has the largest number of levels that fits
+     * @param dimensions number of dimensions
+     * @return the points of the grid
+     * @throws IllegalArgumentException if not even two levels per dimension fit
+     */
+    private static double[][] grid(int numPoints, int dimensions) {
+        int levels = (int) Math.floor(Math.pow(numPoints, 1.0 / dimensions) + 1e-9);
+        if(levels < 2) {
+            throw new IllegalArgumentException("A grid over " + dimensions + " parameters needs " +
+                    "at least " + (1 << dimensions) + " points");
+        }
+        int total = (int) Math.pow(levels, dimensions);
+        double[][] points = new double[total][dimensions];
+        for(int i = 0; i < total; i++) {
+            int rest = i;
+            for(int d = 0; d < dimensions; d++) {
+                points[i][d] = (double) (rest % levels) / (levels - 1);
+                rest /= levels;
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Lays out a Latin hypercube, every dimension is cut into numPoints strata and each stratum
+     *   holds exactly one point at a random position within it
+     *
+     * @param numPoints number of points
+     * @param dimensions number of dimensions
+     * @param seed seed of the strata permutations and positions
+     * @return the points of the hypercube
+     */
+    private static double[][] latinHypercube(int numPoints, int dimensions, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] points = new double[numPoints][dimensions];
+        int[] strata = new int[numPoints];
+        for(int d = 0; d < dimensions; d++) {
+            for(int i = 0; i < numPoints; i++) {
+                strata[i] = i;
+            }
+            for(int i = numPoints - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = strata[i];
+                strata[i] = strata[j];
+                strata[j] = swap;
+            }
+            for(int i = 0; i < numPoints; i++) {
+                points[i][d] = (strata[i] + random.nextDouble()) / numPoints;
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Lays out the first points of a Sobol sequence
+     *
+     * @precondition dimensions <= SOBOL_DEGREE.length + 1
+     * @param numPoints number of points
+     * @param dimensions number of dimensions
+     * @return the points of the sequence, starting at the origin
+     */
+    private static double[][] sobol(int numPoints, int dimensions) {
+        if(dimensions > SOBOL_DEGREE.length + 1) {
+            throw new IllegalArgumentException("Sobol designs support at most " +
+                    (SOBOL_DEGREE.length + 1) + " parameters");
+        }
+        int bits = 32;
+        long[][] directions = new long[dimensions][bits + 1];
+        for(int k = 1; k <= bits; k++) {
+            directions[0][k] = 1L << (bits - k);
+        }
+        for(int d = 1; d < dimensions; d++) {
+            int degree = SOBOL_DEGREE[d - 1];
+            int poly = SOBOL_POLY[d - 1];
+            int[] m = SOBOL_M[d - 1];
+            for(int k = 1; k <= Math.min(degree, bits); k++) {
+                directions[d][k] = (long) m[k - 1] << (bits - k);
+            }
+            for(int k = degree + 1; k <= bits; k++) {
+                long v = directions[d][k - degree] ^ (directions[d][k - degree] >> degree);
+                for(int j = 1; j < degree; j++) {
+                    if(((poly >> (degree - 1 - j)) & 1) != 0) {
+                        v ^= directions[d][k - j];
+                    }
+                }
+                directions[d][k] = v;
+            }
+        }
+
+        double[][] points = new double[numPoints][dimensions];
+        for(int i = 0; i < numPoints; i++) {
+            for(int d = 0; d < dimensions; d++) {
+                long x = 0;
+                for(int k = 1, rest = i; rest != 0; k++, rest >>>= 1) {
+                    if((rest & 1) != 0) {
+                        x ^= directions[d][k];
+                    }
+                }
+                points[i][d] = x / (double) (1L << bits);
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Builds the parameters at a point, unswept parameters keep their defaults
+     *
+     * @param point coordinates of the point in the unit cube
+     * @param parameters the swept parameters
+     * @return the parameters
+     */
+    private static StrategyParams params(double[] point, Parameter[] parameters) {
+        double[] values = new double[Parameter.values().length];
+        for(Parameter parameter : Parameter.values()) {
+            values[parameter.ordinal()] = parameter.defaultValue;
+        }
+        for(int d = 0; d < parameters.length; d++) {
+            values[parameters[d].ordinal()] = parameters[d].scale(point[d]);
+        }
+        return new StrategyParams(values);
+    }
+
+    /**
+     * Gets the CSV header
+     *
+     * @return the names of the columns
+     */
+    private static String header() {
+        StringBuilder line = new StringBuilder("point");
+        for(Parameter parameter : Parameter.values()) {
+            line.append(',').append(parameter.name().toLowerCase());
+        }
+        line.append(",games,lib_win_rate,ci_low,ci_high,avg_rounds");
+        for(EndCause cause : EndCause.values()) {
+            line.append(',').append(cause.name().toLowerCase());
+        }
+        return line.toString();
+    }
+
+    /**
+     * Formats the results of a point as a CSV line
+     *
+     * @param point index of the point
+     * @param params parameters at the point
+     * @param results results of the point's games
+     * @return the line
+     */
+    private static String line(int point, StrategyParams params, Results results) {
+        StringBuilder line = new StringBuilder().append(point);
+        for(Parameter parameter : Parameter.values()) {
+            line.append(',').append(params.get(parameter));
+        }
+        double[] interval = results.getLibWinInterval(GameRunner.Z_95);
+        line.append(',').append(results.getNumGames())
+                .append(',').append(results.getLibWinRate())
+                .append(',').append(interval[0])
+                .append(',').append(interval[1])
+                .append(',').append(results.getAverageRounds());
+        for(EndCause cause : EndCause.values()) {
+            line.append(',').append(results.getEndCauseRate(cause));
+        }
+        return line.toString();
+    }
+}
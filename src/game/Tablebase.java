@@ -0,0 +1,374 @@
+package game;
+
+import enums.EndCause;
+import enums.KnowledgeLevel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Table of outcome distributions for late-game states, stored in a memory-mapped file
+ * A state is the key of Game.getStateKey(): policies played, the deck's composition, the election
+ *   tracker, veto power, the alive set, the last president and chancellor and the role layout
+ * The strategies also act on suspicions and the order of the deck, which the key leaves out, so
+ *   a state has no single outcome to solve backwards from; each entry instead tallies how every
+ *   game that reached the state ended, which is the outcome distribution of the state under the
+ *   current strategies
+ * A game with a tablebase ends as soon as it reaches a state seen often enough, with an outcome
+ *   drawn from the state's distribution; this is an approximation, not an exact shortcut:
+ *   - the key leaves out suspicions and the deck order and counts seats from the last president,
+ *     so a state's games are not all alike and the draw is biased towards the mix of games that
+ *     reached the state while the table was built
+ *   - the counts are finite samples, and a state is only consulted by games that reached no
+ *     earlier state in the table, which its distribution does not condition on
+ *   - the rest of the game is counted as the state's expected rounds, rounded, which keeps the
+ *     average number of rounds but narrows the round quantiles
+ * On 2^18 games (seed 9), a table built from 2^20 games at --min-progress 4 ended 95% of games
+ *   early, played about 1.6x as many games a second and moved the liberal win rate by 0.14 points,
+ *   inside the 95% interval, while the round quartiles went from 8/9/11 to 9/10/10; a table
+ *   built from 2^18 games at --min-progress 6 ends too few games, too late, to pay for its
+ *   lookups
+ * Records are sorted by key, which sorts them by progress, and found by binary search
+ */
+public class Tablebase {
+
+    private static final int MAGIC = 0x53485443;    //Marks a tablebase file of the current keys
+    private static final int HEADER = 16;           //Bytes before the first record
+    private static final int RECORD = 56;           //Bytes per record, seven longs
+    private static final int NUM_CAUSES = EndCause.values().length;
+    private static final EndCause[] CAUSES = EndCause.values();
+    private static final long BATCH_SIZE = 4096;    //Most games a single fork-join task plays
+
+    private final ByteBuffer records;   //The mapped file, read with absolute gets only
+    private final int numRecords;       //Number of states in the table
+    private final int minProgress;      //Fewest policies played in any state in the table
+    private final long minGames;        //Fewest games a state needs to end a game early
+
+    /**
+     * Constructor, maps a tablebase file
+     *
+     * @param file the tablebase file written by build
+     * @param minGames fewest games a state must have been reached in to end a game early
+     * @throws IOException if the file cannot be mapped or is not a tablebase
+     */
+    public Tablebase(Path file, long minGames) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(records.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a tablebase");
+        }
+        numRecords = records.getInt(4);
+        minProgress = records.getInt(8);
+        this.minGames = minGames;
+    }
+
+    /**
+     * Gets the number of states in the table
+     *
+     * @return the number of states
+     */
+    public int size() {
+        return numRecords;
+    }
+
+    /**
+     * Gets the fewest policies played in any state in the table
+     *
+     * @return the fewest policies played
+     */
+    public int getMinProgress() {
+        return minProgress;
+    }
+
+    /**
+     * Finds a state in the table
+     *
+     * @param key the state's key
+     * @return index of the state's record, -1 if the state is not in the table
+     */
+    public int find(long key) {
+        if(progress(key) < minProgress) {
+            return -1;
+        }
+        int low = 0;
+        int high = numRecords - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = records.getLong(offset(mid));
+            if(midKey < key) {
+                low = mid + 1;
+            }
+            else if(midKey > key) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of games that reached a state
+     *
+     * @param index index of the state's record
+     * @return the number of games
+     */
+    public long getGames(int index) {
+        return records.getLong(offset(index) + 8);
+    }
+
+    /**
+     * Gets the probability that a game in a state ends for a reason
+     *
+     * @param index index of the state's record
+     * @param cause the reason
+     * @return the fraction of the games reaching the state that ended for that reason
+     */
+    public double getEndCauseProbability(int index, EndCause cause) {
+        return (double) records.getLong(offset(index) + 16 + 8 * cause.ordinal()) /
+                (double) getGames(index);
+    }
+
+    /**
+     * Gets the probability that the liberals win from a state
+     *
+     * @param index index of the state's record
+     * @return the fraction of the games reaching the state that the liberals won
+     */
+    public double getLibWinProbability(int index) {
+        double probability = 0;
+        for(EndCause cause : CAUSES) {
+            if(cause.liberalsWin) {
+                probability += getEndCauseProbability(index, cause);
+            }
+        }
+        return probability;
+    }
+
+    /**
+     * Gets the expected number of rounds left in a state
+     *
+     * @param index index of the state's record
+     * @return the average number of rounds the games reaching the state went on for
+     */
+    public double getExpectedRounds(int index) {
+        return (double) records.getLong(offset(index) + 16 + 8 * NUM_CAUSES) /
+                (double) getGames(index);
+    }
+
+    /**
+     * Ends a game between rounds if its state is in the table and was reached often enough
+     * The reason is drawn from the state's distribution and the rest of the game is counted as
+     *   the expected number of rounds left, rounded
+     *
+     * @param game the game, between rounds
+     * @return true if the game was ended
+     */
+    boolean resolve(Game game) {
+        if(game.numLiberalPolicies + game.numFascistPolicies < minProgress) {
+            return false;
+        }
+        int index = find(game.getStateKey());
+        if(index < 0) {
+            return false;
+        }
+        long games = getGames(index);
+        if(games < minGames) {
+            return false;
+        }
+        long draw = (long) (game.random.nextDouble() * games);
+        int offset = offset(index) + 16;
+        EndCause cause = CAUSES[NUM_CAUSES - 1];
+        for(int i = 0; i < NUM_CAUSES; i++) {
+            draw -= records.getLong(offset + 8 * i);
+            if(draw < 0) {
+                cause = CAUSES[i];
+                break;
+            }
+        }
+        game.end(cause, (int) Math.round(getExpectedRounds(index)));
+        return true;
+    }
+
+    /**
+     * Plays games and writes the outcome distribution of every state they reach to a file
+     *
+     * @param file destination of the tablebase
+     * @param numGames number of games to play
+     * @param threads number of worker threads, 1 plays every game on the calling thread
+     * @param masterSeed seed from which every game's seed is derived
+     * @param minProgress fewest policies played for a state to be recorded, 0 records every state
+     * @return the number of states written
+     * @throws IOException if the file cannot be written
+     */
+    public static int build(Path file, long numGames, int threads, long masterSeed,
+                            int minProgress) throws IOException {
+        HashMap<Long, long[]> states;
+        if(threads <= 1) {
+            states = play(masterSeed, minProgress, 0, numGames);
+        }
+        else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                states = pool.invoke(new BuildTask(masterSeed, minProgress, 0, numGames));
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+
+        long[] keys = new long[states.size()];
+        int n = 0;
+        for(long key : states.keySet()) {
+            keys[n++] = key;
+        }
+        Arrays.sort(keys);
+
+        try(DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(keys.length);
+            out.writeInt(minProgress);
+            out.writeInt(RECORD);
+            for(long key : keys) {
+                out.writeLong(key);
+                for(long count : states.get(key)) {
+                    out.writeLong(count);
+                }
+            }
+        }
+        return keys.length;
+    }
+
+    /**
+     * Plays a contiguous range of games and tallies the states they reach
+     *
+     * @param masterSeed seed from which every game's seed is derived
+     * @param minProgress fewest policies played for a state to be recorded
+     * @param from index of the first game
+     * @param to index after the last game
+     * @return the tally of each state: games, games per end cause and total rounds left
+     */
+    private static HashMap<Long, long[]> play(long masterSeed, int minProgress, long from,
+                                              long to) {
+        HashMap<Long, long[]> states = new HashMap<Long, long[]>();
+        long[] keys = new long[Game.MAX_ROUNDS];
+        int[] rounds = new int[Game.MAX_ROUNDS];
+        Game game = new Game(0);
+        game.setKnowledge(KnowledgeLevel.NONE);
+        for(long i = from; i < to; i++) {
+            game.reset(Game.seed(masterSeed, i));
+            int n = 0;
+            do {
+                if(game.numRounds >= Game.MAX_ROUNDS) {
+                    throw new IllegalStateException("Game did not finish within " +
+                            Game.MAX_ROUNDS + " rounds");
+                }
+                if(game.numLiberalPolicies + game.numFascistPolicies >= minProgress) {
+                    keys[n] = game.getStateKey();
+                    rounds[n] = game.numRounds;
+                    n++;
+                }
+            } while(!game.playRound());
+
+            int cause = game.getEndCause().ordinal();
+            for(int j = 0; j < n; j++) {
+                long[] tally = states.computeIfAbsent(keys[j], key -> new long[2 + NUM_CAUSES]);
+                tally[0]++;
+                tally[1 + cause]++;
+                tally[1 + NUM_CAUSES] += game.numRounds - rounds[j];
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Gets the number of policies played in a state
+     *
+     * @param key the state's key
+     * @return the number of liberal and fascist policies played
+     */
+    private static int progress(long key) {
+        return (int) ((key >>> 34) + ((key >>> 31) & 7));
+    }
+
+    /**
+     * Gets the byte offset of a record
+     *
+     * @param index index of the record
+     * @return the offset of the record in the file
+     */
+    private static int offset(int index) {
+        return HEADER + index * RECORD;
+    }
+
+    /**
+     * Fork-join task which halves its range of games until it is small enough to play directly
+     */
+    private static class BuildTask extends RecursiveTask<HashMap<Long, long[]>> {
+
+        private static final long serialVersionUID = 1L;  //Tasks are never serialized
+        private final long masterSeed;  //Seed from which every game's seed is derived
+        private final int minProgress;  //Fewest policies played for a state to be recorded
+        private final long from;        //Index of the first game
+        private final long to;          //Index after the last game
+
+        /**
+         * Constructor
+         *
+         * @param masterSeed seed from which every game's seed is derived
+         * @param minProgress fewest policies played for a state to be recorded
+         * @param from index of the first game
+         * @param to index after the last game
+         */
+        BuildTask(long masterSeed, int minProgress, long from, long to) {
+            this.masterSeed = masterSeed;
+            this.minProgress = minProgress;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Plays the range of games, forking off half of it if it is too large
+         *
+         * @return the merged tally of the range
+         */
+        @Override
+        protected HashMap<Long, long[]> compute() {
+            if(to - from <= BATCH_SIZE) {
+                return play(masterSeed, minProgress, from, to);
+            }
+            long mid = from + (to - from) / 2;
+            BuildTask left = new BuildTask(masterSeed, minProgress, from, mid);
+            left.fork();
+            HashMap<Long, long[]> right =
+                    new BuildTask(masterSeed, minProgress, mid, to).compute();
+            HashMap<Long, long[]> merged = left.join();
+            for(Map.Entry<Long, long[]> entry : right.entrySet()) {
+                long[] tally = merged.get(entry.getKey());
+                if(tally == null) {
+                    merged.put(entry.getKey(), entry.getValue());
+                }
+                else {
+                    for(int i = 0; i < tally.length; i++) {
+                        tally[i] += entry.getValue()[i];
+                    }
+                }
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,554 @@
+package game;
+
+import enums.ActionType;
+import enums.EndCause;
+import enums.Power;
+import enums.Role;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Searchable index over the games of a trace file, kept next to it with the suffix SUFFIX
+ * The index file holds one fixed-width summary row per recorded game: its record's offset in the
+ *   trace, end cause, rounds, Hitler's seat, the fascists' seats, the powers fired, the number of
+ *   vetoes and which roles shot which
+ * Opening an index builds a bitmap per value of every attribute from the rows, bit r of a bitmap
+ *   standing for row r; rounds and vetoes are range-encoded, so a bitmap holds every row with at
+ *   most that many rounds or at least that many vetoes and a range costs one or two bitmaps
+ * A query ands bitmaps together and returns the trace offsets of the rows left, ready for
+ *   TraceReader to pretty-print or replay, without scanning the trace
+ * Offsets are longs, so traces may pass 2GB; the index itself is one buffer, which holds the rows
+ *   of about 134 million games
+ */
+public class TraceIndex {
+
+    public static final String SUFFIX = ".idx";    //Appended to the trace's name for the index
+    private static final int MAGIC = 0x53484958;    //Marks an index file
+    private static final int HEADER = 20;           //Bytes before the first row
+    private static final int ROW = 16;              //Bytes per row
+    private static final int NUM_ROLES = Role.values().length;
+    private static final Power[] POWERS = Power.values();
+
+    private final int numRows;      //Number of games indexed
+    private final long[] offsets;   //Offset of each game's record in the trace
+    private final long[][] causes;          //Rows by end cause ordinal
+    private final long[][] roundsAtMost;    //Rows by most rounds, up to the longest game
+    private final long[][] hitlerAt;        //Rows by Hitler's seat
+    private final long[][] fascistAt;       //Rows by the seat of either fascist
+    private final long[][] powers;          //Rows by power ordinal fired
+    private final long[][] vetoesAtLeast;   //Rows by fewest vetoes, up to the most in a game
+    private final long[][] shots;           //Rows by shooter role ordinal * 3 + victim's
+
+    /**
+     * Constructor, builds the bitmaps from the rows
+     *
+     * @param rows the summary rows, ROW bytes each from position 0
+     * @param numRows number of rows
+     */
+    private TraceIndex(ByteBuffer rows, int numRows) {
+        this.numRows = numRows;
+        offsets = new long[numRows];
+        int maxRounds = 0;
+        int maxVetoes = 0;
+        for(int r = 0; r < numRows; r++) {
+            offsets[r] = rows.getLong(r * ROW);
+            maxRounds = Math.max(maxRounds, rows.get(r * ROW + 9));
+            maxVetoes = Math.max(maxVetoes, rows.get(r * ROW + 13));
+        }
+        causes = new long[EndCause.values().length][words()];
+        roundsAtMost = new long[maxRounds + 1][words()];
+        hitlerAt = new long[SeatTable.NUM_SEATS][words()];
+        fascistAt = new long[SeatTable.NUM_SEATS][words()];
+        powers = new long[POWERS.length][words()];
+        vetoesAtLeast = new long[maxVetoes + 1][words()];
+        shots = new long[NUM_ROLES * NUM_ROLES][words()];
+
+        for(int r = 0; r < numRows; r++) {
+            int row = r * ROW;
+            int word = r >>> 6;
+            long bit = 1L << r;
+            causes[rows.get(row + 8)][word] |= bit;
+            for(int n = rows.get(row + 9); n <= maxRounds; n++) {
+                roundsAtMost[n][word] |= bit;
+            }
+            hitlerAt[rows.get(row + 10)][word] |= bit;
+            for(int mask = rows.get(row + 11); mask != 0; mask &= mask - 1) {
+                fascistAt[Integer.numberOfTrailingZeros(mask)][word] |= bit;
+            }
+            for(int mask = rows.get(row + 12); mask != 0; mask &= mask - 1) {
+                powers[Integer.numberOfTrailingZeros(mask)][word] |= bit;
+            }
+            for(int n = rows.get(row + 13); n >= 0; n--) {
+                vetoesAtLeast[n][word] |= bit;
+            }
+            for(int mask = rows.getShort(row + 14); mask != 0; mask &= mask - 1) {
+                shots[Integer.numberOfTrailingZeros(mask)][word] |= bit;
+            }
+        }
+    }
+
+    /**
+     * Opens the index of a trace, building and writing it if it is missing or was built from an
+     *   earlier version of the trace
+     *
+     * @param traceFile the trace file
+     * @param trace the trace, mapped
+     * @return the index
+     * @throws IOException if the index cannot be read or written
+     */
+    public static TraceIndex open(Path traceFile, TraceReader trace) throws IOException {
+        Path file = Paths.get(traceFile + SUFFIX);
+        if(Files.exists(file)) {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if(index.getInt(0) == MAGIC && index.getLong(8) == trace.end() &&
+                        index.getInt(16) == ROW) {
+                    return new TraceIndex(index.position(HEADER).slice(), index.getInt(4));
+                }
+            }
+        }
+        return build(file, trace);
+    }
+
+    /**
+     * Builds the index of a trace by scanning every record once, and writes it
+     *
+     * @param file destination of the index
+     * @param trace the trace, mapped
+     * @return the index
+     * @throws IOException if the index cannot be written
+     */
+    public static TraceIndex build(Path file, TraceReader trace) throws IOException {
+        int numRows = 0;
+        for(long offset = trace.first(); offset < trace.end(); offset = trace.next(offset)) {
+            numRows++;
+        }
+        ByteBuffer rows = ByteBuffer.allocate(HEADER + numRows * ROW);
+        rows.putInt(MAGIC).putInt(numRows).putLong(trace.end()).putInt(ROW);
+        for(long offset = trace.first(); offset < trace.end(); offset = trace.next(offset)) {
+            summarize(trace, offset, rows);
+        }
+        rows.flip();
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(rows.hasRemaining()) {
+                channel.write(rows);
+            }
+        }
+        return new TraceIndex(rows.position(HEADER).slice(), numRows);
+    }
+
+    /**
+     * Appends the summary row of a recorded game
+     *
+     * @param trace the trace
+     * @param offset offset of the game's record
+     * @param rows buffer the row is written to at its position
+     */
+    private static void summarize(TraceReader trace, long offset, ByteBuffer rows) {
+        Role[] roles = trace.getRoles(offset);
+        int hitler = 0;
+        int fascists = 0;
+        for(int id = 0; id < roles.length; id++) {
+            if(roles[id] == Role.HITLER) {
+                hitler = id;
+            }
+            else if(roles[id] == Role.FASCIST) {
+                fascists |= 1 << id;
+            }
+        }
+
+        int fired = 0;
+        int vetoes = 0;
+        int shotPairs = 0;
+        int numActions = trace.getNumActions(offset);
+        for(int i = 0; i < numActions; i++) {
+            ActionType type = trace.getType(offset, i);
+            if(type == ActionType.INVESTIGATE) {
+                fired |= 1 << Power.INVESTIGATE.ordinal();
+            }
+            //A nomination is followed by votes, a special election by the next nomination
+            else if(type == ActionType.SELECT && i + 1 < numActions &&
+                    trace.getType(offset, i + 1) == ActionType.SELECT) {
+                fired |= 1 << Power.SPECIAL_ELECTION.ordinal();
+            }
+            else if(type == ActionType.SHOOT) {
+                Power power = (fired & (1 << Power.FIRST_SHOT.ordinal())) == 0 ?
+                        Power.FIRST_SHOT : Power.SECOND_SHOT;
+                fired |= 1 << power.ordinal();
+                shotPairs |= 1 << (roles[trace.getActorId(offset, i)].ordinal() * NUM_ROLES +
+                        roles[trace.getFirst(offset, i)].ordinal());
+            }
+            else if(type == ActionType.VETO) {
+                vetoes++;
+            }
+        }
+
+        rows.putLong(offset);
+        rows.put((byte) trace.getEndCause(offset).ordinal());
+        rows.put((byte) Math.min(Byte.MAX_VALUE, trace.getRounds(offset)));
+        rows.put((byte) hitler).put((byte) fascists).put((byte) fired);
+        rows.put((byte) Math.min(Byte.MAX_VALUE, vetoes));
+        rows.putShort((short) shotPairs);
+    }
+
+    /**
+     * Gets the number of games indexed
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return numRows;
+    }
+
+    /**
+     * Starts a query that matches every indexed game, to be narrowed down by its methods
+     *
+     * @return a query matching every row
+     */
+    public Query query() {
+        Query query = new Query();
+        for(int w = 0; w < query.rows.length; w++) {
+            query.rows[w] = -1L;
+        }
+        query.trim();
+        return query;
+    }
+
+    /**
+     * Gets the number of longs in a bitmap of every row
+     *
+     * @return the number of words
+     */
+    private int words() {
+        return (numRows + 63) >>> 6;
+    }
+
+    /**
+     * Set of indexed games narrowed down by ANDing the bitmaps of attributes
+     */
+    public class Query {
+
+        private final long[] rows;  //Bit r is set if row r still matches
+
+        /**
+         * Constructor, matches no row
+         */
+        private Query() {
+            rows = new long[words()];
+        }
+
+        /**
+         * Keeps the games that ended for a reason
+         *
+         * @param cause the reason
+         * @return this query
+         */
+        public Query endedBy(EndCause cause) {
+            return and(causes[cause.ordinal()], false);
+        }
+
+        /**
+         * Keeps the games one party won
+         *
+         * @param liberalsWin true to keep liberal wins, false to keep fascist wins
+         * @return this query
+         */
+        public Query won(boolean liberalsWin) {
+            long[] union = new long[rows.length];
+            for(EndCause cause : EndCause.values()) {
+                if(cause.liberalsWin == liberalsWin) {
+                    for(int w = 0; w < union.length; w++) {
+                        union[w] |= causes[cause.ordinal()][w];
+                    }
+                }
+            }
+            return and(union, false);
+        }
+
+        /**
+         * Keeps the games that lasted at most a number of rounds
+         *
+         * @param rounds most rounds
+         * @return this query
+         */
+        public Query roundsAtMost(int rounds) {
+            if(rounds < 0) {
+                return and(null, false);
+            }
+            return rounds >= roundsAtMost.length ? this :
+                    and(roundsAtMost[rounds], false);
+        }
+
+        /**
+         * Keeps the games that lasted at least a number of rounds
+         *
+         * @param rounds fewest rounds
+         * @return this query
+         */
+        public Query roundsAtLeast(int rounds) {
+            if(rounds <= 0) {
+                return this;
+            }
+            return rounds > roundsAtMost.length ? and(null, false) :
+                    and(roundsAtMost[rounds - 1], true);
+        }
+
+        /**
+         * Keeps the games in which Hitler sat in a seat
+         *
+         * @param seat the seat, which is the player's ID
+         * @return this query
+         */
+        public Query hitlerAt(int seat) {
+            return and(hitlerAt[seat], false);
+        }
+
+        /**
+         * Keeps the games in which one of the two fascists sat in a seat
+         *
+         * @param seat the seat, which is the player's ID
+         * @return this query
+         */
+        public Query fascistAt(int seat) {
+            return and(fascistAt[seat], false);
+        }
+
+        /**
+         * Keeps the games in which a presidential power was used
+         *
+         * @param power the power
+         * @return this query
+         */
+        public Query fired(Power power) {
+            return and(powers[power.ordinal()], false);
+        }
+
+        /**
+         * Keeps the games in which a presidential power was not used
+         *
+         * @param power the power
+         * @return this query
+         */
+        public Query notFired(Power power) {
+            return and(powers[power.ordinal()], true);
+        }
+
+        /**
+         * Keeps the games with at least a number of vetoes
+         *
+         * @param vetoes fewest vetoes
+         * @return this query
+         */
+        public Query vetoesAtLeast(int vetoes) {
+            if(vetoes <= 0) {
+                return this;
+            }
+            return vetoes >= vetoesAtLeast.length ? and(null, false) :
+                    and(vetoesAtLeast[vetoes], false);
+        }
+
+        /**
+         * Keeps the games with at most a number of vetoes
+         *
+         * @param vetoes most vetoes
+         * @return this query
+         */
+        public Query vetoesAtMost(int vetoes) {
+            if(vetoes < 0) {
+                return and(null, false);
+            }
+            return vetoes + 1 >= vetoesAtLeast.length ? this :
+                    and(vetoesAtLeast[vetoes + 1], true);
+        }
+
+        /**
+         * Keeps the games in which a player of one role shot a player of another
+         *
+         * @param shooter role of the president who shot
+         * @param victim role of the player shot
+         * @return this query
+         */
+        public Query shot(Role shooter, Role victim) {
+            return and(shots[shooter.ordinal() * NUM_ROLES + victim.ordinal()], false);
+        }
+
+        /**
+         * Counts the matching games
+         *
+         * @return the number of matching rows
+         */
+        public int count() {
+            int count = 0;
+            for(long word : rows) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        /**
+         * Gets the trace offsets of the matching games, in the order they were recorded
+         *
+         * @return the offset of each matching game's record
+         */
+        public long[] offsets() {
+            long[] matches = new long[count()];
+            int n = 0;
+            for(int w = 0; w < rows.length; w++) {
+                for(long word = rows[w]; word != 0; word &= word - 1) {
+                    matches[n++] = offsets[(w << 6) + Long.numberOfTrailingZeros(word)];
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * Ands the matching rows with a bitmap or its complement
+         *
+         * @param bitmap the bitmap, null for no row
+         * @param complement true to and with the rows not in the bitmap
+         * @return this query
+         */
+        private Query and(long[] bitmap, boolean complement) {
+            for(int w = 0; w < rows.length; w++) {
+                long word = bitmap == null ? 0 : bitmap[w];
+                rows[w] &= complement ? ~word : word;
+            }
+            if(complement) {
+                trim();
+            }
+            return this;
+        }
+
+        /**
+         * Clears the bits past the last row
+         */
+        private void trim() {
+            if(numRows % 64 != 0) {
+                rows[rows.length - 1] &= (1L << numRows) - 1;
+            }
+        }
+    }
+
+    /**
+     * Queries the index of a trace file, building it on first use
+     * Accepts --cause C, --won liberal|fascist, --min-rounds R, --max-rounds R, --hitler-seat S,
+     *   --fascist-seat S, --power P, --no-power P, --min-vetoes K, --max-vetoes K and
+     *   --shot SHOOTER VICTIM to narrow down the games, every game if none is provided
+     * Accepts --print to pretty-print the matching games rather than list them
+     * An unknown option, a missing value or a value that does not parse prints the usage and
+     *   exits with status 1, rather than leaving that part of the query out
+     *
+     * @param args the trace file followed by the query
+     * @throws IOException if the trace or its index cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0) {
+            usage(System.out);
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        TraceReader trace = new TraceReader(file);
+        long start = System.nanoTime();
+        TraceIndex index = open(file, trace);
+        double openMillis = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        Query query = index.query();
+        boolean print = false;
+        String option = null;
+        try {
+            for(int i = 1; i < args.length; i++) {
+                option = args[i];
+                if(args[i].equals("--cause") && i + 1 < args.length) {
+                    query.endedBy(EndCause.valueOf(args[++i].toUpperCase()));
+                }
+                else if(args[i].equals("--won") && i + 1 < args.length) {
+                    String party = args[++i].toLowerCase();
+                    if(!party.equals("liberal") && !party.equals("fascist")) {
+                        throw new IllegalArgumentException(party);
+                    }
+                    query.won(party.equals("liberal"));
+                }
+                else if(args[i].equals("--min-rounds") && i + 1 < args.length) {
+                    query.roundsAtLeast(Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equals("--max-rounds") && i + 1 < args.length) {
+                    query.roundsAtMost(Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equals("--hitler-seat") && i + 1 < args.length) {
+                    query.hitlerAt(Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equals("--fascist-seat") && i + 1 < args.length) {
+                    query.fascistAt(Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equals("--power") && i + 1 < args.length) {
+                    query.fired(Power.valueOf(args[++i].toUpperCase()));
+                }
+                else if(args[i].equals("--no-power") && i + 1 < args.length) {
+                    query.notFired(Power.valueOf(args[++i].toUpperCase()));
+                }
+                else if(args[i].equals("--min-vetoes") && i + 1 < args.length) {
+                    query.vetoesAtLeast(Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equals("--max-vetoes") && i + 1 < args.length) {
+                    query.vetoesAtMost(Integer.parseInt(args[++i]));
+                }
+                else if(args[i].equals("--shot") && i + 2 < args.length) {
+                    query.shot(Role.valueOf(args[++i].toUpperCase()),
+                            Role.valueOf(args[++i].toUpperCase()));
+                }
+                else if(args[i].equals("--print")) {
+                    print = true;
+                }
+                else {
+                    System.err.println("Unknown option or missing value: " + option);
+                    usage(System.err);
+                    System.exit(1);
+                }
+            }
+        }
+        catch(IllegalArgumentException e) {
+            System.err.println("Invalid value for " + option + ": " + e.getMessage());
+            usage(System.err);
+            System.exit(1);
+        }
+        long[] matches = query.offsets();
+        double queryMillis = (System.nanoTime() - start) / 1e6;
+
+        for(long offset : matches) {
+            if(print) {
+                System.out.print(trace.toString(offset));
+            }
+            else {
+                System.out.printf("Game %d: %s after %d rounds\n", trace.getIndex(offset),
+                        trace.getEndCause(offset), trace.getRounds(offset));
+            }
+        }
+        System.out.printf("%d of %d games match, index opened in %.1f ms, queried in %.3f ms\n",
+                matches.length, index.size(), openMillis, queryMillis);
+    }
+
+    /**
+     * Prints how main is called and the values its enumerated options take
+     *
+     * @param out destination of the usage
+     */
+    private static void usage(PrintStream out) {
+        out.println("Usage: TraceIndex FILE [--cause C] [--won liberal|fascist] " +
+                "[--min-rounds R] [--max-rounds R] [--hitler-seat S] [--fascist-seat S] " +
+                "[--power P] [--no-power P] [--min-vetoes K] [--max-vetoes K] " +
+                "[--shot SHOOTER VICTIM] [--print]");
+        out.println("Causes: " + Arrays.toString(EndCause.values()));
+        out.println("Powers: " + Arrays.toString(Power.values()));
+        out.println("Roles: " + Arrays.toString(Role.values()));
+    }
+}
@@ -0,0 +1,473 @@
+package game;
+
+import actions.ActionLog;
+import enums.ActionType;
+import enums.EndCause;
+import enums.KnowledgeLevel;
+import enums.Policy;
+import enums.Role;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a trace file written by TraceWriter, mapped into memory
+ * Records are addressed by their byte offset in the file: first() is the offset of the first
+ *   record, next(offset) the offset of the one after it and end() the offset past the last one
+ * The mapping is split into segments so that traces are not held to the 2GB of one mapping;
+ *   each segment also maps the first bytes of the next, so a field is always read from the
+ *   segment its first byte falls in
+ * The main method pretty-prints recorded games or replays them from their seeds to check that
+ *   the current code still plays them the same way
+ */
+public class TraceReader {
+
+    private static final ActionType[] TYPES = ActionType.values();
+    private static final Policy[] POLICIES = Policy.values();
+    private static final EndCause[] CAUSES = EndCause.values();
+    private static final Role[] ROSTER_ROLES = {Role.LIBERAL, Role.LIBERAL, Role.LIBERAL,
+            Role.LIBERAL, Role.FASCIST, Role.FASCIST, Role.HITLER}; //Roles in Game.layout order
+
+    private static final int SEGMENT_SHIFT = 30;    //Bytes per mapped segment, as a power of two
+    private static final int OVERLAP = Long.BYTES;  //Bytes of the next segment mapped with each
+
+    private final long size;                    //Bytes in the file
+    private final MappedByteBuffer[] segments;  //The mapped file, read with absolute gets only
+
+    /**
+     * Constructor, maps a trace file
+     *
+     * @param file the trace file written by TraceWriter
+     * @throws IOException if the file cannot be mapped or is not a trace
+     */
+    public TraceReader(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size >>> SEGMENT_SHIFT) + 1)];
+            for(int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                long length = Math.min(size - start, (1L << SEGMENT_SHIFT) + OVERLAP);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+        }
+        if(size < TraceWriter.HEADER || getInt(0) != TraceWriter.MAGIC ||
+                getInt(4) != TraceWriter.VERSION) {
+            throw new IOException(file + " is not a trace");
+        }
+    }
+
+    /**
+     * Gets the master seed of the run the trace was recorded from
+     *
+     * @return the master seed
+     */
+    public long getMasterSeed() {
+        return getLong(8);
+    }
+
+    /**
+     * Gets the offset of the first record
+     *
+     * @return the offset of the first record, end() if the trace is empty
+     */
+    public long first() {
+        return TraceWriter.HEADER;
+    }
+
+    /**
+     * Gets the offset of the record after a record
+     *
+     * @param offset offset of a record
+     * @return the offset of the next record, end() if it was the last one
+     */
+    public long next(long offset) {
+        return offset + TraceWriter.RECORD + getNumActions(offset) * TraceWriter.ACTION;
+    }
+
+    /**
+     * Gets the offset past the last record
+     *
+     * @return the size of the file
+     */
+    public long end() {
+        return size;
+    }
+
+    /**
+     * Finds the record of a game
+     *
+     * @param index index of the game in its run
+     * @return the offset of its record, -1 if it was not recorded
+     */
+    public long find(long index) {
+        for(long offset = first(); offset < end(); offset = next(offset)) {
+            if(getIndex(offset) == index) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the index of a recorded game in its run
+     *
+     * @param offset offset of the game's record
+     * @return the index of the game
+     */
+    public long getIndex(long offset) {
+        return getLong(offset);
+    }
+
+    /**
+     * Gets the seed a recorded game was played from
+     *
+     * @param offset offset of the game's record
+     * @return the seed of the game
+     */
+    public long getSeed(long offset) {
+        return getLong(offset + 8);
+    }
+
+    /**
+     * Gets the rank of a recorded game's role layout
+     *
+     * @param offset offset of the game's record
+     * @return the rank of the layout, see Game.layout
+     */
+    public int getLayoutRank(long offset) {
+        return getByte(offset + 16);
+    }
+
+    /**
+     * Gets why a recorded game ended
+     *
+     * @param offset offset of the game's record
+     * @return the reason the game ended
+     */
+    public EndCause getEndCause(long offset) {
+        return CAUSES[getByte(offset + 17)];
+    }
+
+    /**
+     * Gets the number of rounds a recorded game lasted
+     *
+     * @param offset offset of the game's record
+     * @return the number of rounds
+     */
+    public int getRounds(long offset) {
+        return getShort(offset + 18) & 0xFFFF;
+    }
+
+    /**
+     * Gets the number of actions in a recorded game's log
+     *
+     * @param offset offset of the game's record
+     * @return the number of actions
+     */
+    public int getNumActions(long offset) {
+        return getShort(offset + 20) & 0xFFFF;
+    }
+
+    /**
+     * Gets the role of every player of a recorded game
+     *
+     * @param offset offset of the game's record
+     * @return the role of each player, indexed by ID
+     */
+    public Role[] getRoles(long offset) {
+        int[] ids = new int[SeatTable.NUM_SEATS];
+        Game.layout(getLayoutRank(offset), ids);
+        Role[] roles = new Role[SeatTable.NUM_SEATS];
+        for(int i = 0; i < ids.length; i++) {
+            roles[ids[i]] = ROSTER_ROLES[i];
+        }
+        return roles;
+    }
+
+    /**
+     * Gets the ID of the player who took an action of a recorded game
+     *
+     * @param offset offset of the game's record
+     * @param action index of the action in the game's log
+     * @return the actor's ID
+     */
+    public int getActorId(long offset, int action) {
+        return getByte(actionOffset(offset, action));
+    }
+
+    /**
+     * Gets the type of an action of a recorded game
+     *
+     * @param offset offset of the game's record
+     * @param action index of the action in the game's log
+     * @return the type of action
+     */
+    public ActionType getType(long offset, int action) {
+        return TYPES[getByte(actionOffset(offset, action) + 1)];
+    }
+
+    /**
+     * Gets the first operand of an action of a recorded game
+     *
+     * @param offset offset of the game's record
+     * @param action index of the action in the game's log
+     * @return a Policy ordinal for actions on policies, a player ID otherwise
+     */
+    public int getFirst(long offset, int action) {
+        return getByte(actionOffset(offset, action) + 2);
+    }
+
+    /**
+     * Gets the second operand of an action of a recorded game
+     *
+     * @param offset offset of the game's record
+     * @param action index of the action in the game's log
+     * @return a Policy ordinal or player ID, ActionLog.NONE if the action has a single operand
+     */
+    public int getSecond(long offset, int action) {
+        return getByte(actionOffset(offset, action) + 3);
+    }
+
+    /**
+     * Gets the players who observed an action of a recorded game
+     *
+     * @param offset offset of the game's record
+     * @param action index of the action in the game's log
+     * @return mask of the IDs who observed the action
+     */
+    public int getReceivers(long offset, int action) {
+        return getByte(actionOffset(offset, action) + 4) & 0x7F;
+    }
+
+    /**
+     * Gets the players who saw the policies of an action of a recorded game
+     *
+     * @param offset offset of the game's record
+     * @param action index of the action in the game's log
+     * @return mask of the IDs who saw the policies of the action
+     */
+    public int getVisible(long offset, int action) {
+        return getByte(actionOffset(offset, action) + 5) & 0x7F;
+    }
+
+    /**
+     * Produces a String representation of an action of a recorded game, in the format of
+     *   Action.toString
+     *
+     * @param offset offset of the game's record
+     * @param action index of the action in the game's log
+     * @param roles role of each player, see getRoles
+     * @return a String representation of the action
+     */
+    public String toString(long offset, int action, Role[] roles) {
+        int actor = getActorId(offset, action);
+        ActionType type = getType(offset, action);
+        StringBuilder out = new StringBuilder();
+        out.append(roles[actor]).append(" ").append(actor).append(" ").append(type);
+        int[] operands = {getFirst(offset, action), getSecond(offset, action)};
+        for(int operand : operands) {
+            if(operand == ActionLog.NONE) {
+                continue;
+            }
+            if(type.isPolicyAction) {
+                out.append(" ").append(POLICIES[operand]);
+            }
+            else {
+                out.append(" ").append(roles[operand]).append(" ").append(operand);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Produces a String representation of a recorded game: its outcome, roles and every action
+     *
+     * @param offset offset of the game's record
+     * @return a String representation of the game, one line per action
+     */
+    public String toString(long offset) {
+        Role[] roles = getRoles(offset);
+        StringBuilder out = new StringBuilder();
+        out.append("Game ").append(getIndex(offset)).append(" (seed ").append(getSeed(offset))
+                .append("): ").append(getEndCause(offset)).append(" after ")
+                .append(getRounds(offset)).append(" rounds\n");
+        out.append("Roles by ID:");
+        for(Role role : roles) {
+            out.append(" ").append(role);
+        }
+        out.append("\n");
+        for(int i = 0; i < getNumActions(offset); i++) {
+            out.append("  ").append(toString(offset, i, roles)).append("\n");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Replays a recorded game from its seed and compares it with the record
+     *
+     * @param offset offset of the game's record
+     * @param game game to replay it on, reset and set to FULL
+     * @return index of the first action that differs, the number of actions if only the outcome
+     *         differs, -1 if the replay matches the record
+     */
+    public int replay(long offset, Game game) {
+        game.setKnowledge(KnowledgeLevel.FULL);
+        game.reset(getSeed(offset));
+        game.round();
+        int numActions = getNumActions(offset);
+        ByteBuffer entry = ByteBuffer.allocate(TraceWriter.ACTION);
+        for(int i = 0; i < numActions; i++) {
+            if(i >= game.actions.size()) {
+                return i;
+            }
+            entry.clear();
+            game.actions.put(i, entry);
+            entry.flip();
+            long at = actionOffset(offset, i);
+            if(!entry.equals(segment(at).slice(local(at), TraceWriter.ACTION))) {
+                return i;
+            }
+        }
+        if(game.actions.size() != numActions || game.getEndCause() != getEndCause(offset) ||
+                game.numRounds != getRounds(offset)) {
+            return numActions;
+        }
+        return -1;
+    }
+
+    /**
+     * Prints a trace file
+     * Lists one line per recorded game if no option is provided
+     * Accepts --game I to pretty-print game I action by action
+     * Accepts --replay to re-run the listed games from their seeds and report those that no
+     *   longer play out as recorded
+     *
+     * @param args the trace file, optionally followed by --game I and --replay
+     * @throws IOException if the trace cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0) {
+            System.out.println("Usage: TraceReader FILE [--game I] [--replay]");
+            return;
+        }
+        TraceReader trace = new TraceReader(Paths.get(args[0]));
+        long gameIndex = -1;
+        boolean replay = false;
+        for(int i = 1; i < args.length; i++) {
+            if(args[i].equals("--game") && i + 1 < args.length) {
+                gameIndex = Long.parseLong(args[++i]);
+            }
+            else if(args[i].equals("--replay")) {
+                replay = true;
+            }
+        }
+
+        Game game = new Game(0);
+        long games = 0;
+        long mismatches = 0;
+        for(long offset = trace.first(); offset < trace.end(); offset = trace.next(offset)) {
+            if(gameIndex >= 0 && trace.getIndex(offset) != gameIndex) {
+                continue;
+            }
+            games++;
+            if(gameIndex >= 0) {
+                System.out.print(trace.toString(offset));
+            }
+            else if(!replay) {
+                System.out.printf("Game %d: %s after %d rounds, %d actions\n",
+                        trace.getIndex(offset), trace.getEndCause(offset),
+                        trace.getRounds(offset), trace.getNumActions(offset));
+            }
+            if(replay) {
+                int differs = trace.replay(offset, game);
+                if(differs >= 0) {
+                    mismatches++;
+                    System.out.printf("Game %d differs from action %d on\n",
+                            trace.getIndex(offset), differs);
+                }
+            }
+        }
+        System.out.printf("%d games read from %s (master seed %d)\n", games, args[0],
+                trace.getMasterSeed());
+        if(replay) {
+            System.out.printf("%d games replayed, %d no longer play out as recorded\n", games,
+                    mismatches);
+        }
+    }
+
+    /**
+     * Gets the byte offset of an action of a recorded game
+     *
+     * @param offset offset of the game's record
+     * @param action index of the action in the game's log
+     * @return the offset of the action in the file
+     */
+    private static long actionOffset(long offset, int action) {
+        return offset + TraceWriter.RECORD + action * TraceWriter.ACTION;
+    }
+
+    /**
+     * Gets the mapped segment holding a byte of the file
+     *
+     * @param at offset of the byte in the file
+     * @return the segment
+     */
+    private MappedByteBuffer segment(long at) {
+        return segments[(int) (at >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * Gets the offset of a byte of the file in its segment
+     *
+     * @param at offset of the byte in the file
+     * @return the offset in the segment
+     */
+    private static int local(long at) {
+        return (int) (at & ((1L << SEGMENT_SHIFT) - 1));
+    }
+
+    /**
+     * Reads a byte of the file
+     *
+     * @param at offset of the byte in the file
+     * @return the byte
+     */
+    private byte getByte(long at) {
+        return segment(at).get(local(at));
+    }
+
+    /**
+     * Reads a short of the file
+     *
+     * @param at offset of its first byte in the file
+     * @return the short
+     */
+    private short getShort(long at) {
+        return segment(at).getShort(local(at));
+    }
+
+    /**
+     * Reads an int of the file
+     *
+     * @param at offset of its first byte in the file
+     * @return the int
+     */
+    private int getInt(long at) {
+        return segment(at).getInt(local(at));
+    }
+
+    /**
+     * Reads a long of the file
+     *
+     * @param at offset of its first byte in the file
+     * @return the long
+     */
+    private long getLong(long at) {
+        return segment(at).getLong(local(at));
+    }
+}
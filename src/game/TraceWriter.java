@@ -0,0 +1,232 @@
+package game;
+
+import enums.EndCause;
+import enums.KnowledgeLevel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a sample of finished games to a binary trace file through a buffered NIO channel
+ * The file starts with a header of MAGIC, VERSION and the master seed of the run, then holds one
+ *   record per sampled game: its index, seed, layout rank, end cause, rounds and number of
+ *   actions, followed by ACTION bytes per entry of its log, see ActionLog.put
+ * A game is sampled if its index is a multiple of every and, with a cause filter, it ended for
+ *   that cause
+ * Records need the full log, so a game played at a lower knowledge level is replayed from its
+ *   seed at FULL once it is sampled; only sampled games pay for the log
+ * Games are recorded to a Batch, which holds their records in memory until the batch is written,
+ *   so a run that drops a batch it played, see GameRunner.runUntil, leaves its games out of the
+ *   trace as it leaves them out of its tally
+ * Records are appended a batch at a time in the order batches are written, which with several
+ *   threads is not always index order, see TraceReader
+ */
+public class TraceWriter implements Closeable {
+
+    static final int MAGIC = 0x53485452;        //Marks a trace file
+    static final int VERSION = 1;               //Version of the record layout
+    static final int HEADER = 16;               //Bytes before the first record
+    static final int RECORD = 22;               //Bytes of a record before its actions
+    static final int ACTION = 6;                //Bytes per action
+    private static final int BUFFER_SIZE = 1 << 20; //Bytes buffered between writes to the file
+    private static final int BATCH_SIZE = 1 << 16;  //Bytes a batch starts out holding
+
+    private final FileChannel channel;  //The trace file
+    private final ByteBuffer buffer;    //Records not yet written to the file
+    private final long every;           //Only games whose index is a multiple of this are sampled
+    private final EndCause cause;       //Only games that ended this way are sampled, null for all
+    private long numRecords;            //Number of games recorded
+
+    /**
+     * Constructor, creates or truncates the trace file and writes its header
+     *
+     * @param file destination of the trace
+     * @param masterSeed master seed of the run, kept in the header
+     * @param every sample games whose index is a multiple of every, 1 for every game
+     * @param cause sample only games that ended this way, null for every outcome
+     * @throws IOException if the file cannot be opened
+     */
+    public TraceWriter(Path file, long masterSeed, long every, EndCause cause) throws IOException {
+        assert(every >= 1);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.every = every;
+        this.cause = cause;
+        numRecords = 0;
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(masterSeed);
+    }
+
+    /**
+     * Determines if a finished game is sampled
+     *
+     * @param index index of the game in its run
+     * @param endCause why the game ended
+     * @return true if the game should be recorded
+     */
+    public boolean samples(long index, EndCause endCause) {
+        return index % every == 0 && (cause == null || cause == endCause);
+    }
+
+    /**
+     * Determines if every game is sampled, in which case games are best played at FULL rather
+     *   than replayed
+     *
+     * @return true if there is no sampling
+     */
+    public boolean samplesAll() {
+        return every == 1 && cause == null;
+    }
+
+    /**
+     * Starts a batch of records, which reach the file only once written
+     *
+     * @return an empty batch
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * Appends the records of a batch to the file
+     *
+     * @param batch the batch, which is not written to again
+     * @throws UncheckedIOException if the trace cannot be written
+     */
+    public synchronized void write(Batch batch) {
+        ByteBuffer records = batch.records.flip();
+        if(buffer.remaining() < records.remaining()) {
+            flush();
+        }
+        if(buffer.remaining() < records.remaining()) {
+            write(records);
+        }
+        else {
+            buffer.put(records);
+        }
+        numRecords += batch.numRecords;
+    }
+
+    /**
+     * Gets the number of games recorded so far
+     *
+     * @return the number of records
+     */
+    public synchronized long getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Writes the buffered records to the file and closes it
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        }
+        catch(UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the file
+     *
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    private void flush() {
+        write(buffer.flip());
+        buffer.clear();
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer to the file
+     *
+     * @param bytes the bytes to write
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    private void write(ByteBuffer bytes) {
+        try {
+            while(bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records of the sampled games of a batch, held in memory until the batch is written
+     * A batch is filled by a single thread
+     */
+    public class Batch {
+
+        private ByteBuffer records;     //Records of the batch, grown as needed
+        private long numRecords;        //Number of games recorded
+
+        /**
+         * Constructor, holds no records
+         */
+        private Batch() {
+            records = ByteBuffer.allocate(BATCH_SIZE);
+            numRecords = 0;
+        }
+
+        /**
+         * Records a finished game if it is sampled, replaying it at FULL if its log was not kept
+         *
+         * @precondition game was reset with seed, without a tablebase
+         * @param index index of the game in its run
+         * @param seed seed the game was reset with
+         * @param game the finished game
+         * @param replay game to replay it on, with the same parameters
+         */
+        public void record(long index, long seed, Game game, Game replay) {
+            if(!samples(index, game.getEndCause())) {
+                return;
+            }
+            if(game.getKnowledge() != KnowledgeLevel.FULL) {
+                replay.setKnowledge(KnowledgeLevel.FULL);
+                replay.reset(seed);
+                replay.round();
+                game = replay;
+            }
+            write(index, seed, game);
+        }
+
+        /**
+         * Appends the record of a finished game played at FULL
+         *
+         * @param index index of the game in its run
+         * @param seed seed the game was reset with
+         * @param game the finished game
+         */
+        public void write(long index, long seed, Game game) {
+            int numActions = game.actions.size();
+            int size = RECORD + numActions * ACTION;
+            if(records.remaining() < size) {
+                ByteBuffer grown = ByteBuffer.allocate(
+                        Math.max(records.capacity() * 2, records.position() + size));
+                records = grown.put(records.flip());
+            }
+            records.putLong(index).putLong(seed);
+            records.put((byte) game.getLayoutRank()).put((byte) game.getEndCause().ordinal());
+            records.putShort((short) game.numRounds).putShort((short) numActions);
+            for(int i = 0; i < numActions; i++) {
+                game.actions.put(i, records);
+            }
+            numRecords++;
+        }
+    }
+}
@@ -0,0 +1,552 @@
+package players;
+
+import enums.Decision;
+import enums.Party;
+import enums.Policy;
+import enums.Role;
+import game.Game;
+import game.Hand;
+import game.RegretTable;
+
+import java.util.Arrays;
+
+/**
+ * Implements a player of any role that plays a strategy trained by Monte Carlo counterfactual
+ *   regret minimization, see CfrTrainer
+ * Information sets are abstracted into a key of a single long: the decision, the player's role,
+ *   the board, the election tracker, veto power and the number of alive players, then what the
+ *   player holds: the liberal policies in its hand, or how it sees the government it votes on
+ * Players are seen through one of a few categories: their known party, Hitler for the fascists
+ *   who know him, or among the less or more suspect half of the players whose party is unknown
+ * Nominating and shooting pick a category, then a random player in it; discarding and playing
+ *   pick a party; voting and vetoing pick no or yes
+ * While training, the player samples its moves from the regret-matching strategy of the table
+ *   and, if it is the traverser of the game, records them for the outcome-sampling update of
+ *   finish; otherwise it samples its moves from the average strategy and falls back on the
+ *   strategy of its role in information sets the table has not seen
+ * Investigations and special elections are left to the strategy of its role
+ */
+public class CfrPlayer extends Player {
+
+    public static final double EXPLORATION = .6;    //Share of uniform moves the traverser samples
+    private static final int NUM_ACTIONS = RegretTable.MAX_ACTIONS;
+    private static final int LIBERAL = 0;           //Category of a known liberal
+    private static final int FASCIST = 1;           //Category of a known fascist
+    private static final int HITLER = 2;            //Category of a known Hitler
+    private static final int TRUSTED = 3;           //Category of the less suspect unknown players
+    private static final int SUSPECTED = 4;         //Category of the more suspect unknown players
+    private static final int SELF = 5;              //Category of the player itself
+
+    private final Player strategy;      //Strategy of the player's role, never seated
+    private final RegretTable table;    //Regrets and average strategies by information set
+    private final int[] candidates;     //Player index of each candidate of a decision
+    private final int[] categories;     //Category of each candidate
+    private final int[] unknown;        //Scratch space for the suspicions of unknown players
+    private final double[] sigma;       //Probability of each action at the current decision
+    private boolean training;           //If the player samples from the regret-matching strategy
+    private boolean traversing;         //If the player records its moves for finish
+    private int threshold;              //Highest suspicion of a trusted player at this decision
+
+    private long[] slots;               //Slot of each decision recorded this game
+    private int[] actions;              //Action taken at each decision recorded this game
+    private int[] masks;                //Actions available at each decision recorded this game
+    private double[] sigmas;            //Regret-matching strategy at each decision recorded
+    private double[] samples;           //Probability the taken action was sampled with
+    private double[] reaches;           //Scratch space for the reach before each decision
+    private int numSteps;               //Number of decisions recorded this game
+
+    /**
+     * Constructor, the player starts out playing the table's average strategy
+     *
+     * @param id unique identifier for the player
+     * @param game game the player is taking part in
+     * @param role the player's role
+     * @param table regrets and average strategies by information set
+     */
+    public CfrPlayer(int id, Game game, Role role, RegretTable table) {
+        super(id, game);
+        this.role = role;
+        party = role == Role.LIBERAL ? Party.LIBERAL : Party.FASCIST;
+        strategy = role == Role.LIBERAL ? new Liberal(id, game) :
+                role == Role.FASCIST ? new Fascist(id, game) : new Hitler(id, game);
+        this.table = table;
+        candidates = new int[7];
+        categories = new int[7];
+        unknown = new int[7];
+        sigma = new double[NUM_ACTIONS];
+        slots = new long[16];
+        actions = new int[16];
+        masks = new int[16];
+        sigmas = new double[16 * NUM_ACTIONS];
+        samples = new double[16];
+        reaches = new double[16];
+        training = false;
+        traversing = false;
+        reset(id);
+    }
+
+    /**
+     * Prepares the player for a new game, forgetting everything learned in the previous one
+     *
+     * @param id the player's new unique identifier
+     */
+    @Override
+    public void reset(int id) {
+        super.reset(id);
+        strategy.reset(id);
+        numSteps = 0;
+    }
+
+    /**
+     * Sets how the player picks its moves, best set after the game is reset
+     *
+     * @param training true to sample from the regret-matching strategy, false to play the
+     *                 average strategy
+     * @param traversing true to record the moves for finish, only while training
+     */
+    public void setTraining(boolean training, boolean traversing) {
+        this.training = training;
+        this.traversing = training && traversing;
+        numSteps = 0;
+    }
+
+    /**
+     * Updates the regrets and average strategy of every decision recorded this game by outcome
+     *   sampling: the outcome is weighed by the inverse of the probability the traverser sampled
+     *   its moves with, the other players sampled theirs from their current strategy so that
+     *   their reach cancels out
+     * The regret of the taken action grows by its sampled counterfactual value times one minus
+     *   its probability, the regret of every other action drops by that value times the taken
+     *   action's probability; the average strategy is weighted by the traverser's reach over the
+     *   probability it was sampled with
+     *
+     * @param utility the traverser's payoff, 1 for a win and -1 for a loss
+     */
+    public void finish(double utility) {
+        //The traverser's reach over its sampling probability before each decision
+        double sampled = 1;
+        for(int step = 0; step < numSteps; step++) {
+            reaches[step] = step == 0 ? 1 : reaches[step - 1] *
+                    sigmas[(step - 1) * NUM_ACTIONS + actions[step - 1]] / samples[step - 1];
+            sampled *= samples[step];
+        }
+        //Walks back so that tail is the traverser's reach from after each decision to the end
+        double tail = 1;
+        for(int step = numSteps - 1; step >= 0; step--) {
+            double taken = sigmas[step * NUM_ACTIONS + actions[step]];
+            double value = utility * tail / sampled;
+            for(int a = 0; a < NUM_ACTIONS; a++) {
+                if((masks[step] & (1 << a)) == 0) {
+                    continue;
+                }
+                double regret = a == actions[step] ? value * (1 - taken) : -value * taken;
+                table.addRegret(slots[step], a, (float) regret);
+                table.addAverage(slots[step], a,
+                        (float) (reaches[step] * sigmas[step * NUM_ACTIONS + a]));
+            }
+            tail *= taken;
+        }
+        numSteps = 0;
+    }
+
+    /**
+     * Copies the player onto a fork of its game as the strategy of its role, which holds what
+     *   the player learned
+     *
+     * @param game the fork the copy takes part in
+     * @return the copy, not yet seated
+     */
+    @Override
+    public Player fork(Game game) {
+        return strategy.fork(game);
+    }
+
+    /**
+     * Shows another player's party to the strategy, which keeps what the player learns
+     *
+     * @param playerId ID of the player whose party is shown
+     */
+    @Override
+    public void showParty(int playerId) {
+        strategy.showParty(playerId);
+    }
+
+    /**
+     * Shows every player's role to the strategy
+     */
+    @Override
+    public void viewRoles() {
+        strategy.viewRoles();
+    }
+
+    /**
+     * Determines if the player's strategy reads its suspicions
+     * Players who do not see every role sort the unknown players by suspicion
+     *
+     * @return true unless the player has the FASCIST role
+     */
+    @Override
+    public boolean usesSuspicions() {
+        return role != Role.FASCIST;
+    }
+
+    /**
+     * Chooses the next chancellor by category
+     *
+     * @precondition the current player is the president
+     * @return the index of a player other than the player or the previous chancellor
+     */
+    @Override
+    public int chooseChancellor() {
+        assert(isPresident());
+        int lastChancellor = game.getChancellorIndex();
+        int index = pickCandidate(Decision.CHANCELLOR, lastChancellor);
+        return index >= 0 ? index : strategy.chooseChancellor();
+    }
+
+    /**
+     * Handles drawing three cards from the deck and discarding one of the party picked
+     *
+     * @precondition the player is the president
+     * @return a hand of two policies for the chancellor to pick from
+     */
+    @Override
+    public int draw() {
+        assert(isPresident());
+        //Shuffle in discard if not enough cards in the deck
+        if(game.deck.size() < 3) {
+            game.shuffleInDiscard();
+        }
+        int hand = game.deck.drawThree();
+        int liberal = Hand.numLiberal(hand);
+        int discarded = decide(Decision.DISCARD, liberal, partyMask(liberal, 3));
+        if(discarded < 0) {
+            //The hand holds both parties, the player keeps its own
+            discarded = party.isLiberal ? 1 : 0;
+        }
+        int discard = find(hand, discarded == 0);
+        game.deck.discard(Hand.get(hand, discard));
+        return Hand.remove(hand, discard);
+    }
+
+    /**
+     * Plays a policy of the party picked, adding the unplayed policy to the discard
+     *
+     * @precondition the player is the chancellor
+     * @precondition Hand.size(policies) == 2
+     * @param policies hand of policies to be played
+     * @return the played policy
+     */
+    @Override
+    public Policy play(int policies) {
+        assert(isChancellor());
+        assert(Hand.size(policies) == 2);
+        int liberal = Hand.numLiberal(policies);
+        int played = decide(Decision.PLAY, liberal, partyMask(liberal, 2));
+        if(played < 0) {
+            return strategy.play(policies);
+        }
+        int index = find(policies, played == 0);
+        game.deck.discard(Hand.get(policies, 1 - index));
+        return Hand.get(policies, index);
+    }
+
+    /**
+     * Investigates a player by the strategy of the player's role
+     *
+     * @return the investigated player
+     */
+    @Override
+    public Player investigate() {
+        return strategy.investigate();
+    }
+
+    /**
+     * Determines if the player will vote for a president/chancellor combo by the categories of
+     *   the president and chancellor
+     *
+     * @param president the current president
+     * @param chancellor the current chancellor
+     * @return true if the player decides to vote for the combo, false otherwise
+     */
+    @Override
+    public boolean vote(Player president, Player chancellor) {
+        sortSuspicions();
+        int detail = category(president.getId()) << 3 | category(chancellor.getId());
+        int yes = decide(Decision.VOTE, detail, 3);
+        return yes < 0 ? strategy.vote(president, chancellor) : yes == 1;
+    }
+
+    /**
+     * Chooses the next president by the strategy of the player's role
+     *
+     * @precondition the player is the president
+     * @return the index of the next president
+     */
+    @Override
+    public int choosePresident() {
+        return strategy.choosePresident();
+    }
+
+    /**
+     * Shoots a player of the category picked
+     *
+     * @precondition the player is the president
+     * @return the killed player
+     */
+    @Override
+    public Player shoot() {
+        assert(isPresident());
+        int index = pickCandidate(Decision.SHOOT, -1);
+        return index >= 0 ? game.kill(index) : strategy.shoot();
+    }
+
+    /**
+     * Determines if the player will veto the two policies passed to the chancellor, by the
+     *   liberal policies among them and its office
+     *
+     * @precondition the player is the current president or current chancellor
+     * @param policies hand of policies the current president gave to the current chancellor
+     * @return true if the player will veto, false otherwise
+     */
+    @Override
+    public boolean veto(int policies) {
+        assert(isPresident() || isChancellor());
+        int detail = Hand.numLiberal(policies) << 1 | (isPresident() ? 1 : 0);
+        int yes = decide(Decision.VETO, detail, 3);
+        return yes < 0 ? strategy.veto(policies) : yes == 1;
+    }
+
+    /**
+     * Picks a category of the players other than this player and an excluded one, then a
+     *   random player in it
+     *
+     * @param decision CHANCELLOR or SHOOT
+     * @param excluded index of a player who cannot be picked, -1 if none
+     * @return the index of the picked player, -1 to leave the decision to the strategy
+     */
+    private int pickCandidate(Decision decision, int excluded) {
+        sortSuspicions();
+        int self = getPlayerIndex();
+        int numCandidates = 0;
+        int mask = 0;
+        for(int i = 0; i < game.players.size(); i++) {
+            if(i != self && i != excluded) {
+                candidates[numCandidates] = i;
+                categories[numCandidates] = category(game.players.get(i).getId());
+                mask |= 1 << categories[numCandidates++];
+            }
+        }
+        int picked = decide(decision, 0, mask);
+        if(picked < 0) {
+            return -1;
+        }
+        int count = 0;
+        for(int i = 0; i < numCandidates; i++) {
+            count += categories[i] == picked ? 1 : 0;
+        }
+        int chosen = count == 1 ? 0 : game.random.nextInt(count);
+        for(int i = 0; i < numCandidates; i++) {
+            if(categories[i] == picked && chosen-- == 0) {
+                return candidates[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Picks an action of a decision
+     *
+     * @param decision the decision
+     * @param detail what the player holds at the decision, see the class comment
+     * @param mask bit a is set if action a is available
+     * @return the action, -1 to leave the decision to the strategy
+     */
+    private int decide(Decision decision, int detail, int mask) {
+        if(Integer.bitCount(mask) == 1) {
+            return Integer.numberOfTrailingZeros(mask);
+        }
+        long key = key(decision, detail, mask);
+        if(!training) {
+            long slot = table.find(key);
+            if(slot < 0 || !weigh(slot, mask, true)) {
+                return -1;
+            }
+            return sample(mask, 0);
+        }
+        long slot = table.insert(key);
+        weigh(slot, mask, false);
+        if(!traversing) {
+            return sample(mask, 0);
+        }
+        int action = sample(mask, EXPLORATION);
+        record(slot, action, mask);
+        return action;
+    }
+
+    /**
+     * Builds the key of the information set of a decision
+     *
+     * @param decision the decision
+     * @param detail what the player holds at the decision
+     * @param mask bit a is set if action a is available
+     * @return the key, never 0
+     */
+    private long key(Decision decision, int detail, int mask) {
+        long key = 1;   //Marks the key as used, an empty slot of the table holds 0
+        key = (key << 3) | decision.ordinal();
+        key = (key << 2) | role.ordinal();
+        key = (key << 3) | game.numLiberalPolicies;
+        key = (key << 3) | game.numFascistPolicies;
+        key = (key << 2) | game.numFailed;
+        key = (key << 1) | (game.vetoPower ? 1 : 0);
+        key = (key << 3) | game.players.size();
+        key = (key << 6) | detail;
+        key = (key << NUM_ACTIONS) | mask;
+        return key;
+    }
+
+    /**
+     * Fills sigma with the regret-matching or average strategy of an information set
+     * Regret matching plays each action in proportion to its positive regret, and every available
+     *   action alike if none has any
+     *
+     * @param slot slot of the information set
+     * @param mask bit a is set if action a is available
+     * @param average true for the average strategy, false for regret matching
+     * @return false if the average strategy has no weight yet
+     */
+    private boolean weigh(long slot, int mask, boolean average) {
+        double total = 0;
+        for(int a = 0; a < NUM_ACTIONS; a++) {
+            double weight = 0;
+            if((mask & (1 << a)) != 0) {
+                weight = average ? table.getAverage(slot, a) : table.getRegret(slot, a);
+            }
+            sigma[a] = Math.max(weight, 0);
+            total += sigma[a];
+        }
+        if(total <= 0) {
+            for(int a = 0; a < NUM_ACTIONS; a++) {
+                sigma[a] = (mask & (1 << a)) != 0 ? 1.0 / Integer.bitCount(mask) : 0;
+            }
+            return !average;
+        }
+        for(int a = 0; a < NUM_ACTIONS; a++) {
+            sigma[a] /= total;
+        }
+        return true;
+    }
+
+    /**
+     * Samples an action from sigma mixed with the uniform strategy
+     *
+     * @param mask bit a is set if action a is available
+     * @param exploration share of the uniform strategy in the mix
+     * @return the sampled action
+     */
+    private int sample(int mask, double exploration) {
+        double uniform = exploration / Integer.bitCount(mask);
+        double pick = game.random.nextDouble();
+        int action = -1;
+        for(int a = 0; a < NUM_ACTIONS; a++) {
+            if((mask & (1 << a)) != 0) {
+                action = a;
+                pick -= uniform + (1 - exploration) * sigma[a];
+                if(pick < 0) {
+                    break;
+                }
+            }
+        }
+        return action;
+    }
+
+    /**
+     * Records a move of the traverser for finish
+     *
+     * @param slot slot of the information set
+     * @param action the action taken
+     * @param mask bit a is set if action a is available
+     */
+    private void record(long slot, int action, int mask) {
+        if(numSteps == slots.length) {
+            slots = Arrays.copyOf(slots, numSteps * 2);
+            actions = Arrays.copyOf(actions, numSteps * 2);
+            masks = Arrays.copyOf(masks, numSteps * 2);
+            sigmas = Arrays.copyOf(sigmas, numSteps * 2 * NUM_ACTIONS);
+            samples = Arrays.copyOf(samples, numSteps * 2);
+            reaches = new double[numSteps * 2];
+        }
+        slots[numSteps] = slot;
+        actions[numSteps] = action;
+        masks[numSteps] = mask;
+        System.arraycopy(sigma, 0, sigmas, numSteps * NUM_ACTIONS, NUM_ACTIONS);
+        samples[numSteps++] = EXPLORATION / Integer.bitCount(mask) +
+                (1 - EXPLORATION) * sigma[action];
+    }
+
+    /**
+     * Finds the highest suspicion among the less suspect half of the alive players whose party
+     *   the player does not know
+     */
+    private void sortSuspicions() {
+        int numUnknown = 0;
+        for(int i = 0; i < game.players.size(); i++) {
+            int other = game.players.get(i).getId();
+            if(other != id && strategy.playerParties[other] == null) {
+                unknown[numUnknown++] = suspicion(other);
+            }
+        }
+        Arrays.sort(unknown, 0, numUnknown);
+        threshold = numUnknown == 0 ? 0 : unknown[(numUnknown - 1) / 2];
+    }
+
+    /**
+     * Gets the category a player is seen through
+     *
+     * @precondition sortSuspicions was called for this decision
+     * @param playerId ID of the player
+     * @return the category of the player
+     */
+    private int category(int playerId) {
+        if(playerId == id) {
+            return SELF;
+        }
+        if(role == Role.FASCIST) {
+            Role playerRole = game.players.getById(playerId).getRole();
+            return playerRole == Role.LIBERAL ? LIBERAL : playerRole.isHitler ? HITLER : FASCIST;
+        }
+        Party known = strategy.playerParties[playerId];
+        if(known != null) {
+            return known.isLiberal ? LIBERAL : FASCIST;
+        }
+        return suspicion(playerId) <= threshold ? TRUSTED : SUSPECTED;
+    }
+
+    /**
+     * Builds the mask of the parties a hand holds, action 0 for liberal and 1 for fascist
+     *
+     * @param liberal liberal policies in the hand
+     * @param size number of policies in the hand
+     * @return the mask of the available actions
+     */
+    private static int partyMask(int liberal, int size) {
+        return (liberal > 0 ? 1 : 0) | (liberal < size ? 2 : 0);
+    }
+
+    /**
+     * Finds a policy of a party in a hand
+     *
+     * @param hand the hand
+     * @param liberal true to find a liberal policy
+     * @return the index of the first policy of the party
+     */
+    private static int find(int hand, boolean liberal) {
+        for(int i = 0; i < Hand.size(hand); i++) {
+            if(Hand.isLiberal(hand, i) == liberal) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,13 +1,12 @@
 package players;
 
-import actions.PolicyAction;
-import enums.ActionType;
 import enums.Party;
 import enums.Policy;
 import enums.Role;
 import game.Game;
+import game.Hand;
 
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
  * Implements strategy for a Fascist Player
@@ -27,22 +26,55 @@ public class Fascist extends Player {
         role = Role.FASCIST;
         party = Party.FASCIST;
         playerRoles = new Role[7];
-        playerParties = new Party[7];
-        for(int i = 0; i < playerParties.length; i++) {
-            playerParties[i] = i == this.id ? this.getParty() : null;
+        reset(id);
+    }
+
+    /**
+     * Prepares the player for a new game, forgetting the roles seen in the previous one
+     *
+     * @param id the player's new unique identifier
+     */
+    @Override
+    public void reset(int id) {
+        super.reset(id);
+        Arrays.fill(playerRoles, null);
+    }
+
+    /**
+     * Copies what another player of the same role learned, the roles it saw included
+     *
+     * @param other the player whose knowledge is copied
+     */
+    @Override
+    protected void copyKnowledge(Player other) {
+        super.copyKnowledge(other);
+        if(other instanceof Fascist) {
+            System.arraycopy(((Fascist) other).playerRoles, 0, playerRoles, 0, playerRoles.length);
         }
     }
 
     /**
      * Shows player roles to the fascist
      */
+    @Override
     public void viewRoles() {
         for(int i = 0; i < playerRoles.length; i++) {
-            playerParties[i] = game.players.get(i).getParty();
-            playerRoles[i] = game.players.get(i).getRole();
+            learnParty(i, game.players.getById(i).getParty());
+            playerRoles[i] = game.players.getById(i).getRole();
         }
     }
 
+    /**
+     * Determines if the fascist's strategy reads its suspicions
+     * Strategy picks by role and always votes yes, so suspicions are never read
+     *
+     * @return false
+     */
+    @Override
+    public boolean usesSuspicions() {
+        return false;
+    }
+
     /**
      * Chooses the next chancellor
      * Strategy is to pick the other fascist unless three fascist policies have been played, in
@@ -52,8 +84,8 @@ public class Fascist extends Player {
      * @return a random player index other than the player's or the previous chancellor's
      */
     public int chooseChancellor() {
-        assert(this == game.president);
-        if(game.fascistPolicies.size() < 3 && getOtherFascist() != -1) {
+        assert(isPresident());
+        if(game.numFascistPolicies < 3 && getOtherFascist() != -1) {
             return getOtherFascist();
         }
         else {
@@ -67,33 +99,28 @@ public class Fascist extends Player {
      * Will discard a liberal policy if one is present
      *
      * @precondition the player is the president
-     * @return two policies for the chancellor to pick from
+     * @return a hand of two policies for the chancellor to pick from
      */
-    public LinkedList<Policy> draw() {
-        assert(this == game.president);
+    public int draw() {
+        assert(isPresident());
         //Shuffle in discard if not enough cards in the deck
         if(game.deck.size() < 3) {
             game.shuffleInDiscard();
         }
-        LinkedList<Policy> hand = new LinkedList<Policy>();
         //Draw three cards from the deck
-        for(int i = 0; i < 3; i++) {
-            hand.add(game.deck.pop());
-        }
+        int hand = game.deck.drawThree();
         //Discard a liberal policy if it exists in the hand
-        for(Policy policy : hand) {
-            if(policy.isLiberal) {
-                game.discard.push(policy);
-                hand.remove(policy);
+        //If there isn't a liberal policy, discard the first fascist policy
+        int discard = 0;
+        for(int i = 0; i < 3; i++) {
+            if(Hand.isLiberal(hand, i)) {
+                discard = i;
                 break;
             }
         }
-        //If there isn't a fascist policy, discard the first fascist policy
-        if(hand.size() == 3) {
-            game.discard.add(hand.remove(0));
-        }
+        game.deck.discard(Hand.get(hand, discard));
         //Returns the remaining two cards
-        return hand;
+        return Hand.remove(hand, discard);
     }
 
     /**
@@ -101,38 +128,38 @@ public class Fascist extends Player {
      * Will play a fascist policy if one is present and three liberal cards have been played
      *
      * @precondition the player is the chancellor
-     * @precondition policies.size() == 2
-     * @param policies policies to be played
+     * @precondition Hand.size(policies) == 2
+     * @param policies hand of policies to be played
      * @return the played policy
      */
-    public Policy play(LinkedList<Policy> policies) {
-        assert(this == game.chancellor);
-        assert(policies.size() == 2);
+    public Policy play(int policies) {
+        assert(isChancellor());
+        assert(Hand.size(policies) == 2);
         //If both policies are the same, discard the first and return the other
-        if(policies.get(0).isLiberal == policies.get(0).isLiberal) {
-            game.discard.push(policies.get(0));
-            return policies.get(1);
+        if(Hand.isLiberal(policies, 0) == Hand.isLiberal(policies, 0)) {
+            game.deck.discard(Hand.get(policies, 0));
+            return Hand.get(policies, 1);
         }
         //If fewer than three liberal policies have been played, play a liberal policy
-        if(game.liberalPolicies.size() < 3) {
-            if(policies.get(0).isLiberal) {
-                game.discard.push(policies.get(1));
-                return policies.get(0);
+        if(game.numLiberalPolicies < 3) {
+            if(Hand.isLiberal(policies, 0)) {
+                game.deck.discard(Hand.get(policies, 1));
+                return Hand.get(policies, 0);
             }
             else {
-                game.discard.push(policies.get(0));
-                return policies.get(1);
+                game.deck.discard(Hand.get(policies, 0));
+                return Hand.get(policies, 1);
             }
         }
         //Otherwise, play a fascist policy
         else {
-            if(!policies.get(0).isLiberal) {
-                game.discard.push(policies.get(1));
-                return policies.get(0);
+            if(!Hand.isLiberal(policies, 0)) {
+                game.deck.discard(Hand.get(policies, 1));
+                return Hand.get(policies, 0);
             }
             else {
-                game.discard.push(policies.get(0));
-                return policies.get(1);
+                game.deck.discard(Hand.get(policies, 0));
+                return Hand.get(policies, 1);
             }
         }
     }
@@ -147,7 +174,7 @@ public class Fascist extends Player {
      * @return true if the player decides to vote for the combo, false otherwise
      */
     public boolean vote(Player president, Player chancellor){
-        return !(game.liberalPolicies.size() == 5 && playerParties[chancellor.getId()].isLiberal);
+        return !(game.numLiberalPolicies == 5 && playerParties[chancellor.getId()].isLiberal);
     }
 
     /**
@@ -159,10 +186,8 @@ public class Fascist extends Player {
      * @return the index of a random player to be selected as the chancellor
      */
     public int choosePresident() {
-        assert(this == game.president);
-        assert(game.fascistPolicies.size() == 3 &&
-                game.actions.getLast().getType() == ActionType.PLAY &&
-                ((PolicyAction)game.actions.getLast()).getPolicy() == Policy.FASCIST);
+        assert(isPresident());
+        assert(game.numFascistPolicies == 3 && playedFascist());
         return getOtherFascist() != -1 ? getOtherFascist() : getHitler();
     }
 
@@ -175,10 +200,8 @@ public class Fascist extends Player {
      * @return the killed player
      */
     public Player shoot() {
-        assert(this == game.president);
-        assert(game.fascistPolicies.size() == 4 || game.fascistPolicies.size() == 5 &&
-                game.actions.getLast().getType() == ActionType.PLAY &&
-                ((PolicyAction)game.actions.getLast()).getPolicy() == Policy.FASCIST);
+        assert(isPresident());
+        assert((game.numFascistPolicies == 4 || game.numFascistPolicies == 5) && playedFascist());
         return game.kill(getRandomLiberal());
     }
 
@@ -188,13 +211,13 @@ public class Fascist extends Player {
      *
      * @precondition veto power is enabled
      * @precondition the player is the current president or current chancellor
-     * @param policies the policies the current president gave to the current chancellor
+     * @param policies hand of policies the current president gave to the current chancellor
      * @return true if the player will veto, false otherwise
      */
-    public boolean veto(LinkedList<Policy> policies) {
+    public boolean veto(int policies) {
         assert(game.vetoPower);
-        assert(this == game.president || this == game.chancellor);
-        return policies.get(0).isLiberal && policies.get(1).isLiberal;
+        assert(isPresident() || isChancellor());
+        return Hand.numLiberal(policies) == 2;
     }
 
     /**
@@ -231,12 +254,19 @@ public class Fascist extends Player {
      * @return a random liberal's index
      */
     private int getRandomLiberal() {
-        LinkedList<Player> liberals = new LinkedList<>();
-        for(Player player : game.players) {
-            if(player.getRole() == Role.LIBERAL) {
-                liberals.add(player);
+        int numLiberals = 0;
+        for(int i = 0; i < game.players.size(); i++) {
+            if(game.players.get(i).getRole() == Role.LIBERAL) {
+                numLiberals++;
             }
         }
-        return liberals.get((int)(Math.random() * liberals.size())).getPlayerIndex();
+        //Walks to the chosen liberal in index order
+        int chosen = game.random.nextInt(numLiberals);
+        for(int i = 0; i < game.players.size(); i++) {
+            if(game.players.get(i).getRole() == Role.LIBERAL && chosen-- == 0) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
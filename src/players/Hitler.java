@@ -1,13 +1,9 @@
 package players;
 
-import actions.PolicyAction;
-import enums.ActionType;
 import enums.Party;
-import enums.Policy;
 import enums.Role;
 import game.Game;
-
-import java.util.LinkedList;
+import game.Hand;
 
 /**
  * Implements strategy for a Hitler Player
@@ -24,10 +20,17 @@ public class Hitler extends Fascist {
         super(id, game);
         role = Role.HITLER;
         party = Party.FASCIST;
-        playerParties = new Party[7];
-        for(int i = 0; i < playerParties.length; i++) {
-            playerParties[i] = i == this.id ? this.getParty() : null;
-        }
+    }
+
+    /**
+     * Determines if Hitler's strategy reads its suspicions
+     * Strategy picks the chancellor, the next president and whom to shoot by suspicion
+     *
+     * @return true
+     */
+    @Override
+    public boolean usesSuspicions() {
+        return true;
     }
 
     /**
@@ -38,7 +41,7 @@ public class Hitler extends Fascist {
      * @return a random player index other than the player's or the previous chancellor's
      */
     public int chooseChancellor() {
-        assert(this == game.president);
+        assert(isPresident());
         return getMostSuspicousPlayerExclChancellor();
     }
 
@@ -52,7 +55,7 @@ public class Hitler extends Fascist {
      * @return true if the player decides to vote for the combo, false otherwise
      */
     public boolean vote(Player president, Player chancellor){
-        return !(game.liberalPolicies.size() == 5 && playerParties[chancellor.getId()].isLiberal);
+        return !(game.numLiberalPolicies == 5 && playerParties[chancellor.getId()].isLiberal);
     }
 
     /**
@@ -64,10 +67,8 @@ public class Hitler extends Fascist {
      * @return the index of a random player to be selected as the chancellor
      */
     public int choosePresident() {
-        assert(this == game.president);
-        assert(game.fascistPolicies.size() == 3 &&
-                game.actions.getLast().getType() == ActionType.PLAY &&
-                ((PolicyAction)game.actions.getLast()).getPolicy() == Policy.FASCIST);
+        assert(isPresident());
+        assert(game.numFascistPolicies == 3 && playedFascist());
         return getMostSuspiciousPlayer();
     }
 
@@ -80,10 +81,8 @@ public class Hitler extends Fascist {
      * @return the killed player
      */
     public Player shoot() {
-        assert(this == game.president);
-        assert(game.fascistPolicies.size() == 4 || game.fascistPolicies.size() == 5 &&
-                game.actions.getLast().getType() == ActionType.PLAY &&
-                ((PolicyAction)game.actions.getLast()).getPolicy() == Policy.FASCIST);
+        assert(isPresident());
+        assert((game.numFascistPolicies == 4 || game.numFascistPolicies == 5) && playedFascist());
         return game.kill(getMostSuspiciousPlayer());
     }
 
@@ -93,12 +92,12 @@ public class Hitler extends Fascist {
      *
      * @precondition veto power is enabled
      * @precondition the player is the current president or current chancellor
-     * @param policies the policies the current president gave to the current chancellor
+     * @param policies hand of policies the current president gave to the current chancellor
      * @return true if the player will veto, false otherwise
      */
-    public boolean veto(LinkedList<Policy> policies) {
+    public boolean veto(int policies) {
         assert(game.vetoPower);
-        assert(this == game.president || this == game.chancellor);
-        return policies.get(0).isLiberal && policies.get(1).isLiberal;
+        assert(isPresident() || isChancellor());
+        return Hand.numLiberal(policies) == 2;
     }
 }
@@ -1,13 +1,10 @@
 package players;
 
-import actions.PolicyAction;
-import enums.ActionType;
 import enums.Party;
 import enums.Policy;
 import enums.Role;
 import game.Game;
-
-import java.util.LinkedList;
+import game.Hand;
 
 /**
  * Implements strategy for a Liberal Player
@@ -24,10 +21,7 @@ public class Liberal extends Player {
         super(id, game);
         role = Role.LIBERAL;
         party = Party.LIBERAL;
-        playerParties = new Party[7];
-        for(int i = 0; i < playerParties.length; i++) {
-            playerParties[i] = i == this.id ? this.getParty() : null;
-        }
+        reset(id);
     }
 
     /**
@@ -38,7 +32,7 @@ public class Liberal extends Player {
      * @return the least suspicious player available
      */
     public int chooseChancellor() {
-        assert(this == game.president);
+        assert(isPresident());
         return getLeastSuspiciousPlayerExclChancellor();
     }
 
@@ -48,33 +42,28 @@ public class Liberal extends Player {
      * Will discard a fascist policy if one is present
      *
      * @precondition the player is the president
-     * @return two policies for the chancellor to pick from
+     * @return a hand of two policies for the chancellor to pick from
      */
-    public LinkedList<Policy> draw() {
-        assert(this == game.president);
+    public int draw() {
+        assert(isPresident());
         //Shuffle in discard if not enough cards in the deck
         if(game.deck.size() < 3) {
             game.shuffleInDiscard();
         }
-        LinkedList<Policy> hand = new LinkedList<Policy>();
         //Draw three cards from the deck
-        for(int i = 0; i < 3; i++) {
-            hand.add(game.deck.pop());
-        }
+        int hand = game.deck.drawThree();
         //Discard a fascist policy if it exists in the hand
-        for(Policy policy : hand) {
-            if(!policy.isLiberal) {
-                game.discard.push(policy);
-                hand.remove(policy);
+        //If there isn't a fascist policy, discard the first liberal policy
+        int discard = 0;
+        for(int i = 0; i < 3; i++) {
+            if(!Hand.isLiberal(hand, i)) {
+                discard = i;
                 break;
             }
         }
-        //If there isn't a fascist policy, discard the first liberal policy
-        if(hand.size() == 3) {
-            game.discard.add(hand.remove(0));
-        }
+        game.deck.discard(Hand.get(hand, discard));
         //Returns the remaining two cards
-        return hand;
+        return Hand.remove(hand, discard);
     }
 
     /**
@@ -82,27 +71,28 @@ public class Liberal extends Player {
      * Will play a liberal policy if one is present
      *
      * @precondition the player is the chancellor
-     * @precondition policies.size() == 2
-     * @param policies policies to be played
+     * @precondition Hand.size(policies) == 2
+     * @param policies hand of policies to be played
      * @return the played policy
      */
-    public Policy play(LinkedList<Policy> policies) {
-        assert(this == game.chancellor);
-        assert(policies.size() == 2);
+    public Policy play(int policies) {
+        assert(isChancellor());
+        assert(Hand.size(policies) == 2);
         //If the first policy is liberal, return it and discard the second policy
-        if(policies.get(0).isLiberal) {
-            game.discard.push(policies.get(1));
-            return policies.get(0);
+        if(Hand.isLiberal(policies, 0)) {
+            game.deck.discard(Hand.get(policies, 1));
+            return Hand.get(policies, 0);
         }
         //Otherwise, play the second policy
-        game.discard.push(policies.get(0));
-        return policies.get(1);
+        game.deck.discard(Hand.get(policies, 0));
+        return Hand.get(policies, 1);
     }
 
     /**
      * Determines if the player will vote for a president/chancellor combo
-     * Will vote yes if fewer than three fascist policies are played, if two governments have
-     *   failed, or if the president and chancellor have < 50 suspicion
+     * Will vote yes if fewer than three fascist policies are played, if more than
+     *   params.failedVotes governments have failed (two by default), or if the president and
+     *   chancellor have less than params.voteThreshold suspicion (50 by default)
      * Will always vote yes if self is chancellor
      *
      * @param president the current president
@@ -110,10 +100,11 @@ public class Liberal extends Player {
      * @return true if the player decides to vote for the combo, false otherwise
      */
     public boolean vote(Player president, Player chancellor) {
-        return this == chancellor ||
-                game.fascistPolicies.size() < 3 ||
-                game.numFailed > 1 ||
-                (suspicions[president.getId()] < 50 && suspicions[chancellor.getId()] < 50);
+        return chancellor.getId() == id ||
+                game.numFascistPolicies < 3 ||
+                game.numFailed > game.params.failedVotes ||
+                (suspicion(president.getId()) < game.params.voteThreshold &&
+                        suspicion(chancellor.getId()) < game.params.voteThreshold);
     }
 
     /**
@@ -125,10 +116,8 @@ public class Liberal extends Player {
      * @return the index of a random player to be selected as the chancellor
      */
     public int choosePresident() {
-        assert(this == game.president);
-        assert(game.fascistPolicies.size() == 3 &&
-                game.actions.getLast().getType() == ActionType.PLAY &&
-                ((PolicyAction)game.actions.getLast()).getPolicy() == Policy.FASCIST);
+        assert(isPresident());
+        assert(game.numFascistPolicies == 3 && playedFascist());
         return getLeastSuspiciousPlayer();
     }
 
@@ -141,10 +130,8 @@ public class Liberal extends Player {
      * @return the killed player
      */
     public Player shoot() {
-        assert(this == game.president);
-        assert(game.fascistPolicies.size() == 4 || game.fascistPolicies.size() == 5 &&
-                game.actions.getLast().getType() == ActionType.PLAY &&
-                ((PolicyAction)game.actions.getLast()).getPolicy() == Policy.FASCIST);
+        assert(isPresident());
+        assert((game.numFascistPolicies == 4 || game.numFascistPolicies == 5) && playedFascist());
         return game.kill(getMostSuspiciousPlayer());
     }
 
@@ -154,13 +141,13 @@ public class Liberal extends Player {
      *
      * @precondition veto power is enabled
      * @precondition the player is the current president or current chancellor
-     * @param policies the policies the current president gave to the current chancellor
+     * @param policies hand of policies the current president gave to the current chancellor
      * @return true if the player will veto, false otherwise
      */
-    public boolean veto(LinkedList<Policy> policies) {
+    public boolean veto(int policies) {
         assert(game.vetoPower);
-        assert(this == game.president || this == game.chancellor);
-        return !(policies.get(0).isLiberal || policies.get(1).isLiberal);
+        assert(isPresident() || isChancellor());
+        return Hand.numLiberal(policies) == 0;
     }
 
 }
@@ -0,0 +1,199 @@
+package players;
+
+import enums.Decision;
+import enums.Party;
+import enums.Policy;
+import enums.Role;
+import game.Game;
+import game.Hand;
+import game.Mcts;
+
+/**
+ * Implements a player of any role that searches its moves, see Mcts
+ * Nominations, discards, plays, votes, vetoes and shots are searched, investigations and special
+ *   elections are left to the strategy of the player's role, which also keeps what the player
+ *   learns
+ * Takes the place of a roster player through Game.setRosterPlayer
+ */
+public class MctsPlayer extends Player {
+
+    private final Player strategy;  //Strategy of the player's role, never seated
+    private final Mcts search;      //Searches the player's decisions
+
+    /**
+     * Constructor
+     *
+     * @param id unique identifier for the player
+     * @param game game the player is taking part in
+     * @param role the player's role
+     * @param search searches the player's decisions, used by this player only
+     */
+    public MctsPlayer(int id, Game game, Role role, Mcts search) {
+        super(id, game);
+        this.role = role;
+        party = role == Role.LIBERAL ? Party.LIBERAL : Party.FASCIST;
+        strategy = role == Role.LIBERAL ? new Liberal(id, game) :
+                role == Role.FASCIST ? new Fascist(id, game) : new Hitler(id, game);
+        this.search = search;
+        reset(id);
+    }
+
+    /**
+     * Prepares the player for a new game, forgetting everything learned in the previous one
+     *
+     * @param id the player's new unique identifier
+     */
+    @Override
+    public void reset(int id) {
+        super.reset(id);
+        strategy.reset(id);
+    }
+
+    /**
+     * Copies the player onto a fork of its game as the strategy of its role, which holds what
+     *   the player learned, since the search serves one game at a time
+     *
+     * @param game the fork the copy takes part in
+     * @return the copy, not yet seated
+     */
+    @Override
+    public Player fork(Game game) {
+        return strategy.fork(game);
+    }
+
+    /**
+     * Shows another player's party to the strategy, which keeps what the player learns
+     *
+     * @param playerId ID of the player whose party is shown
+     */
+    @Override
+    public void showParty(int playerId) {
+        strategy.showParty(playerId);
+    }
+
+    /**
+     * Shows every player's role to the strategy
+     */
+    @Override
+    public void viewRoles() {
+        strategy.viewRoles();
+    }
+
+    /**
+     * Determines if the player's strategy reads its suspicions
+     * The strategy's heuristics run whenever the search leaves them a move
+     *
+     * @return true if the strategy of the player's role uses suspicions
+     */
+    @Override
+    public boolean usesSuspicions() {
+        return strategy.usesSuspicions();
+    }
+
+    /**
+     * Chooses the next chancellor by search
+     *
+     * @precondition the current player is the president
+     * @return the index of a player other than the player or the previous chancellor
+     */
+    @Override
+    public int chooseChancellor() {
+        assert(isPresident());
+        return search.search(game, this, strategy.playerParties, Decision.CHANCELLOR, 0);
+    }
+
+    /**
+     * Handles drawing three cards from the deck and discarding one
+     * The discard is searched
+     *
+     * @precondition the player is the president
+     * @return a hand of two policies for the chancellor to pick from
+     */
+    @Override
+    public int draw() {
+        assert(isPresident());
+        //Shuffle in discard if not enough cards in the deck
+        if(game.deck.size() < 3) {
+            game.shuffleInDiscard();
+        }
+        int hand = game.deck.drawThree();
+        int discard = search.search(game, this, strategy.playerParties, Decision.DISCARD, hand);
+        game.deck.discard(Hand.get(hand, discard));
+        return Hand.remove(hand, discard);
+    }
+
+    /**
+     * Plays one of two policies by search, adding the unplayed policy to the discard
+     *
+     * @precondition the player is the chancellor
+     * @precondition Hand.size(policies) == 2
+     * @param policies hand of policies to be played
+     * @return the played policy
+     */
+    @Override
+    public Policy play(int policies) {
+        assert(isChancellor());
+        assert(Hand.size(policies) == 2);
+        int played = search.search(game, this, strategy.playerParties, Decision.PLAY, policies);
+        game.deck.discard(Hand.get(policies, 1 - played));
+        return Hand.get(policies, played);
+    }
+
+    /**
+     * Investigates a player by the strategy of the player's role
+     *
+     * @return the investigated player
+     */
+    @Override
+    public Player investigate() {
+        return strategy.investigate();
+    }
+
+    /**
+     * Determines by search if the player will vote for a president/chancellor combo
+     *
+     * @param president the current president
+     * @param chancellor the current chancellor
+     * @return true if the player decides to vote for the combo, false otherwise
+     */
+    @Override
+    public boolean vote(Player president, Player chancellor) {
+        return search.search(game, this, strategy.playerParties, Decision.VOTE, 0) == 1;
+    }
+
+    /**
+     * Chooses the next president by the strategy of the player's role
+     *
+     * @precondition the player is the president
+     * @return the index of the next president
+     */
+    @Override
+    public int choosePresident() {
+        return strategy.choosePresident();
+    }
+
+    /**
+     * Shoots a player chosen by search
+     *
+     * @precondition the player is the president
+     * @return the killed player
+     */
+    @Override
+    public Player shoot() {
+        assert(isPresident());
+        return game.kill(search.search(game, this, strategy.playerParties, Decision.SHOOT, 0));
+    }
+
+    /**
+     * Determines by search if the player will veto the two policies passed to the chancellor
+     *
+     * @precondition the player is the current president or current chancellor
+     * @param policies hand of policies the current president gave to the current chancellor
+     * @return true if the player will veto, false otherwise
+     */
+    @Override
+    public boolean veto(int policies) {
+        assert(isPresident() || isChancellor());
+        return search.search(game, this, strategy.playerParties, Decision.VETO, policies) == 1;
+    }
+}
@@ -1,17 +1,17 @@
 package players;
 
 import actions.Action;
-import actions.PlayerAction;
 import actions.PolicyAction;
 import enums.ActionType;
 import enums.Party;
 import enums.Policy;
 import enums.Role;
 import game.Game;
+import game.Hand;
+import game.SeatTable;
 
 import java.util.Arrays;
 import java.util.LinkedList;
-import java.util.Random;
 
 /**
  * Represents a player
@@ -22,8 +22,6 @@ public abstract class Player implements Comparable<Player> {
     protected final Game game;                  //Game the player is taking part in
     protected Role role;                        //Player's role
     protected Party party;                      //Player's party
-    protected LinkedList<Action>[] knowledge;   //Actions player is aware of
-    protected int[] suspicions;                 //How suspect each player appears
     protected Party[] playerParties;            //Known player parties, null if unknown
 
     /**
@@ -32,16 +30,53 @@ public abstract class Player implements Comparable<Player> {
      * @param id unique identifier for the player
      * @param game game the player is taking part in
      */
-    @SuppressWarnings("unchecked")
     public Player(int id, Game game) {
         this.id = id;
         this.game = game;
-        knowledge = new LinkedList[7];
-        for(int i = 0; i < knowledge.length; i++) {
-            knowledge[i] = new LinkedList<Action>();
-        }
-        suspicions = new int[7];
-        Arrays.fill(suspicions, 0);
+        playerParties = new Party[7];
+    }
+
+    /**
+     * Prepares the player for a new game, forgetting everything learned in the previous one
+     *
+     * @param id the player's new unique identifier
+     */
+    public void reset(int id) {
+        this.id = id;
+        Arrays.fill(playerParties, null);
+        learnParty(id, party);
+    }
+
+    /**
+     * Shows every player's role to the player, the game calls it for players with the FASCIST
+     *   role once they are all seated
+     * Default strategy ignores the roles
+     */
+    public void viewRoles() {
+    }
+
+    /**
+     * Copies the player onto a fork of its game, see Game.fork
+     * Default copies the role's strategy, Liberal, Fascist or Hitler, with everything the player
+     *   learned so far
+     *
+     * @param game the fork the copy takes part in
+     * @return the copy, not yet seated
+     */
+    public Player fork(Game game) {
+        Player copy = role == Role.LIBERAL ? new Liberal(id, game) :
+                role == Role.FASCIST ? new Fascist(id, game) : new Hitler(id, game);
+        copy.copyKnowledge(this);
+        return copy;
+    }
+
+    /**
+     * Copies what another player of the same role learned
+     *
+     * @param other the player whose knowledge is copied
+     */
+    protected void copyKnowledge(Player other) {
+        System.arraycopy(other.playerParties, 0, playerParties, 0, playerParties.length);
     }
 
     /**
@@ -79,7 +114,7 @@ public abstract class Player implements Comparable<Player> {
      * @return a random player index other than the player's or the previous chancellor's
      */
     public int chooseChancellor() {
-        assert(this == game.president);
+        assert(isPresident());
         int playerIndex = getPlayerIndex();
         int lastChancellor = game.getChancellorIndex();
 
@@ -88,9 +123,7 @@ public abstract class Player implements Comparable<Player> {
         int numChoices = playerIndex == lastChancellor ?
                 game.players.size() - 1 : game.players.size() - 2;
 
-        Random rand = new Random();
-
-        int index = rand.nextInt(numChoices);
+        int index = game.random.nextInt(numChoices);
         int mod = 0;
 
         //If the player's index is below or at the chosen index
@@ -114,27 +147,23 @@ public abstract class Player implements Comparable<Player> {
      * Default strategy is random
      *
      * @precondition the player is the president
-     * @return two policies for the chancellor to pick from
+     * @return a hand of two policies for the chancellor to pick from
      */
-    public LinkedList<Policy> draw() {
-        assert(this == game.president);
+    public int draw() {
+        assert(isPresident());
         //Shuffle in discard if not enough cards in the deck
         if(game.deck.size() < 3) {
             game.shuffleInDiscard();
         }
 
-        LinkedList<Policy> hand = new LinkedList<Policy>();
         //Draw three cards from the deck
-        for(int i = 0; i < 3; i++) {
-            hand.add(game.deck.pop());
-        }
+        int hand = game.deck.drawThree();
         //Discards a random card from the hand
-        Random rand = new Random();
-        int discard = rand.nextInt(3);
-        game.discard.push(hand.remove(discard));
+        int discard = game.random.nextInt(3);
+        game.deck.discard(Hand.get(hand, discard));
 
         //Returns the remaining two cards
-        return hand;
+        return Hand.remove(hand, discard);
     }
 
     /**
@@ -142,16 +171,16 @@ public abstract class Player implements Comparable<Player> {
      * Default strategy is random
      *
      * @precondition the player is the chancellor
-     * @precondition policies.size() == 2
-     * @param policies policies to be played
+     * @precondition Hand.size(policies) == 2
+     * @param policies hand of policies to be played
      * @return the played policy
      */
-    public Policy play(LinkedList<Policy> policies) {
-        assert(this == game.chancellor);
-        assert(policies.size() == 2);
-        Random rand = new Random();
-        game.discard.push(policies.remove(rand.nextInt(2)));
-        return policies.get(0);
+    public Policy play(int policies) {
+        assert(isChancellor());
+        assert(Hand.size(policies) == 2);
+        int discard = game.random.nextInt(2);
+        game.deck.discard(Hand.get(policies, discard));
+        return Hand.get(policies, 1 - discard);
     }
 
     /**
@@ -162,7 +191,7 @@ public abstract class Player implements Comparable<Player> {
      */
     public Player investigate() {
         Player investigated = game.players.get(pickRandomPlayer());
-        playerParties[investigated.getId()] = investigated.getParty();
+        learnParty(investigated.getId(), investigated.getParty());
         return investigated;
     }
 
@@ -177,12 +206,11 @@ public abstract class Player implements Comparable<Player> {
      */
     public boolean vote(Player president, Player chancellor) {
         //If the game cannot be ended by electing Hitler as chancellor, vote yes on the combo
-        if(game.fascistPolicies.size() < 3) {
+        if(game.numFascistPolicies < 3) {
             return true;
         }
         else {
-            Random rand = new Random();
-            return rand.nextBoolean();
+            return game.random.nextBoolean();
         }
     }
 
@@ -195,10 +223,8 @@ public abstract class Player implements Comparable<Player> {
      * @return the index of a random player to be selected as the chancellor
      */
     public int choosePresident() {
-        assert(this == game.president);
-        assert(game.fascistPolicies.size() == 3 &&
-                game.actions.getLast().getType() == ActionType.PLAY &&
-                ((PolicyAction)game.actions.getLast()).getPolicy() == Policy.FASCIST);
+        assert(isPresident());
+        assert(game.numFascistPolicies == 3 && playedFascist());
         return pickRandomPlayer();
     }
 
@@ -211,10 +237,8 @@ public abstract class Player implements Comparable<Player> {
      * @return the killed player
      */
     public Player shoot() {
-        assert(this == game.president);
-        assert(game.fascistPolicies.size() == 4 || game.fascistPolicies.size() == 5 &&
-                game.actions.getLast().getType() == ActionType.PLAY &&
-                ((PolicyAction)game.actions.getLast()).getPolicy() == Policy.FASCIST);
+        assert(isPresident());
+        assert((game.numFascistPolicies == 4 || game.numFascistPolicies == 5) && playedFascist());
         return game.kill(pickRandomPlayer());
     }
 
@@ -224,14 +248,13 @@ public abstract class Player implements Comparable<Player> {
      *
      * @precondition veto power is enabled
      * @precondition the player is the current president or current chancellor
-     * @param policies the policies the current president gave to the current chancellor
+     * @param policies hand of policies the current president gave to the current chancellor
      * @return true if the player will veto, false otherwise
      */
-    public boolean veto(LinkedList<Policy> policies) {
+    public boolean veto(int policies) {
         assert(game.vetoPower);
-        assert(this == game.president || this == game.chancellor);
-        Random rand = new Random();
-        return rand.nextBoolean();
+        assert(isPresident() || isChancellor());
+        return game.random.nextBoolean();
     }
 
     /**
@@ -240,22 +263,63 @@ public abstract class Player implements Comparable<Player> {
      * @return the index of this player, -1 if the player is dead
      */
     public int getPlayerIndex() {
-        for(int i = 0; i < game.players.size(); i++) {
-            if (this == game.players.get(i)) {
-                return i;
-            }
+        return game.players.indexOf(id);
+    }
+
+    /**
+     * Determines if the most recent action was the chancellor playing a fascist policy, for the
+     *   preconditions of the fascist powers
+     *
+     * @return true if it was, or if the game does not keep its log
+     */
+    protected boolean playedFascist() {
+        if(!game.getKnowledge().keepsLog) {
+            return true;
         }
-        return -1;
+        Action last = game.actions.getLast();
+        return last.getType() == ActionType.PLAY &&
+                ((PolicyAction) last).getPolicy() == Policy.FASCIST;
+    }
+
+    /**
+     * Determines if the player is the president, by ID so that a strategy a seated player
+     *   delegates to counts as holding the seat it stands in for
+     *
+     * @return true if the player is the current president
+     */
+    protected boolean isPresident() {
+        return game.president != null && game.president.getId() == id;
+    }
+
+    /**
+     * Determines if the player is the chancellor, by ID as isPresident does
+     *
+     * @return true if the player is the current chancellor
+     */
+    protected boolean isChancellor() {
+        return game.chancellor != null && game.chancellor.getId() == id;
+    }
+
+    /**
+     * Determines if the player's strategy reads its suspicions, the game only keeps them up to
+     *   date for players whose strategy does
+     * Default strategy is random but the suspicion helpers are available to it
+     *
+     * @return true if the player's strategy uses suspicions
+     */
+    public boolean usesSuspicions() {
+        return true;
     }
 
     /**
-     * Adds an action to the knowledge of the player and updates suspicions
+     * Gets the actions of another player that this player is aware of
      *
-     * @param action an action
+     * @precondition the game's knowledge level is FULL, otherwise the log is empty
+     * @param actorId ID of the player who took the actions
+     * @return the actions, with the policies of any the player could not see hidden
      */
-    public void addAction(Action action) {
-        updateSuspicions(action);
-        knowledge[action.getPlayer().getId()].add(action);
+    public LinkedList<Action> getKnowledge(int actorId) {
+        return game.actions.view(id, actorId);
     }
 
     /**
@@ -276,9 +340,7 @@ public abstract class Player implements Comparable<Player> {
      */
     protected int pickRandomPlayer() {
         int playerIndex = getPlayerIndex();
-
-        Random rand = new Random();
-        int index = rand.nextInt(game.players.size() - 1);
+        int index = game.random.nextInt(game.players.size() - 1);
         if(index >= playerIndex) {
             index++;
         }
@@ -293,10 +355,10 @@ public abstract class Player implements Comparable<Player> {
     protected int getLeastSuspiciousPlayer() {
         int leastIndex = 0;
         int leastValue = Integer.MAX_VALUE;
-        for(int i = 0; i < suspicions.length; i++) {
-            if(suspicions[i] < leastValue && game.isAlive(i) && this.id != i) {
+        for(int i = 0; i < SeatTable.NUM_SEATS; i++) {
+            if(suspicion(i) < leastValue && game.isAlive(i) && this.id != i) {
                 leastIndex = i;
-                leastValue = suspicions[i];
+                leastValue = suspicion(i);
             }
         }
         return game.findPlayerIndexById(leastIndex);
@@ -310,11 +372,11 @@ public abstract class Player implements Comparable<Player> {
     protected int getLeastSuspiciousPlayerExclChancellor() {
         int leastIndex = 0;
         int leastValue = Integer.MAX_VALUE;
-        for(int i = 0; i < suspicions.length; i++) {
-            if(suspicions[i] < leastValue && game.isAlive(i) &&
+        for(int i = 0; i < SeatTable.NUM_SEATS; i++) {
+            if(suspicion(i) < leastValue && game.isAlive(i) &&
                     (game.chancellor == null || game.chancellor.getId() != i) && this.id != i) {
                 leastIndex = i;
-                leastValue = suspicions[i];
+                leastValue = suspicion(i);
             }
         }
         return game.findPlayerIndexById(leastIndex);
@@ -328,10 +390,10 @@ public abstract class Player implements Comparable<Player> {
     protected int getMostSuspiciousPlayer() {
         int mostIndex = 0;
         int mostValue = Integer.MIN_VALUE;
-        for(int i = 0; i < suspicions.length; i++) {
-            if(suspicions[i] > mostValue && game.isAlive(i) && this.id != i) {
+        for(int i = 0; i < SeatTable.NUM_SEATS; i++) {
+            if(suspicion(i) > mostValue && game.isAlive(i) && this.id != i) {
                 mostIndex = i;
-                mostValue = suspicions[i];
+                mostValue = suspicion(i);
             }
         }
         return game.findPlayerIndexById(mostIndex);
@@ -345,79 +407,46 @@ public abstract class Player implements Comparable<Player> {
     protected int getMostSuspicousPlayerExclChancellor() {
         int mostIndex = 0;
         int mostValue = Integer.MIN_VALUE;
-        for(int i = 0; i < suspicions.length; i++) {
-            if(suspicions[i] > mostValue && game.isAlive(i) &&
+        for(int i = 0; i < SeatTable.NUM_SEATS; i++) {
+            if(suspicion(i) > mostValue && game.isAlive(i) &&
                     (game.chancellor == null || game.chancellor.getId() != i)  && this.id != i) {
                 mostIndex = i;
-                mostValue = suspicions[i];
+                mostValue = suspicion(i);
             }
         }
         return game.findPlayerIndexById(mostIndex);
     }
 
-    private void updateSuspicions(Action action) {
-        suspicions[action.getPlayer().getId()] += calcSuspicion(action);
+    /**
+     * Gets how suspect this player finds another player
+     *
+     * @param suspect ID of the other player
+     * @return this player's suspicion of the other player
+     */
+    protected int suspicion(int suspect) {
+        return game.suspicions.get(id, suspect);
     }
 
     /**
-     * Assigns a suspicion value to an isolated action
+     * Shows the player another player's party, as an investigation would, for a game set up
+     *   from a Position
      *
-     * @param action an Action
-     * @return the suspicion associated with the action
+     * @param playerId ID of the player whose party is shown
      */
-    private int calcSuspicion(Action action) {
+    public void showParty(int playerId) {
+        learnParty(playerId, game.players.getById(playerId).getParty());
+    }
 
-        if(playerParties[action.getPlayer().getId()] == Party.FASCIST) {
-            return Integer.MAX_VALUE;
-        }
-        else if(playerParties[action.getPlayer().getId()] == Party.LIBERAL) {
-            return Integer.MIN_VALUE;
-        }
-            if(action.getClass() == PolicyAction.class){
-                PolicyAction policyAction = (PolicyAction)action;
-                switch(policyAction.getType()) {
-                    case PLAY:
-                        if(policyAction.getPolicy() == Policy.FASCIST) {
-                            return 10;
-                        }
-                        else {
-                            return 10;
-                        }
-                    case DISCARD:
-                        if(policyAction.getPolicy() == Policy.FASCIST) {
-                            return 5;
-                        }
-                        else  if(policyAction.getPolicy() == Policy.LIBERAL) {
-                            return 25;
-                        }
-                        break;
-                    case PASS:
-                        break;
-                    case DECLARE_PASSED:
-                        break;
-                    case VETO:
-                        break;
-                }
-            } else {
-                PlayerAction playerAction = (PlayerAction)action;
-                switch(playerAction.getType()) {
-                    case SELECT:
-                        return (int)(suspicions[playerAction.getVictim().getId()] * .5);
-                    case ACCUSE:
-                        if(this == playerAction.getVictim()) {
-                            return 50;
-                        }
-                        break;
-                    case INVESTIGATE:
-                        break;
-                    case SHOOT:
-                        break;
-                    case VOTE_YES:
-                        break;
-                    case VOTE_NO:
-                        break;
-                }
-            }
-        return 0;
+    /**
+     * Learns the party of a player, which pushes every later suspicion of them to an extreme and
+     *   rules out the role layouts that contradict it
+     *
+     * @param playerId ID of the player
+     * @param playerParty the player's party
+     */
+    protected void learnParty(int playerId, Party playerParty) {
+        playerParties[playerId] = playerParty;
+        game.suspicions.reveal(id, playerId);
+        game.beliefs.reveal(id, playerId, playerParty);
     }
 }
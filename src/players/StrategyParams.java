@@ -0,0 +1,79 @@
+package players;
+
+import enums.Parameter;
+
+/**
+ * Values of the tuning constants the strategies use, see Parameter
+ * A game's players read them from game.params, so one game can be replayed under many values
+ */
+public class StrategyParams {
+
+    public static final StrategyParams DEFAULT = new StrategyParams(defaults());
+
+    public final int playFascist;       //Suspicion of a player who plays a fascist policy
+    public final int playLiberal;       //Suspicion of a player who plays a liberal policy
+    public final int discardFascist;    //Suspicion of a player who discards a fascist policy
+    public final int discardLiberal;    //Suspicion of a player who discards a liberal policy
+    public final double selectFactor;   //Share of the selected player's suspicion passed on
+    public final int voteThreshold;     //Suspicion at which a liberal votes against a government
+    public final int failedVotes;       //Failed elections past which a liberal always votes yes
+    private final double[] values;      //Every value, by Parameter ordinal
+
+    /**
+     * Constructor
+     *
+     * @param values value of every parameter, by Parameter ordinal
+     */
+    public StrategyParams(double[] values) {
+        assert(values.length == Parameter.values().length);
+        this.values = values.clone();
+        playFascist = (int) values[Parameter.PLAY_FASCIST.ordinal()];
+        playLiberal = (int) values[Parameter.PLAY_LIBERAL.ordinal()];
+        discardFascist = (int) values[Parameter.DISCARD_FASCIST.ordinal()];
+        discardLiberal = (int) values[Parameter.DISCARD_LIBERAL.ordinal()];
+        selectFactor = values[Parameter.SELECT_FACTOR.ordinal()];
+        voteThreshold = (int) values[Parameter.VOTE_THRESHOLD.ordinal()];
+        failedVotes = (int) values[Parameter.FAILED_VOTES.ordinal()];
+    }
+
+    /**
+     * Gets the value of a parameter
+     *
+     * @param parameter the parameter
+     * @return its value
+     */
+    public double get(Parameter parameter) {
+        return values[parameter.ordinal()];
+    }
+
+    /**
+     * Gets the default value of every parameter
+     *
+     * @return the defaults, by Parameter ordinal
+     */
+    private static double[] defaults() {
+        Parameter[] parameters = Parameter.values();
+        double[] values = new double[parameters.length];
+        for(int i = 0; i < parameters.length; i++) {
+            values[i] = parameters[i].defaultValue;
+        }
+        return values;
+    }
+
+    /**
+     * Produces a String representation of the values
+     *
+     * @return every parameter and its value
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for(Parameter parameter : Parameter.values()) {
+            if(out.length() > 0) {
+                out.append(", ");
+            }
+            out.append(parameter).append('=').append(get(parameter));
+        }
+        return out.toString();
+    }
+}